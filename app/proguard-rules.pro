@@ -18,4 +18,42 @@
 
 # If you keep the line number information, uncomment this to
 # hide the original source file name.
-#-renamesourcefileattribute SourceFile
\ No newline at end of file
+#-renamesourcefileattribute SourceFile
+
+# Firestore maps documents onto these classes by reflection through the
+# no-arg constructor and bean getters/setters, so R8 must keep their names.
+-keepattributes Signature,*Annotation*
+-keep class com.playerlagbe.ManageShopActivity$Product {
+    public <init>();
+    public *** get*();
+    public *** is*();
+    public void set*(***);
+}
+-keep class com.playerlagbe.Order {
+    public <init>();
+    public *** get*();
+    public *** is*();
+    public void set*(***);
+}
+-keep class com.playerlagbe.Team {
+    public <init>();
+    public *** get*();
+    public *** is*();
+    public void set*(***);
+}
+-keep class com.playerlagbe.Player {
+    public <init>();
+    public *** get*();
+    public *** is*();
+    public void set*(***);
+}
+-keep class com.playerlagbe.Match {
+    public <init>();
+    public *** get*();
+    public *** is*();
+    public void set*(***);
+}
+
+# Keep line numbers so release crash reports stay readable
+-keepattributes SourceFile,LineNumberTable
+-renamesourcefileattribute SourceFile
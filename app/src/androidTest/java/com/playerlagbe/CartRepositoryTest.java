@@ -0,0 +1,120 @@
+package com.playerlagbe;
+
+import android.content.Context;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.FirebaseApp;
+import com.google.firebase.FirebaseOptions;
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.Source;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Cart sync against the Auth and Firestore emulators on the host (firebase
+ * emulators:start from the repository root), reached at 10.0.2.2. Signs in
+ * anonymously so the writes pass the security rules.
+ */
+@RunWith(AndroidJUnit4.class)
+public class CartRepositoryTest {
+
+    private static final String EMULATOR_HOST = "10.0.2.2";
+    private static final int EMULATOR_PORT = 8080;
+    private static final int AUTH_EMULATOR_PORT = 9099;
+    private static final long SETTLE_MS = 3_000;
+
+    private Context context;
+    private FirebaseApp app;
+    private FirebaseFirestore firestore;
+    private String uid;
+
+    @Before
+    public void setUp() throws Exception {
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        FirebaseOptions options = new FirebaseOptions.Builder()
+                .setProjectId("demo-cart-" + System.nanoTime())
+                .setApplicationId("1:0:android:0")
+                .setApiKey("fake-api-key")
+                .build();
+        app = FirebaseApp.initializeApp(context, options, "cart-test");
+        firestore = FirebaseFirestore.getInstance(app);
+        firestore.useEmulator(EMULATOR_HOST, EMULATOR_PORT);
+        FirebaseAuth auth = FirebaseAuth.getInstance(app);
+        auth.useEmulator(EMULATOR_HOST, AUTH_EMULATOR_PORT);
+        uid = Tasks.await(auth.signInAnonymously()).getUser().getUid();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        context.getSharedPreferences("cart", Context.MODE_PRIVATE).edit().clear().commit();
+        Tasks.await(firestore.terminate());
+        Tasks.await(firestore.clearPersistence());
+        app.delete();
+    }
+
+    @Test
+    public void coalescesRapidTapsIntoOneWrite() throws Exception {
+        CartRepository repository = onMain(() -> new CartRepository(context, firestore, uid));
+        onMain(() -> {
+            repository.add("ball", "Football", 25.50, 1);
+            for (int i = 0; i < 20; i++) {
+                repository.setQuantity("ball", 2 + i);
+            }
+            return null;
+        });
+        Thread.sleep(SETTLE_MS);
+
+        assertEquals(1, repository.syncWrites);
+        DocumentSnapshot cart = Tasks.await(firestore.collection("carts").document(uid).get(Source.SERVER));
+        assertEquals(21L, cart.getLong("itemCount").longValue());
+        assertEquals(21 * 25.50, cart.getDouble("subtotal"), 0.001);
+        List<?> items = (List<?>) cart.get("items");
+        assertEquals(1, items.size());
+        assertEquals(21L, ((Map<?, ?>) items.get(0)).get("quantity"));
+    }
+
+    @Test
+    public void seedsEmptyDeviceFromServer() throws Exception {
+        CartRepository first = onMain(() -> new CartRepository(context, firestore, uid));
+        onMain(() -> {
+            first.add("ball", "Football", 25.50, 2);
+            first.add("socks", "Socks", 3.99, 1);
+            first.flush();
+            return null;
+        });
+        Thread.sleep(SETTLE_MS);
+
+        // Simulate another device: no local copy of the cart
+        context.getSharedPreferences("cart", Context.MODE_PRIVATE).edit().clear().commit();
+        CartRepository second = onMain(() -> new CartRepository(context, firestore, uid));
+        Thread.sleep(SETTLE_MS);
+
+        Cart cart = onMain(second::getCart);
+        assertEquals(3, cart.getItemCount());
+        assertEquals(2 * 2550 + 399, cart.getSubtotalCents());
+    }
+
+    private interface MainCall<T> {
+        T call();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T onMain(MainCall<T> call) {
+        Object[] result = new Object[1];
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(() -> result[0] = call.call());
+        return (T) result[0];
+    }
+}
@@ -0,0 +1,150 @@
+package com.playerlagbe;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.FirebaseApp;
+import com.google.firebase.FirebaseOptions;
+import com.google.firebase.Timestamp;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.QuerySnapshot;
+import com.google.firebase.firestore.WriteBatch;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Runs against the Firestore emulator on the host (firebase emulators:start
+ * from the repository root), reached from the Android emulator at 10.0.2.2.
+ */
+@RunWith(AndroidJUnit4.class)
+public class ShopCatalogRepositoryTest {
+
+    private static final String EMULATOR_HOST = "10.0.2.2";
+    private static final int EMULATOR_PORT = 8080;
+    private static final long TIMEOUT_SECONDS = 10;
+
+    private FirebaseApp app;
+    private FirebaseFirestore firestore;
+    private ShopCatalogRepository repository;
+
+    @Before
+    public void setUp() throws Exception {
+        // A separate app instance so the emulator and cache settings can be
+        // applied before first use, independent of the default instance
+        FirebaseOptions options = new FirebaseOptions.Builder()
+                .setProjectId("demo-catalog-" + System.nanoTime())
+                .setApplicationId("1:0:android:0")
+                .setApiKey("fake-api-key")
+                .build();
+        app = FirebaseApp.initializeApp(
+                InstrumentationRegistry.getInstrumentation().getTargetContext(), options, "catalog-test");
+        firestore = FirebaseFirestore.getInstance(app);
+        firestore.useEmulator(EMULATOR_HOST, EMULATOR_PORT);
+        ShopCatalogRepository.configureCache(firestore);
+        repository = new ShopCatalogRepository(firestore);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        Tasks.await(firestore.terminate());
+        Tasks.await(firestore.clearPersistence());
+        app.delete();
+    }
+
+    @Test
+    public void servesCachedCatalogWhenOffline() throws Exception {
+        seedProducts(3);
+        // Warm the cache with an online read
+        assertEquals(3, Tasks.await(repository.catalogQuery().get()).size());
+
+        Tasks.await(firestore.disableNetwork());
+        FetchResult result = fetch();
+
+        assertEquals(1, result.snapshots.size());
+        assertTrue(result.fromCache.get(0));
+        assertEquals(3, result.snapshots.get(0).size());
+        assertTrue(result.servedFromCache);
+    }
+
+    @Test
+    public void reportsErrorWhenOfflineWithColdCache() throws Exception {
+        Tasks.await(firestore.disableNetwork());
+        FetchResult result = fetch();
+
+        assertTrue(result.snapshots.isEmpty());
+        assertNotNull(result.error);
+        assertFalse(result.servedFromCache);
+    }
+
+    @Test
+    public void reconcilesCacheWithServerWhenOnline() throws Exception {
+        seedProducts(2);
+        Tasks.await(repository.catalogQuery().get());
+        seedProducts(1);
+
+        FetchResult result = fetch();
+
+        assertEquals(2, result.snapshots.size());
+        assertTrue(result.fromCache.get(0));
+        assertFalse(result.fromCache.get(1));
+        assertEquals(3, result.snapshots.get(1).size());
+    }
+
+    private void seedProducts(int count) throws Exception {
+        WriteBatch batch = firestore.batch();
+        for (int i = 0; i < count; i++) {
+            Map<String, Object> product = new HashMap<>();
+            product.put("name", "Product " + i);
+            product.put("details", "Details");
+            product.put("price", 10.0 + i);
+            product.put("featured", false);
+            product.put("createdAt", Timestamp.now());
+            batch.set(firestore.collection("shop").document(), product);
+        }
+        Tasks.await(batch.commit());
+    }
+
+    private FetchResult fetch() throws InterruptedException {
+        FetchResult result = new FetchResult();
+        CountDownLatch done = new CountDownLatch(1);
+        repository.fetch(repository.catalogQuery(), new ShopCatalogRepository.FetchListener() {
+            @Override
+            public void onResult(QuerySnapshot snapshot, boolean fromCache) {
+                result.snapshots.add(snapshot);
+                result.fromCache.add(fromCache);
+                if (!fromCache) {
+                    done.countDown();
+                }
+            }
+
+            @Override
+            public void onError(Exception e, boolean servedFromCache) {
+                result.error = e;
+                result.servedFromCache = servedFromCache;
+                done.countDown();
+            }
+        });
+        assertTrue(done.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        return result;
+    }
+
+    private static class FetchResult {
+        final List<QuerySnapshot> snapshots = new ArrayList<>();
+        final List<Boolean> fromCache = new ArrayList<>();
+        Exception error;
+        boolean servedFromCache;
+    }
+}
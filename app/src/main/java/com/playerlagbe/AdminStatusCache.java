@@ -0,0 +1,238 @@
+package com.playerlagbe;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.net.ConnectivityManager;
+import android.net.NetworkCapabilities;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.auth.FirebaseUser;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.ListenerRegistration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Process-wide cache of the signed-in user's admin flag.
+ *
+ * A single snapshot listener on users/{uid} keeps the value current while the
+ * process lives, and the last known value is persisted so admin screens can
+ * gate synchronously on a cold start. A persisted value is trusted for TTL_MS
+ * after it was fetched; past that, callers wait until the listener has
+ * delivered a snapshot from the server. A cached answer is only given to
+ * waiting callers when the device has no network, or when the server hasn't
+ * answered within SERVER_WAIT_MS, so a revoked admin can't get back in on a
+ * stale cache while online.
+ */
+public class AdminStatusCache {
+
+    private static final String TAG = "AdminStatusCache";
+    private static final String PREFS_NAME = "auth_cache";
+    private static final String KEY_UID = "admin_uid";
+    private static final String KEY_IS_ADMIN = "is_admin";
+    private static final String KEY_FETCHED_AT = "admin_fetched_at";
+    private static final long TTL_MS = 10 * 60 * 1000;
+
+    // How long callers wait for the server while the device has a network,
+    // about when Firestore itself stops trying and treats the client as offline
+    private static final long SERVER_WAIT_MS = 10 * 1000;
+
+    private static AdminStatusCache instance;
+
+    private final SharedPreferences prefs;
+    private final ConnectivityManager connectivity;
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final Runnable serverTimeout = this::onServerTimeout;
+    private String uid;
+    private Boolean isAdmin;
+    private long fetchedAt;
+    private ListenerRegistration registration;
+    // The listener has reported from the server since it was attached
+    private boolean live;
+    private final List<FirebaseAuthManager.AdminCheckListener> pending = new ArrayList<>();
+
+    public static synchronized AdminStatusCache getInstance(Context context) {
+        if (instance == null) {
+            instance = new AdminStatusCache(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    private AdminStatusCache(Context context) {
+        prefs = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+        connectivity = (ConnectivityManager) context.getSystemService(Context.CONNECTIVITY_SERVICE);
+        uid = prefs.getString(KEY_UID, null);
+        if (uid != null && prefs.contains(KEY_IS_ADMIN)) {
+            isAdmin = prefs.getBoolean(KEY_IS_ADMIN, false);
+            fetchedAt = prefs.getLong(KEY_FETCHED_AT, 0);
+        }
+    }
+
+    /**
+     * Last known admin flag for the user, however old, or null if never fetched.
+     */
+    public synchronized Boolean peek(String userId) {
+        return userId.equals(uid) ? isAdmin : null;
+    }
+
+    /**
+     * True when the cached value can be trusted without waiting for the server.
+     */
+    public synchronized boolean isFresh(String userId) {
+        if (!userId.equals(uid) || isAdmin == null) {
+            return false;
+        }
+        return live || System.currentTimeMillis() - fetchedAt < TTL_MS;
+    }
+
+    /**
+     * Answers from the cache when fresh, otherwise once the server reports,
+     * or from the last known value when offline.
+     */
+    public synchronized void get(String userId, FirebaseAuthManager.AdminCheckListener listener) {
+        startListening(userId);
+        if (isFresh(userId)) {
+            listener.onAdminCheckResult(isAdmin);
+            return;
+        }
+        pending.add(listener);
+        answerFromCacheIfOffline();
+    }
+
+    private void startListening(String userId) {
+        if (registration != null && userId.equals(uid)) {
+            return;
+        }
+        if (!userId.equals(uid)) {
+            clear();
+            uid = userId;
+        }
+        registration = FirebaseFirestore.getInstance()
+                .collection("users")
+                .document(userId)
+                .addSnapshotListener((snapshot, e) -> {
+                    if (e != null) {
+                        Log.e(TAG, "Error listening to admin status", e);
+                        onError("Failed to check admin status: " + e.getMessage());
+                        return;
+                    }
+                    // A missing user document is treated as non-admin
+                    Boolean admin = snapshot != null && snapshot.exists() ? snapshot.getBoolean("admin") : null;
+                    boolean fromCache = snapshot == null || snapshot.getMetadata().isFromCache();
+                    onResult(userId, admin != null && admin, fromCache);
+                });
+    }
+
+    private synchronized void onResult(String userId, boolean admin, boolean fromCache) {
+        if (!userId.equals(uid)) {
+            return;
+        }
+        if (fromCache) {
+            // Offline copy: kept for peek(), but doesn't restart the TTL or
+            // answer anyone waiting while the server may still report
+            isAdmin = admin;
+            answerFromCacheIfOffline();
+            return;
+        }
+        handler.removeCallbacks(serverTimeout);
+        if (admin && !Boolean.TRUE.equals(isAdmin)) {
+            // Security rules check the admin custom claim, which only reaches
+            // the client with a fresh ID token
+            FirebaseUser user = FirebaseAuth.getInstance().getCurrentUser();
+            if (user != null && userId.equals(user.getUid())) {
+                user.getIdToken(true);
+            }
+        }
+        isAdmin = admin;
+        live = true;
+        fetchedAt = System.currentTimeMillis();
+        prefs.edit()
+                .putString(KEY_UID, userId)
+                .putBoolean(KEY_IS_ADMIN, admin)
+                .putLong(KEY_FETCHED_AT, fetchedAt)
+                .apply();
+        notifyPending(admin);
+    }
+
+    /**
+     * Gives waiting callers the last known value now if the device has no
+     * network, otherwise after SERVER_WAIT_MS without a server snapshot.
+     */
+    private void answerFromCacheIfOffline() {
+        if (pending.isEmpty() || isAdmin == null) {
+            return;
+        }
+        if (!hasNetwork()) {
+            notifyPending(isAdmin);
+            return;
+        }
+        handler.removeCallbacks(serverTimeout);
+        handler.postDelayed(serverTimeout, SERVER_WAIT_MS);
+    }
+
+    private synchronized void onServerTimeout() {
+        if (!live && isAdmin != null) {
+            Log.w(TAG, "No server answer in " + SERVER_WAIT_MS + " ms, using the cached admin status");
+            notifyPending(isAdmin);
+        }
+    }
+
+    private boolean hasNetwork() {
+        if (connectivity == null) {
+            return true;
+        }
+        NetworkCapabilities capabilities = connectivity.getNetworkCapabilities(connectivity.getActiveNetwork());
+        return capabilities != null && capabilities.hasCapability(NetworkCapabilities.NET_CAPABILITY_INTERNET);
+    }
+
+    private void notifyPending(boolean admin) {
+        List<FirebaseAuthManager.AdminCheckListener> waiting = new ArrayList<>(pending);
+        pending.clear();
+        for (FirebaseAuthManager.AdminCheckListener listener : waiting) {
+            listener.onAdminCheckResult(admin);
+        }
+    }
+
+    private synchronized void onError(String error) {
+        // The listener is dead after an error; let the next check re-attach it
+        if (registration != null) {
+            registration.remove();
+            registration = null;
+        }
+        live = false;
+        List<FirebaseAuthManager.AdminCheckListener> waiting = new ArrayList<>(pending);
+        pending.clear();
+        for (FirebaseAuthManager.AdminCheckListener listener : waiting) {
+            listener.onAdminCheckError(error);
+        }
+    }
+
+    /**
+     * Drops the listener and both cached copies. Called on sign-out.
+     */
+    public synchronized void invalidate() {
+        clear();
+        prefs.edit()
+                .remove(KEY_UID)
+                .remove(KEY_IS_ADMIN)
+                .remove(KEY_FETCHED_AT)
+                .apply();
+    }
+
+    private void clear() {
+        if (registration != null) {
+            registration.remove();
+            registration = null;
+        }
+        handler.removeCallbacks(serverTimeout);
+        live = false;
+        uid = null;
+        isAdmin = null;
+        fetchedAt = 0;
+        pending.clear();
+    }
+}
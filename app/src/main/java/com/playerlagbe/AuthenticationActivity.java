@@ -48,7 +48,7 @@ public class AuthenticationActivity extends AppCompatActivity {
         setContentView(R.layout.activity_authentication);
 
         // Initialize Firebase Auth Manager
-        authManager = new FirebaseAuthManager(this);
+        authManager = FirebaseAuthManager.getInstance(this);
 
         // Initialize views
         initializeViews();
@@ -0,0 +1,171 @@
+package com.playerlagbe;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-memory shopping cart: line items keyed by product id, each with the
+ * price seen when it was added.
+ *
+ * Amounts are kept in cents so the running totals stay exact. Every change
+ * adjusts subtotal and item count by its own delta instead of re-summing
+ * the lines. Plain Java so the totals can be unit tested on the JVM; not
+ * thread-safe.
+ */
+public class Cart {
+
+    public static class Line {
+        private final String productId;
+        private final String name;
+        private final long unitPriceCents;
+        private int quantity;
+
+        Line(String productId, String name, long unitPriceCents, int quantity) {
+            this.productId = productId;
+            this.name = name;
+            this.unitPriceCents = unitPriceCents;
+            this.quantity = quantity;
+        }
+
+        public String getProductId() { return productId; }
+        public String getName() { return name; }
+        public long getUnitPriceCents() { return unitPriceCents; }
+        public double getUnitPrice() { return fromCents(unitPriceCents); }
+        public int getQuantity() { return quantity; }
+        public long getTotalCents() { return unitPriceCents * quantity; }
+    }
+
+    private final LinkedHashMap<String, Line> lines = new LinkedHashMap<>();
+    private long subtotalCents = 0;
+    private int itemCount = 0;
+
+    public static long toCents(double price) {
+        return Math.round(price * 100);
+    }
+
+    public static double fromCents(long cents) {
+        return cents / 100.0;
+    }
+
+    /**
+     * Adds quantity of a product. An existing line keeps its original price
+     * snapshot; checkout re-checks prices against the shop.
+     */
+    public void add(String productId, String name, double unitPrice, int quantity) {
+        if (quantity <= 0) {
+            return;
+        }
+        Line line = lines.get(productId);
+        if (line == null) {
+            lines.put(productId, new Line(productId, name, toCents(unitPrice), 0));
+        }
+        setQuantity(productId, (line != null ? line.quantity : 0) + quantity);
+    }
+
+    /**
+     * Sets a line's quantity; zero or less removes it. Unknown products are ignored.
+     */
+    public void setQuantity(String productId, int quantity) {
+        Line line = lines.get(productId);
+        if (line == null) {
+            return;
+        }
+        if (quantity <= 0) {
+            remove(productId);
+            return;
+        }
+        int delta = quantity - line.quantity;
+        line.quantity = quantity;
+        itemCount += delta;
+        subtotalCents += delta * line.unitPriceCents;
+    }
+
+    public void remove(String productId) {
+        Line line = lines.remove(productId);
+        if (line != null) {
+            itemCount -= line.quantity;
+            subtotalCents -= line.getTotalCents();
+        }
+    }
+
+    public void clear() {
+        lines.clear();
+        itemCount = 0;
+        subtotalCents = 0;
+    }
+
+    public Line getLine(String productId) {
+        return lines.get(productId);
+    }
+
+    public List<Line> getLines() {
+        return new ArrayList<>(lines.values());
+    }
+
+    public boolean isEmpty() {
+        return lines.isEmpty();
+    }
+
+    public long getSubtotalCents() {
+        return subtotalCents;
+    }
+
+    public double getSubtotal() {
+        return fromCents(subtotalCents);
+    }
+
+    public int getItemCount() {
+        return itemCount;
+    }
+
+    /**
+     * Replaces a line's price snapshot, keeping its quantity.
+     */
+    public void updatePrice(String productId, double unitPrice) {
+        Line line = lines.get(productId);
+        if (line != null) {
+            restore(productId, line.name, toCents(unitPrice), line.quantity);
+        }
+    }
+
+    /**
+     * Restores a line exactly as stored, price snapshot included.
+     */
+    void restore(String productId, String name, long unitPriceCents, int quantity) {
+        Line old = lines.get(productId);
+        if (old != null) {
+            itemCount -= old.quantity;
+            subtotalCents -= old.getTotalCents();
+        }
+        if (quantity > 0) {
+            // Replacing the value keeps the line's position
+            lines.put(productId, new Line(productId, name, unitPriceCents, quantity));
+            itemCount += quantity;
+            subtotalCents += unitPriceCents * quantity;
+        } else if (old != null) {
+            lines.remove(productId);
+        }
+    }
+
+    /**
+     * Document shape for carts/{uid}.
+     */
+    public Map<String, Object> toDocument() {
+        List<Map<String, Object>> items = new ArrayList<>();
+        for (Line line : lines.values()) {
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("productId", line.productId);
+            item.put("name", line.name);
+            item.put("price", line.getUnitPrice());
+            item.put("quantity", line.quantity);
+            items.add(item);
+        }
+        Map<String, Object> document = new LinkedHashMap<>();
+        document.put("items", items);
+        document.put("itemCount", itemCount);
+        document.put("subtotal", getSubtotal());
+        return document;
+    }
+}
@@ -5,15 +5,33 @@ import android.os.Bundle;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
+import android.widget.Button;
 import android.widget.ImageView;
 import android.widget.PopupMenu;
+import android.widget.TextView;
+import android.widget.Toast;
+import androidx.appcompat.app.AlertDialog;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.fragment.app.Fragment;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
 
-public class CartFragment extends Fragment {
+import com.google.firebase.firestore.FirebaseFirestore;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+public class CartFragment extends Fragment implements CartRepository.Listener {
 
     private View rootView;
+    private View emptyCard;
+    private TextView totalsText;
+    private Button checkoutButton;
+    private CartLineAdapter adapter;
+    private CartRepository cartRepository;
+    private boolean placingOrder = false;
 
     @Nullable
     @Override
@@ -26,6 +44,89 @@ public class CartFragment extends Fragment {
     public void onViewCreated(@NonNull View view, @Nullable Bundle savedInstanceState) {
         super.onViewCreated(view, savedInstanceState);
         setupHamburgerMenu();
+
+        emptyCard = view.findViewById(R.id.cartEmptyCard);
+        totalsText = view.findViewById(R.id.cartTotals);
+        checkoutButton = view.findViewById(R.id.btnCheckout);
+        RecyclerView recyclerView = view.findViewById(R.id.cartRecyclerView);
+        recyclerView.setLayoutManager(new LinearLayoutManager(getContext()));
+        adapter = new CartLineAdapter();
+        recyclerView.setAdapter(adapter);
+        checkoutButton.setOnClickListener(v -> checkout());
+    }
+
+    @Override
+    public void onStart() {
+        super.onStart();
+        cartRepository = CartRepository.getInstance(requireContext());
+        if (cartRepository != null) {
+            cartRepository.addListener(this);
+            onCartChanged(cartRepository.getCart());
+        }
+    }
+
+    @Override
+    public void onStop() {
+        super.onStop();
+        if (cartRepository != null) {
+            cartRepository.removeListener(this);
+        }
+    }
+
+    @Override
+    public void onCartChanged(Cart cart) {
+        adapter.setLines(cart.getLines());
+        emptyCard.setVisibility(cart.isEmpty() ? View.VISIBLE : View.GONE);
+        totalsText.setVisibility(cart.isEmpty() ? View.GONE : View.VISIBLE);
+        totalsText.setText(String.format("%d items, subtotal $%.2f", cart.getItemCount(), cart.getSubtotal()));
+        checkoutButton.setEnabled(!cart.isEmpty() && !placingOrder);
+    }
+
+    private void checkout() {
+        if (cartRepository == null || placingOrder) {
+            return;
+        }
+        placingOrder = true;
+        checkoutButton.setEnabled(false);
+        CheckoutManager checkoutManager = new CheckoutManager(FirebaseFirestore.getInstance());
+        checkoutManager.placeOrder(cartRepository.getUid(), cartRepository.getCart(), new CheckoutManager.CheckoutListener() {
+            @Override
+            public void onOrderPlaced(String orderId) {
+                placingOrder = false;
+                cartRepository.clear();
+                if (getContext() != null) {
+                    Toast.makeText(getContext(), "Order placed", Toast.LENGTH_SHORT).show();
+                }
+            }
+
+            @Override
+            public void onPricesChanged(Map<String, Double> currentPrices) {
+                placingOrder = false;
+                cartRepository.applyCurrentPrices(currentPrices);
+                if (getContext() != null) {
+                    new AlertDialog.Builder(getContext())
+                            .setTitle("Cart Updated")
+                            .setMessage("Some prices changed or items are no longer available. Please review your cart before checking out.")
+                            .setPositiveButton("OK", null)
+                            .show();
+                }
+            }
+
+            @Override
+            public void onCheckoutError(String error) {
+                placingOrder = false;
+                onCartChanged(cartRepository.getCart());
+                if (getContext() != null) {
+                    Toast.makeText(getContext(), "Checkout failed: " + error, Toast.LENGTH_SHORT).show();
+                }
+            }
+        });
+    }
+
+    private void changeQuantity(Cart.Line line, int delta) {
+        if (cartRepository != null) {
+            cartRepository.setQuantity(line.getProductId(), line.getQuantity() + delta);
+        }
     }
 
     private void setupHamburgerMenu() {
@@ -55,4 +156,52 @@ public class CartFragment extends Fragment {
             });
         }
     }
-}
\ No newline at end of file
+
+    private class CartLineAdapter extends RecyclerView.Adapter<CartLineAdapter.ViewHolder> {
+        private List<Cart.Line> lines = new ArrayList<>();
+
+        void setLines(List<Cart.Line> lines) {
+            this.lines = lines;
+            // Carts are a handful of lines; rebinding all of them is cheap
+            notifyDataSetChanged();
+        }
+
+        @NonNull
+        @Override
+        public ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+            View view = LayoutInflater.from(parent.getContext()).inflate(R.layout.item_cart_line, parent, false);
+            return new ViewHolder(view);
+        }
+
+        @Override
+        public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
+            Cart.Line line = lines.get(position);
+            holder.name.setText(line.getName());
+            holder.price.setText(String.format("$%.2f x %d", line.getUnitPrice(), line.getQuantity()));
+            holder.total.setText(String.format("$%.2f", Cart.fromCents(line.getTotalCents())));
+            holder.quantity.setText(String.valueOf(line.getQuantity()));
+            holder.decrease.setOnClickListener(v -> changeQuantity(line, -1));
+            holder.increase.setOnClickListener(v -> changeQuantity(line, 1));
+        }
+
+        @Override
+        public int getItemCount() {
+            return lines.size();
+        }
+
+        class ViewHolder extends RecyclerView.ViewHolder {
+            TextView name, price, total, quantity;
+            Button decrease, increase;
+
+            ViewHolder(View itemView) {
+                super(itemView);
+                name = itemView.findViewById(R.id.cartLineName);
+                price = itemView.findViewById(R.id.cartLinePrice);
+                total = itemView.findViewById(R.id.cartLineTotal);
+                quantity = itemView.findViewById(R.id.cartLineQuantity);
+                decrease = itemView.findViewById(R.id.cartLineDecrease);
+                increase = itemView.findViewById(R.id.cartLineIncrease);
+            }
+        }
+    }
+}
@@ -0,0 +1,256 @@
+package com.playerlagbe;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.auth.FirebaseUser;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldValue;
+import com.google.firebase.firestore.FirebaseFirestore;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The signed-in user's cart, stored on the device and mirrored to carts/{uid}.
+ *
+ * Changes apply to the local Cart and SharedPreferences immediately and
+ * listeners are told right away. The Firestore copy is written SYNC_DELAY_MS
+ * after the last change, with at most one write in flight, so a burst of
+ * quantity taps costs a single network write. When the device has no local
+ * cart yet (new install, other device) it is seeded from carts/{uid}.
+ * Must be used from the main thread.
+ */
+public class CartRepository {
+
+    private static final String TAG = "CartRepository";
+    private static final String PREFS_NAME = "cart";
+    private static final String KEY_CART_PREFIX = "cart_";
+    private static final long SYNC_DELAY_MS = 1_000;
+
+    private static CartRepository instance;
+
+    public interface Listener {
+        void onCartChanged(Cart cart);
+    }
+
+    private final SharedPreferences prefs;
+    private final DocumentReference cartDocument;
+    private final String uid;
+    private final Cart cart = new Cart();
+    private final List<Listener> listeners = new ArrayList<>();
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final Runnable syncRunnable = this::sync;
+    private boolean dirty = false;
+    private boolean writing = false;
+    // Writes issued to Firestore, for tests
+    int syncWrites = 0;
+
+    /**
+     * Cart of the currently signed-in user, or null when signed out.
+     */
+    public static synchronized CartRepository getInstance(Context context) {
+        FirebaseUser user = FirebaseAuth.getInstance().getCurrentUser();
+        if (user == null) {
+            return null;
+        }
+        if (instance == null || !instance.uid.equals(user.getUid())) {
+            if (instance != null) {
+                instance.flush();
+            }
+            instance = new CartRepository(context.getApplicationContext(), FirebaseFirestore.getInstance(), user.getUid());
+        }
+        return instance;
+    }
+
+    public CartRepository(Context context, FirebaseFirestore firestore, String uid) {
+        this.prefs = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+        this.cartDocument = firestore.collection("carts").document(uid);
+        this.uid = uid;
+        if (!load()) {
+            restoreFromServer();
+        }
+    }
+
+    public Cart getCart() {
+        return cart;
+    }
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    public void add(String productId, String name, double unitPrice, int quantity) {
+        cart.add(productId, name, unitPrice, quantity);
+        changed();
+    }
+
+    public void setQuantity(String productId, int quantity) {
+        cart.setQuantity(productId, quantity);
+        changed();
+    }
+
+    public void remove(String productId) {
+        cart.remove(productId);
+        changed();
+    }
+
+    public void clear() {
+        cart.clear();
+        changed();
+    }
+
+    /**
+     * Takes the prices checkout reported as changed: product id to its current
+     * price, or null for products that no longer exist.
+     */
+    public void applyCurrentPrices(Map<String, Double> currentPrices) {
+        for (Map.Entry<String, Double> entry : currentPrices.entrySet()) {
+            if (entry.getValue() == null) {
+                cart.remove(entry.getKey());
+            } else {
+                cart.updatePrice(entry.getKey(), entry.getValue());
+            }
+        }
+        changed();
+    }
+
+    public String getUid() {
+        return uid;
+    }
+
+    /**
+     * Writes any pending change now instead of after the delay.
+     */
+    public void flush() {
+        handler.removeCallbacks(syncRunnable);
+        if (dirty) {
+            sync();
+        }
+    }
+
+    private void changed() {
+        save();
+        for (Listener listener : new ArrayList<>(listeners)) {
+            listener.onCartChanged(cart);
+        }
+        dirty = true;
+        handler.removeCallbacks(syncRunnable);
+        handler.postDelayed(syncRunnable, SYNC_DELAY_MS);
+    }
+
+    private void sync() {
+        if (writing) {
+            // Picked up again when the write in flight completes
+            return;
+        }
+        dirty = false;
+        writing = true;
+        syncWrites++;
+        Map<String, Object> document = cart.toDocument();
+        document.put("updatedAt", FieldValue.serverTimestamp());
+        cartDocument.set(document).addOnCompleteListener(task -> {
+            writing = false;
+            if (!task.isSuccessful()) {
+                Log.w(TAG, "Cart sync failed, will retry on next change", task.getException());
+                dirty = true;
+                return;
+            }
+            if (dirty) {
+                handler.removeCallbacks(syncRunnable);
+                handler.postDelayed(syncRunnable, SYNC_DELAY_MS);
+            }
+        });
+    }
+
+    private void restoreFromServer() {
+        cartDocument.get().addOnSuccessListener(snapshot -> {
+            // Local edits made while this was loading take precedence
+            if (!cart.isEmpty() || !snapshot.exists()) {
+                return;
+            }
+            readDocument(snapshot);
+            save();
+            for (Listener listener : new ArrayList<>(listeners)) {
+                listener.onCartChanged(cart);
+            }
+        }).addOnFailureListener(e -> Log.w(TAG, "Could not restore cart", e));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void readDocument(DocumentSnapshot snapshot) {
+        Object items = snapshot.get("items");
+        if (!(items instanceof List)) {
+            return;
+        }
+        for (Object entry : (List<Object>) items) {
+            if (!(entry instanceof Map)) {
+                continue;
+            }
+            Map<String, Object> item = (Map<String, Object>) entry;
+            Object price = item.get("price");
+            Object quantity = item.get("quantity");
+            if (!(item.get("productId") instanceof String) || !(price instanceof Number)
+                    || !(quantity instanceof Number)) {
+                continue;
+            }
+            cart.restore((String) item.get("productId"), (String) item.get("name"),
+                    Cart.toCents(((Number) price).doubleValue()), ((Number) quantity).intValue());
+        }
+    }
+
+    /**
+     * Returns false when this device has no saved cart for the user.
+     */
+    private boolean load() {
+        String json = prefs.getString(KEY_CART_PREFIX + uid, null);
+        if (json == null) {
+            return false;
+        }
+        try {
+            JSONArray lines = new JSONArray(json);
+            for (int i = 0; i < lines.length(); i++) {
+                JSONObject line = lines.getJSONObject(i);
+                cart.restore(line.getString("productId"), line.optString("name"),
+                        line.getLong("unitPriceCents"), line.getInt("quantity"));
+            }
+        } catch (JSONException e) {
+            Log.w(TAG, "Discarding unreadable cart", e);
+            cart.clear();
+            return false;
+        }
+        return true;
+    }
+
+    private void save() {
+        JSONArray lines = new JSONArray();
+        try {
+            for (Cart.Line line : cart.getLines()) {
+                JSONObject entry = new JSONObject();
+                entry.put("productId", line.getProductId());
+                entry.put("name", line.getName());
+                entry.put("unitPriceCents", line.getUnitPriceCents());
+                entry.put("quantity", line.getQuantity());
+                lines.put(entry);
+            }
+        } catch (JSONException e) {
+            Log.w(TAG, "Failed to save cart", e);
+            return;
+        }
+        prefs.edit().putString(KEY_CART_PREFIX + uid, lines.toString()).apply();
+    }
+}
@@ -0,0 +1,75 @@
+package com.playerlagbe;
+
+import com.google.firebase.firestore.CollectionReference;
+import com.google.firebase.firestore.Query;
+
+/**
+ * Filter and sort options for the shop catalog, turned into a Firestore query
+ * so only matching products are read.
+ *
+ * Firestore requires the first orderBy to be on the field a range filter
+ * uses, so a price range always sorts by price (PRICE_LOW_TO_HIGH unless
+ * PRICE_HIGH_TO_LOW was chosen). Every combination is covered by the
+ * composite indexes in firestore.indexes.json.
+ */
+public class CatalogFilter {
+
+    public enum Sort { NEWEST, PRICE_LOW_TO_HIGH, PRICE_HIGH_TO_LOW }
+
+    private boolean featuredOnly;
+    private Double minPrice;
+    private Double maxPrice;
+    private Sort sort = Sort.NEWEST;
+
+    public boolean isFeaturedOnly() { return featuredOnly; }
+    public void setFeaturedOnly(boolean featuredOnly) { this.featuredOnly = featuredOnly; }
+
+    public Double getMinPrice() { return minPrice; }
+    public void setMinPrice(Double minPrice) { this.minPrice = minPrice; }
+
+    public Double getMaxPrice() { return maxPrice; }
+    public void setMaxPrice(Double maxPrice) { this.maxPrice = maxPrice; }
+
+    public Sort getSort() { return sort; }
+    public void setSort(Sort sort) { this.sort = sort; }
+
+    public boolean hasPriceRange() {
+        return minPrice != null || maxPrice != null;
+    }
+
+    /**
+     * The sort actually applied, after the price range constraint.
+     */
+    public Sort effectiveSort() {
+        if (hasPriceRange() && sort == Sort.NEWEST) {
+            return Sort.PRICE_LOW_TO_HIGH;
+        }
+        return sort;
+    }
+
+    public Query apply(CollectionReference shop) {
+        Query query = shop;
+        if (featuredOnly) {
+            query = query.whereEqualTo("featured", true);
+        }
+        if (minPrice != null) {
+            query = query.whereGreaterThanOrEqualTo("price", minPrice);
+        }
+        if (maxPrice != null) {
+            query = query.whereLessThanOrEqualTo("price", maxPrice);
+        }
+
+        switch (effectiveSort()) {
+            case PRICE_LOW_TO_HIGH:
+                query = query.orderBy("price", Query.Direction.ASCENDING);
+                break;
+            case PRICE_HIGH_TO_LOW:
+                query = query.orderBy("price", Query.Direction.DESCENDING);
+                break;
+            default:
+                query = query.orderBy("createdAt", Query.Direction.DESCENDING);
+                break;
+        }
+        return query;
+    }
+}
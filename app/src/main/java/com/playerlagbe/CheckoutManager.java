@@ -0,0 +1,156 @@
+package com.playerlagbe;
+
+import android.util.Log;
+
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldValue;
+import com.google.firebase.firestore.FirebaseFirestore;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Turns a cart into an orders/{orderId} document in one transaction.
+ *
+ * The transaction reads only the ShopPriceList shards the cart's products
+ * fall in, checks every line's price snapshot against them, and writes the
+ * order, so it costs at most one read per shard and one commit, and a price
+ * edit elsewhere in the catalog doesn't make it retry. A product missing from
+ * the price list is treated as removed (firebase/scripts/backfillPriceList.js
+ * fills in products created before the list existed), so no line costs a
+ * read of its own. The order id is chosen before the transaction starts, so
+ * a retried attempt rewrites the same order instead of creating a second
+ * one. The same transaction adds the order to the OrderStats counters.
+ */
+public class CheckoutManager {
+
+    private static final String TAG = "CheckoutManager";
+
+    public interface CheckoutListener {
+        void onOrderPlaced(String orderId);
+
+        /**
+         * Some products changed price or were removed since they were added to
+         * the cart. currentPrices maps each such product to its price now, or
+         * null if it no longer exists. Nothing was written.
+         */
+        void onPricesChanged(Map<String, Double> currentPrices);
+
+        void onCheckoutError(String error);
+    }
+
+    // Thrown inside the transaction to abort it. Not a FirebaseFirestoreException,
+    // whose FAILED_PRECONDITION, ABORTED and ALREADY_EXISTS codes are retried
+    private static class PricesChangedException extends IllegalStateException {
+        final Map<String, Double> currentPrices;
+
+        PricesChangedException(Map<String, Double> currentPrices) {
+            super("Prices changed");
+            this.currentPrices = currentPrices;
+        }
+    }
+
+    private final FirebaseFirestore firestore;
+
+    public CheckoutManager(FirebaseFirestore firestore) {
+        this.firestore = firestore;
+    }
+
+    public void placeOrder(String uid, Cart cart, CheckoutListener listener) {
+        if (cart.isEmpty()) {
+            listener.onCheckoutError("Cart is empty");
+            return;
+        }
+        List<Cart.Line> lines = cart.getLines();
+        DocumentReference orderRef = firestore.collection("orders").document();
+        List<String> productIds = new ArrayList<>();
+        for (Cart.Line line : lines) {
+            productIds.add(line.getProductId());
+        }
+        List<DocumentReference> priceShards = ShopPriceList.documents(firestore, productIds);
+        String statsDay = OrderStats.dayKey(new Date());
+        int statsShard = OrderStats.randomShard();
+
+        firestore.runTransaction(transaction -> {
+            // Only the cart's own prices are kept from each shard
+            Map<String, Object> prices = new HashMap<>();
+            for (DocumentReference shardRef : priceShards) {
+                DocumentSnapshot shard = transaction.get(shardRef);
+                Object stored = shard.get(ShopPriceList.FIELD_PRICES);
+                if (stored instanceof Map) {
+                    ShopPriceList.checkSize(shard);
+                    for (String productId : productIds) {
+                        if (((Map<?, ?>) stored).containsKey(productId)) {
+                            prices.put(productId, ((Map<?, ?>) stored).get(productId));
+                        }
+                    }
+                }
+            }
+
+            Map<String, Double> changed = new HashMap<>();
+            List<Map<String, Object>> items = new ArrayList<>();
+            long totalCents = 0;
+            int itemCount = 0;
+            for (Cart.Line line : lines) {
+                Double current = priceOf(prices.get(line.getProductId()));
+                if (current == null || Cart.toCents(current) != line.getUnitPriceCents()) {
+                    changed.put(line.getProductId(), current);
+                    continue;
+                }
+
+                Map<String, Object> item = new LinkedHashMap<>();
+                item.put("productId", line.getProductId());
+                item.put("name", line.getName());
+                item.put("price", line.getUnitPrice());
+                item.put("quantity", line.getQuantity());
+                items.add(item);
+                totalCents += line.getTotalCents();
+                itemCount += line.getQuantity();
+            }
+            if (!changed.isEmpty()) {
+                throw new PricesChangedException(changed);
+            }
+
+            Map<String, Object> order = new HashMap<>();
+            order.put("uid", uid);
+            order.put("items", items);
+            order.put("itemCount", itemCount);
+            order.put("total", Cart.fromCents(totalCents));
+            order.put("status", Order.STATUS_PENDING);
+            order.put("createdAt", FieldValue.serverTimestamp());
+            order.put("statsDay", statsDay);
+            order.put(OrderStats.FIELD_STATS_SHARD, statsShard);
+            transaction.set(orderRef, order);
+            OrderStats.recordPlaced(transaction, firestore, orderRef.getId(), statsShard, items, totalCents,
+                    statsDay);
+            return orderRef.getId();
+        }).addOnSuccessListener(listener::onOrderPlaced).addOnFailureListener(e -> {
+            PricesChangedException pricesChanged = findPricesChanged(e);
+            if (pricesChanged != null) {
+                listener.onPricesChanged(pricesChanged.currentPrices);
+                return;
+            }
+            Log.e(TAG, "Checkout failed", e);
+            listener.onCheckoutError(e.getMessage());
+        });
+    }
+
+    // The transaction may hand back the update function's exception wrapped
+    private static PricesChangedException findPricesChanged(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof PricesChangedException) {
+                return (PricesChangedException) cause;
+            }
+        }
+        return null;
+    }
+
+    private static Double priceOf(Object value) {
+        return value instanceof Number ? ((Number) value).doubleValue() : null;
+    }
+}
@@ -20,9 +20,13 @@ public class FirebaseAuthManager {
     private static final String TAG = "FirebaseAuthManager";
     public static final int RC_SIGN_IN = 9001;
 
+    private static FirebaseAuthManager instance;
+
     private final FirebaseAuth mAuth;
-    private final GoogleSignInClient mGoogleSignInClient;
+    private GoogleSignInClient mGoogleSignInClient;
     private final FirebaseFirestore mFirestore;
+    private final AdminStatusCache adminStatusCache;
+    private final UsernameEmailCache usernameCache;
     private final Context context;
 
     public interface AuthListener {
@@ -36,14 +40,36 @@ public class FirebaseAuthManager {
         void onAdminCheckError(String error);
     }
 
-    public FirebaseAuthManager(Context context) {
+    /**
+     * Process-wide instance, so the launch path and every screen share one
+     * auth gate instead of each building its own manager.
+     */
+    public static synchronized FirebaseAuthManager getInstance(Context context) {
+        if (instance == null) {
+            instance = new FirebaseAuthManager(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    private FirebaseAuthManager(Context context) {
         this.context = context;
         mAuth = FirebaseAuth.getInstance();
         mFirestore = FirebaseFirestore.getInstance();
-        mGoogleSignInClient = GoogleSignIn.getClient(context,
-                new GoogleSignInOptions.Builder(GoogleSignInOptions.DEFAULT_SIGN_IN)
-                        .requestIdToken(context.getString(R.string.default_web_client_id))
-                        .requestEmail().build());
+        adminStatusCache = AdminStatusCache.getInstance(context);
+        usernameCache = UsernameEmailCache.getInstance(context);
+    }
+
+    /**
+     * Built on first use so the launch path never pays for Play Services setup.
+     */
+    private synchronized GoogleSignInClient getGoogleSignInClient() {
+        if (mGoogleSignInClient == null) {
+            mGoogleSignInClient = GoogleSignIn.getClient(context,
+                    new GoogleSignInOptions.Builder(GoogleSignInOptions.DEFAULT_SIGN_IN)
+                            .requestIdToken(context.getString(R.string.default_web_client_id))
+                            .requestEmail().build());
+        }
+        return mGoogleSignInClient;
     }
 
     public boolean isUserSignedIn() {
@@ -60,10 +86,44 @@ public class FirebaseAuthManager {
             return;
         }
         listener.onAuthLoading(true);
-        if (input.contains("@")) loginWithEmail(input, password, listener);
+        if (input.contains("@")) {
+            loginWithEmail(input, password, listener);
+            return;
+        }
+        String cachedEmail = usernameCache.get(input);
+        if (cachedEmail != null) loginWithCachedEmail(input, cachedEmail, password, listener);
         else fetchEmailByUsername(input, email -> loginWithEmail(email, password, listener), listener);
     }
 
+    private void loginWithCachedEmail(String username, String email, String password, AuthListener listener) {
+        mAuth.signInWithEmailAndPassword(email, password).addOnCompleteListener(task -> {
+            if (task.isSuccessful()) {
+                listener.onAuthLoading(false);
+                listener.onAuthSuccess(mAuth.getCurrentUser());
+            } else if (isUnknownEmail(task.getException())) {
+                // The account's email changed since it was cached; resolve it again
+                usernameCache.remove(username);
+                fetchEmailByUsername(username, fetched -> loginWithEmail(fetched, password, listener), listener);
+            } else {
+                listener.onAuthLoading(false);
+                listener.onAuthFailure(getAuthErrorMessage(task.getException()));
+            }
+        });
+    }
+
+    /**
+     * Whether sign-in failed because no account has that email, the only case
+     * where a cached username mapping can be to blame. A wrong password or a
+     * network error would fail the same way with a fresh mapping.
+     */
+    private static boolean isUnknownEmail(Exception e) {
+        if (!(e instanceof FirebaseAuthException)) {
+            return false;
+        }
+        String code = ((FirebaseAuthException) e).getErrorCode();
+        return "ERROR_USER_NOT_FOUND".equals(code) || "ERROR_INVALID_EMAIL".equals(code);
+    }
+
     private void loginWithEmail(String email, String password, AuthListener listener) {
         mAuth.signInWithEmailAndPassword(email, password).addOnCompleteListener(task -> {
             listener.onAuthLoading(false);
@@ -73,44 +133,25 @@ public class FirebaseAuthManager {
     }
 
     private void fetchEmailByUsername(String username, OnEmailFetched callback, AuthListener listener) {
-        Log.d("FIRESTORE", "Querying Firestore for username: " + username);
-
-        mFirestore.collection("users")
-                .whereEqualTo("username", username)
-                .limit(1)
-                .get()
+        mFirestore.collection("usernames").document(UsernameEmailCache.normalize(username)).get()
                 .addOnCompleteListener(task -> {
-                    if (task.isSuccessful()) {
-                        Log.d("FIRESTORE", "Query successful. Documents found: " + task.getResult().size());
-
-                        if (!task.getResult().isEmpty()) {
-                            DocumentSnapshot doc = task.getResult().getDocuments().get(0);
-                            Log.d("FIRESTORE", "User document: " + doc.getData());
-                            String email = doc.getString("email");
-                            Log.d("FIRESTORE", "Extracted email: " + email);
-                            if (email != null && !email.isEmpty()) {
-                                // Start loading for the actual email login
-                                listener.onAuthLoading(true);
-                                callback.onFetched(email);
-                            } else {
-                                listener.onAuthLoading(false);
-                                listener.onAuthFailure("Email not found for username: " + username);
-                            }
-                        } else {
-                            Log.w("FIRESTORE", "No user found with username: " + username);
-                            listener.onAuthLoading(false);
-                            listener.onAuthFailure("Username '" + username + "' not found. Please check spelling or use your email to login.");
-                        }
-                    } else {
-                        Exception e = task.getException();
-                        Log.e("FIRESTORE", "Firestore query failed", e);
+                    if (!task.isSuccessful()) {
+                        Log.e(TAG, "Username lookup failed", task.getException());
                         listener.onAuthLoading(false);
-                        if (e != null && e.getMessage() != null && e.getMessage().contains("PERMISSION_DENIED")) {
-                            listener.onAuthFailure("Unable to verify username. Please try logging in with your email address instead.");
-                        } else {
-                            listener.onAuthFailure("Connection error. Please check your internet and try again.");
-                        }
+                        listener.onAuthFailure("Connection error. Please check your internet and try again.");
+                        return;
                     }
+                    String email = task.getResult().getString("email");
+                    if (email == null || email.isEmpty()) {
+                        // Accounts from before the usernames collection are added by
+                        // firebase/scripts/backfillUsernames.js
+                        listener.onAuthLoading(false);
+                        listener.onAuthFailure("Username '" + username + "' not found. Please check spelling or use your email to login.");
+                        return;
+                    }
+                    usernameCache.put(username, email);
+                    listener.onAuthLoading(true);
+                    callback.onFetched(email);
                 });
     }
 
@@ -122,27 +163,25 @@ public class FirebaseAuthManager {
             listener.onAuthFailure("Password too short"); return;
         }
         listener.onAuthLoading(true);
-        checkUsername(username, available -> {
-            if (!available) {
-                listener.onAuthLoading(false);
-                listener.onAuthFailure("Username taken");
-                return;
-            }
-            mAuth.createUserWithEmailAndPassword(email, password)
-                    .addOnCompleteListener(task -> {
-                        if (task.isSuccessful()) {
-                            saveUser(mAuth.getCurrentUser(), email, username, listener);
-                        } else {
-                            listener.onAuthLoading(false);
-                            listener.onAuthFailure(getAuthErrorMessage(task.getException()));
-                        }
-                    });
-        });
+        // Uniqueness is enforced when saveUser() commits the usernames entry, so
+        // there is no separate availability check to race against
+        mAuth.createUserWithEmailAndPassword(email, password)
+                .addOnCompleteListener(task -> {
+                    if (task.isSuccessful()) {
+                        saveUser(mAuth.getCurrentUser(), email, username, listener);
+                    } else {
+                        listener.onAuthLoading(false);
+                        listener.onAuthFailure(getAuthErrorMessage(task.getException()));
+                    }
+                });
     }
 
-    private void checkUsername(String username, OnUsernameChecked listener) {
-        mFirestore.collection("users").whereEqualTo("username", username).limit(1).get()
-                .addOnCompleteListener(task -> listener.onChecked(task.isSuccessful() && task.getResult().isEmpty()));
+    private Map<String, Object> usernameEntry(FirebaseUser user, String email, String username) {
+        Map<String, Object> entry = new HashMap<>();
+        entry.put("uid", user.getUid());
+        entry.put("email", email);
+        entry.put("username", username);
+        return entry;
     }
 
     private void saveUser(FirebaseUser user, String email, String username, AuthListener listener) {
@@ -150,13 +189,36 @@ public class FirebaseAuthManager {
         data.put("email", email);
         data.put("username", username);
         data.put("createdAt", System.currentTimeMillis());
-        mFirestore.collection("users").document(user.getUid()).set(data)
-                .addOnSuccessListener(aVoid -> listener.onAuthSuccess(user))
-                .addOnFailureListener(e -> listener.onAuthFailure("Saved auth but failed Firestore"));
+        WriteBatch batch = mFirestore.batch();
+        batch.set(mFirestore.collection("users").document(user.getUid()), data);
+        batch.set(mFirestore.collection("usernames").document(UsernameEmailCache.normalize(username)),
+                usernameEntry(user, email, username));
+        batch.commit()
+                .addOnSuccessListener(aVoid -> {
+                    usernameCache.put(username, email);
+                    listener.onAuthSuccess(user);
+                })
+                .addOnFailureListener(e -> {
+                    if (isPermissionDenied(e)) {
+                        // Rules only allow creating a usernames entry, so an existing one
+                        // means the name is taken; drop the auth account just created
+                        user.delete().addOnCompleteListener(deleteTask -> {
+                            listener.onAuthLoading(false);
+                            listener.onAuthFailure("Username taken");
+                        });
+                    } else {
+                        listener.onAuthFailure("Saved auth but failed Firestore");
+                    }
+                });
+    }
+
+    private boolean isPermissionDenied(Exception e) {
+        return e instanceof FirebaseFirestoreException
+                && ((FirebaseFirestoreException) e).getCode() == FirebaseFirestoreException.Code.PERMISSION_DENIED;
     }
 
     public Intent getGoogleSignInIntent() {
-        return mGoogleSignInClient.getSignInIntent();
+        return getGoogleSignInClient().getSignInIntent();
     }
 
     public void handleGoogleSignInResult(Intent data, AuthListener listener) {
@@ -191,7 +253,16 @@ public class FirebaseAuthManager {
                 data.put("displayName", user.getDisplayName());
                 data.put("createdAt", System.currentTimeMillis());
                 data.put("signInMethod", "google");
-                ref.set(data);
+                String username = (String) data.get("username");
+                WriteBatch batch = mFirestore.batch();
+                batch.set(ref, data);
+                batch.set(mFirestore.collection("usernames").document(UsernameEmailCache.normalize(username)),
+                        usernameEntry(user, user.getEmail(), username));
+                batch.commit().addOnFailureListener(e -> {
+                    // The derived username is already reserved by someone else
+                    Log.w(TAG, "Username " + username + " unavailable, saving profile only", e);
+                    ref.set(data);
+                });
             }
             listener.onAuthSuccess(user);
         });
@@ -210,33 +281,33 @@ public class FirebaseAuthManager {
     }
 
     public void signOut() {
+        adminStatusCache.invalidate();
         mAuth.signOut();
-        mGoogleSignInClient.signOut();
+        // Only touch the Google client if this device has a Google session to end
+        if (GoogleSignIn.getLastSignedInAccount(context) != null) {
+            getGoogleSignInClient().signOut();
+        }
     }
 
+    /**
+     * Reports the admin flag, synchronously when the process-wide cache is fresh.
+     */
     public void checkAdminStatus(AdminCheckListener listener) {
         FirebaseUser currentUser = mAuth.getCurrentUser();
         if (currentUser == null) {
             listener.onAdminCheckError("User not authenticated");
             return;
         }
+        adminStatusCache.get(currentUser.getUid(), listener);
+    }
 
-        mFirestore.collection("users")
-                .document(currentUser.getUid())
-                .get()
-                .addOnSuccessListener(documentSnapshot -> {
-                    if (documentSnapshot.exists()) {
-                        Boolean isAdmin = documentSnapshot.getBoolean("admin");
-                        listener.onAdminCheckResult(isAdmin != null && isAdmin);
-                    } else {
-                        // User document doesn't exist, treat as non-admin
-                        listener.onAdminCheckResult(false);
-                    }
-                })
-                .addOnFailureListener(e -> {
-                    Log.e(TAG, "Error checking admin status", e);
-                    listener.onAdminCheckError("Failed to check admin status: " + e.getMessage());
-                });
+    /**
+     * Last known admin flag for the signed-in user, or null if it was never fetched.
+     * Lets screens gate before inflating, then confirm through checkAdminStatus().
+     */
+    public Boolean getCachedAdminStatus() {
+        FirebaseUser currentUser = mAuth.getCurrentUser();
+        return currentUser == null ? null : adminStatusCache.peek(currentUser.getUid());
     }
 
     private String getAuthErrorMessage(Exception e) {
@@ -250,5 +321,4 @@ public class FirebaseAuthManager {
     }
 
     private interface OnEmailFetched { void onFetched(String email); }
-    private interface OnUsernameChecked { void onChecked(boolean available); }
 }
@@ -32,7 +32,7 @@ public class ForgotPasswordActivity extends AppCompatActivity {
         setContentView(R.layout.activity_forgot_password);
 
         // Initialize Firebase Auth Manager
-        authManager = new FirebaseAuthManager(this);
+        authManager = FirebaseAuthManager.getInstance(this);
 
         // Initialize views
         initializeViews();
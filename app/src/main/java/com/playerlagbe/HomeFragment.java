@@ -7,13 +7,25 @@ import android.view.View;
 import android.view.ViewGroup;
 import android.widget.ImageView;
 import android.widget.PopupMenu;
+import android.widget.TextView;
+import android.widget.Toast;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.fragment.app.Fragment;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.ListAdapter;
+import androidx.recyclerview.widget.RecyclerView;
 
-public class HomeFragment extends Fragment {
+import com.google.firebase.firestore.FirebaseFirestore;
+
+import java.util.List;
+
+public class HomeFragment extends Fragment implements LiveMatchFeed.Listener {
 
     private View rootView;
+    private LiveMatchFeed liveMatchFeed;
+    private LiveMatchAdapter liveMatchAdapter;
 
     @Nullable
     @Override
@@ -26,6 +38,52 @@ public class HomeFragment extends Fragment {
     public void onViewCreated(@NonNull View view, @Nullable Bundle savedInstanceState) {
         super.onViewCreated(view, savedInstanceState);
         setupHamburgerMenu();
+
+        RecyclerView matchesRecyclerView = rootView.findViewById(R.id.recyclerViewMatches);
+        matchesRecyclerView.setLayoutManager(new LinearLayoutManager(getContext()));
+        liveMatchAdapter = new LiveMatchAdapter();
+        matchesRecyclerView.setAdapter(liveMatchAdapter);
+        liveMatchFeed = new LiveMatchFeed(FirebaseFirestore.getInstance(), this);
+    }
+
+    /**
+     * The feed only listens while the tab is on screen. MainActivity caps
+     * hidden tabs at STARTED, so they are paused; screens opened over Home
+     * from the menu hide it without pausing, which onHiddenChanged covers.
+     */
+    @Override
+    public void onResume() {
+        super.onResume();
+        if (!isHidden()) {
+            liveMatchFeed.start();
+        }
+    }
+
+    @Override
+    public void onPause() {
+        super.onPause();
+        liveMatchFeed.stop();
+    }
+
+    @Override
+    public void onHiddenChanged(boolean hidden) {
+        super.onHiddenChanged(hidden);
+        if (hidden) {
+            liveMatchFeed.stop();
+        } else if (isResumed()) {
+            liveMatchFeed.start();
+        }
+    }
+
+    @Override
+    public void onLiveMatchesChanged(List<Match> matches) {
+        liveMatchAdapter.submitList(matches);
+        rootView.findViewById(R.id.liveMatchesEmptyText).setVisibility(matches.isEmpty() ? View.VISIBLE : View.GONE);
+    }
+
+    @Override
+    public void onLiveMatchesError(String error) {
+        Toast.makeText(getContext(), "Error loading live matches: " + error, Toast.LENGTH_SHORT).show();
     }
 
     private void setupHamburgerMenu() {
@@ -63,4 +121,60 @@ public class HomeFragment extends Fragment {
             });
         }
     }
+
+    private static class LiveMatchAdapter extends ListAdapter<Match, LiveMatchAdapter.ViewHolder> {
+
+        // Every snapshot maps to new Match objects, so compare what is shown
+        private static final DiffUtil.ItemCallback<Match> DIFF_CALLBACK = new DiffUtil.ItemCallback<Match>() {
+            @Override
+            public boolean areItemsTheSame(@NonNull Match oldItem, @NonNull Match newItem) {
+                return oldItem.getMatchId().equals(newItem.getMatchId());
+            }
+
+            @Override
+            public boolean areContentsTheSame(@NonNull Match oldItem, @NonNull Match newItem) {
+                return oldItem.getHomeScore() == newItem.getHomeScore()
+                        && oldItem.getAwayScore() == newItem.getAwayScore()
+                        && equal(oldItem.getHomeTeamName(), newItem.getHomeTeamName())
+                        && equal(oldItem.getAwayTeamName(), newItem.getAwayTeamName())
+                        && equal(oldItem.getPitch(), newItem.getPitch());
+            }
+
+            private boolean equal(String a, String b) {
+                return a == null ? b == null : a.equals(b);
+            }
+        };
+
+        LiveMatchAdapter() {
+            super(DIFF_CALLBACK);
+        }
+
+        @NonNull
+        @Override
+        public ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+            View view = LayoutInflater.from(parent.getContext()).inflate(R.layout.item_live_match, parent, false);
+            return new ViewHolder(view);
+        }
+
+        @Override
+        public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
+            Match match = getItem(position);
+            holder.homeTeam.setText(match.getHomeTeamName());
+            holder.awayTeam.setText(match.getAwayTeamName());
+            holder.score.setText(match.getHomeScore() + " - " + match.getAwayScore());
+            holder.pitch.setText(match.getPitch());
+        }
+
+        static class ViewHolder extends RecyclerView.ViewHolder {
+            TextView homeTeam, score, awayTeam, pitch;
+
+            ViewHolder(View itemView) {
+                super(itemView);
+                homeTeam = itemView.findViewById(R.id.liveHomeTeam);
+                score = itemView.findViewById(R.id.liveScore);
+                awayTeam = itemView.findViewById(R.id.liveAwayTeam);
+                pitch = itemView.findViewById(R.id.livePitch);
+            }
+        }
+    }
 }
\ No newline at end of file
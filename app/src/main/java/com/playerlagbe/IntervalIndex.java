@@ -0,0 +1,84 @@
+package com.playerlagbe;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.TreeMap;
+
+/**
+ * Half-open time intervals [start, end) kept sorted by start, for overlap
+ * lookups without comparing against every booking.
+ *
+ * Because no stored interval is longer than the longest one added, anything
+ * overlapping [start, end) must begin after start - longest and before end.
+ * overlapping() reads just that slice of the sorted map, which costs
+ * O(log n) plus the intervals in the slice. For bookings of similar length,
+ * such as matches, that slice holds about as many intervals as overlap.
+ */
+public class IntervalIndex<T> {
+
+    private static class Interval<T> {
+        final long end;
+        final T value;
+        // Next interval with the same start, if any
+        Interval<T> next;
+
+        Interval(long end, T value) {
+            this.end = end;
+            this.value = value;
+        }
+    }
+
+    private final TreeMap<Long, Interval<T>> byStart = new TreeMap<>();
+    private long longest = 0;
+    private int size = 0;
+
+    public void add(long start, long end, T value) {
+        if (end <= start) {
+            throw new IllegalArgumentException("Interval must end after it starts");
+        }
+        Interval<T> interval = new Interval<>(end, value);
+        interval.next = byStart.put(start, interval);
+        longest = Math.max(longest, end - start);
+        size++;
+    }
+
+    /**
+     * Values of every stored interval overlapping [start, end).
+     */
+    public List<T> overlapping(long start, long end) {
+        List<T> result = Collections.emptyList();
+        if (size == 0) {
+            return result;
+        }
+        for (Interval<T> interval : byStart.subMap(start - longest, false, end, false).values()) {
+            for (; interval != null; interval = interval.next) {
+                if (interval.end > start) {
+                    if (result.isEmpty()) {
+                        result = new ArrayList<>(2);
+                    }
+                    result.add(interval.value);
+                }
+            }
+        }
+        return result;
+    }
+
+    public boolean isFree(long start, long end) {
+        if (size == 0) {
+            return true;
+        }
+        for (Interval<T> interval : byStart.subMap(start - longest, false, end, false).values()) {
+            for (; interval != null; interval = interval.next) {
+                if (interval.end > start) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    public int size() {
+        return size;
+    }
+}
@@ -0,0 +1,126 @@
+package com.playerlagbe;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.util.Log;
+
+import com.google.firebase.firestore.CollectionReference;
+import com.google.firebase.firestore.DocumentChange;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.ListenerRegistration;
+import com.google.firebase.firestore.Query;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Matches in progress, kept current by one snapshot listener.
+ *
+ * A single query on status == live covers every match on, so a score change
+ * costs one document read and no polling. Each snapshot is applied to the
+ * list already held as DocumentChanges. Publishing is throttled to once per
+ * THROTTLE_MS: the first change after a quiet spell goes out at once, and
+ * the rest of a burst (say, goals in several matches together) waits and is
+ * published as one list. Must be used from the main thread.
+ */
+public class LiveMatchFeed {
+
+    private static final String TAG = "LiveMatchFeed";
+    private static final long THROTTLE_MS = 250;
+
+    // Upper bound on the live set, so a mistake can't turn into one huge listen
+    private static final int LIVE_LIMIT = 100;
+
+    public interface Listener {
+        void onLiveMatchesChanged(List<Match> matches);
+        void onLiveMatchesError(String error);
+    }
+
+    private final CollectionReference matches;
+    private final Listener listener;
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final List<Match> live = new ArrayList<>();
+    private final Runnable publishRunnable = this::publish;
+    private ListenerRegistration registration;
+    private boolean awaitingFirstSnapshot;
+    private boolean publishScheduled = false;
+    private long lastPublishedAt = 0;
+
+    public LiveMatchFeed(FirebaseFirestore firestore, Listener listener) {
+        this.matches = firestore.collection("matches");
+        this.listener = listener;
+    }
+
+    /**
+     * Attaches the listener; safe to call when already started.
+     */
+    public void start() {
+        if (registration != null) {
+            return;
+        }
+        awaitingFirstSnapshot = true;
+        registration = matches.whereEqualTo("status", Match.STATUS_LIVE)
+                .orderBy("startTime", Query.Direction.ASCENDING)
+                .limit(LIVE_LIMIT)
+                .addSnapshotListener((snapshots, e) -> {
+                    if (e != null) {
+                        Log.e(TAG, "Error listening to live matches", e);
+                        listener.onLiveMatchesError(e.getMessage());
+                        return;
+                    }
+                    if (snapshots == null) {
+                        return;
+                    }
+                    if (awaitingFirstSnapshot) {
+                        // A fresh listener reports every document as ADDED
+                        awaitingFirstSnapshot = false;
+                        live.clear();
+                    }
+                    for (DocumentChange change : snapshots.getDocumentChanges()) {
+                        switch (change.getType()) {
+                            case ADDED:
+                                live.add(change.getNewIndex(), MatchRepository.toMatch(change.getDocument()));
+                                break;
+                            case MODIFIED:
+                                live.remove(change.getOldIndex());
+                                live.add(change.getNewIndex(), MatchRepository.toMatch(change.getDocument()));
+                                break;
+                            case REMOVED:
+                                live.remove(change.getOldIndex());
+                                break;
+                        }
+                    }
+                    schedulePublish();
+                });
+    }
+
+    /**
+     * Detaches the listener and drops any pending publish. The next start()
+     * reads the live set afresh.
+     */
+    public void stop() {
+        if (registration != null) {
+            registration.remove();
+            registration = null;
+        }
+        handler.removeCallbacks(publishRunnable);
+        publishScheduled = false;
+    }
+
+    private void schedulePublish() {
+        if (publishScheduled) {
+            // The pending publish will pick this change up
+            return;
+        }
+        publishScheduled = true;
+        long wait = lastPublishedAt + THROTTLE_MS - SystemClock.uptimeMillis();
+        handler.postDelayed(publishRunnable, Math.max(0, wait));
+    }
+
+    private void publish() {
+        publishScheduled = false;
+        lastPublishedAt = SystemClock.uptimeMillis();
+        listener.onLiveMatchesChanged(new ArrayList<>(live));
+    }
+}
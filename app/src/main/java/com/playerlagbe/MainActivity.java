@@ -6,24 +6,29 @@ import android.os.Bundle;
 import android.widget.Toast;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.appcompat.app.AppCompatDelegate;
+import androidx.core.splashscreen.SplashScreen;
 import androidx.fragment.app.Fragment;
 import androidx.fragment.app.FragmentManager;
 import androidx.fragment.app.FragmentTransaction;
+import androidx.lifecycle.Lifecycle;
 import com.google.android.material.bottomnavigation.BottomNavigationView;
 
 public class MainActivity extends AppCompatActivity {
 
+    private static final String TAB_TAG_PREFIX = "tab_";
+
     private BottomNavigationView bottomNavigationView;
     private FragmentManager fragmentManager;
     private boolean isAdmin = false;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
+        // Hand the system splash over to the app theme; must run before super.onCreate()
+        SplashScreen.installSplashScreen(this);
         super.onCreate(savedInstanceState);
-        setContentView(R.layout.activity_main);
 
-        // Check if user is logged in
-        FirebaseAuthManager authManager = new FirebaseAuthManager(this);
+        // Check if user is logged in before inflating anything
+        FirebaseAuthManager authManager = FirebaseAuthManager.getInstance(this);
         if (!authManager.isUserSignedIn()) {
             Intent intent = new Intent(MainActivity.this, AuthenticationActivity.class);
             intent.setFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_CLEAR_TASK);
@@ -31,26 +36,16 @@ public class MainActivity extends AppCompatActivity {
             finish();
             return;
         }
+        setContentView(R.layout.activity_main);
 
         fragmentManager = getSupportFragmentManager();
         bottomNavigationView = findViewById(R.id.bottomNavigationView);
         
         bottomNavigationView.setOnItemSelectedListener(item -> {
-            Fragment selectedFragment = null;
             int itemId = item.getItemId();
-            
-            if (itemId == R.id.nav_home) {
-                selectedFragment = new HomeFragment();
-            } else if (itemId == R.id.nav_teams) {
-                selectedFragment = new TeamsFragment();
-            } else if (itemId == R.id.nav_shop) {
-                selectedFragment = new ShopFragment();
-            } else if (itemId == R.id.nav_manager) {
-                selectedFragment = new ManagerFragment();
-            }
-            
-            if (selectedFragment != null) {
-                loadFragment(selectedFragment, false);
+            if (itemId == R.id.nav_home || itemId == R.id.nav_teams
+                    || itemId == R.id.nav_shop || itemId == R.id.nav_manager) {
+                showTab(itemId);
                 return true;
             }
             return false;
@@ -65,9 +60,61 @@ public class MainActivity extends AppCompatActivity {
         checkAdminStatus();
     }
 
+    /**
+     * Shows the tab for the given bottom navigation item, creating it on first use.
+     * Other tabs are hidden and capped at STARTED so they keep their views, scroll
+     * position and loaded data but stop foreground work until shown again.
+     */
+    private void showTab(int itemId) {
+        // Leave any profile/cart screen opened from the hamburger menu
+        if (fragmentManager.getBackStackEntryCount() > 0) {
+            fragmentManager.popBackStackImmediate(null, FragmentManager.POP_BACK_STACK_INCLUSIVE);
+        }
+
+        String tag = TAB_TAG_PREFIX + itemId;
+        Fragment target = fragmentManager.findFragmentByTag(tag);
+        FragmentTransaction transaction = fragmentManager.beginTransaction().setReorderingAllowed(true);
+        if (target == null) {
+            target = createTab(itemId);
+            transaction.add(R.id.fragmentContainer, target, tag);
+        } else {
+            transaction.show(target);
+        }
+        transaction.setMaxLifecycle(target, Lifecycle.State.RESUMED);
+
+        for (Fragment fragment : fragmentManager.getFragments()) {
+            if (fragment != target && isTab(fragment) && !fragment.isHidden()) {
+                transaction.hide(fragment);
+                transaction.setMaxLifecycle(fragment, Lifecycle.State.STARTED);
+            }
+        }
+        transaction.commit();
+    }
+
+    private Fragment createTab(int itemId) {
+        if (itemId == R.id.nav_teams) {
+            return new TeamsFragment();
+        } else if (itemId == R.id.nav_shop) {
+            return new ShopFragment();
+        } else if (itemId == R.id.nav_manager) {
+            return new ManagerFragment();
+        }
+        return new HomeFragment();
+    }
+
+    private boolean isTab(Fragment fragment) {
+        return fragment.getTag() != null && fragment.getTag().startsWith(TAB_TAG_PREFIX);
+    }
+
     private void loadFragment(Fragment fragment, boolean addToBackStack) {
-        FragmentTransaction transaction = fragmentManager.beginTransaction();
-        transaction.replace(R.id.fragmentContainer, fragment);
+        FragmentTransaction transaction = fragmentManager.beginTransaction().setReorderingAllowed(true);
+        // Cover the current tab instead of replacing it so it survives the back press
+        for (Fragment existing : fragmentManager.getFragments()) {
+            if (existing.isVisible()) {
+                transaction.hide(existing);
+            }
+        }
+        transaction.add(R.id.fragmentContainer, fragment);
         if (addToBackStack) {
             transaction.addToBackStack(null);
         }
@@ -106,7 +153,7 @@ public class MainActivity extends AppCompatActivity {
     }
 
     private void logout() {
-        FirebaseAuthManager authManager = new FirebaseAuthManager(this);
+        FirebaseAuthManager authManager = FirebaseAuthManager.getInstance(this);
         authManager.signOut();
         Intent intent = new Intent(this, AuthenticationActivity.class);
         intent.setFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_CLEAR_TASK);
@@ -124,7 +171,9 @@ public class MainActivity extends AppCompatActivity {
     }
 
     private void checkAdminStatus() {
-        FirebaseAuthManager authManager = new FirebaseAuthManager(this);
+        FirebaseAuthManager authManager = FirebaseAuthManager.getInstance(this);
+        Boolean cachedAdmin = authManager.getCachedAdminStatus();
+        isAdmin = cachedAdmin != null && cachedAdmin;
         authManager.checkAdminStatus(new FirebaseAuthManager.AdminCheckListener() {
             @Override
             public void onAdminCheckResult(boolean isAdminUser) {
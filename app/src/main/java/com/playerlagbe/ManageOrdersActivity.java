@@ -3,30 +3,266 @@ package com.playerlagbe;
 import android.content.Intent;
 import android.content.SharedPreferences;
 import android.os.Bundle;
+import android.view.LayoutInflater;
 import android.view.View;
+import android.view.ViewGroup;
+import android.widget.Button;
+import android.widget.CheckBox;
 import android.widget.ImageView;
 import android.widget.PopupMenu;
+import android.widget.RadioGroup;
+import android.widget.TextView;
 import android.widget.Toast;
 
+import androidx.annotation.NonNull;
+import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.appcompat.app.AppCompatDelegate;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.ListAdapter;
+import androidx.recyclerview.widget.RecyclerView;
 
-public class ManageOrdersActivity extends AppCompatActivity {
+import com.google.firebase.firestore.FirebaseFirestore;
+
+import java.text.DateFormat;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class ManageOrdersActivity extends AppCompatActivity
+        implements OrderQueue.Listener, OrderStatusUpdater.Listener, OrderStats.LoadListener {
+
+    // Rows before the end of the history list at which the next page is requested
+    private static final int PREFETCH_ROWS = 5;
+
+    private RadioGroup orderViewGroup;
+    private TextView orderStatsText, orderCountText, ordersEmptyText, selectedCountText;
+    private View bulkActionBar;
+    private RecyclerView ordersRecyclerView;
+    private OrderAdapter orderAdapter;
+    private OrderQueue orderQueue;
+    private OrderStatusUpdater statusUpdater;
+    // Ids of the orders picked for a bulk status change
+    private final Set<String> selectedIds = new LinkedHashSet<>();
+    private List<Order> openOrders = new ArrayList<>();
+    private List<Order> history = new ArrayList<>();
+    private boolean showingHistory = false;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
+
+        // Gate on the cached admin flag before inflating any admin UI
+        if (!checkAdminAccess()) {
+            return;
+        }
         setContentView(R.layout.activity_manage_orders);
 
-        // Check admin status
-        checkAdminAccess();
+        orderViewGroup = findViewById(R.id.orderViewGroup);
+        orderStatsText = findViewById(R.id.orderStatsText);
+        orderCountText = findViewById(R.id.orderCountText);
+        ordersEmptyText = findViewById(R.id.ordersEmptyText);
+        ordersRecyclerView = findViewById(R.id.ordersRecyclerView);
+        bulkActionBar = findViewById(R.id.bulkActionBar);
+        selectedCountText = findViewById(R.id.selectedCountText);
+
+        orderQueue = new OrderQueue(FirebaseFirestore.getInstance(), this);
+        statusUpdater = new OrderStatusUpdater(FirebaseFirestore.getInstance());
+        setupRecyclerView();
+        setupBulkActions();
+        orderViewGroup.setOnCheckedChangeListener((group, checkedId) -> {
+            showingHistory = checkedId == R.id.showOrderHistory;
+            clearSelection();
+            if (showingHistory) {
+                // History isn't live, so reopening it reads the latest pages again
+                orderQueue.resetHistory();
+                history = new ArrayList<>();
+                orderQueue.loadMoreHistory();
+            }
+            showOrders();
+        });
 
         // Setup hamburger menu
         setupHamburgerMenu();
     }
 
-    private void checkAdminAccess() {
-        FirebaseAuthManager authManager = new FirebaseAuthManager(this);
+    private void setupRecyclerView() {
+        LinearLayoutManager layoutManager = new LinearLayoutManager(this);
+        orderAdapter = new OrderAdapter(selectedIds, this::onOrderClicked, this::onOrderLongClicked);
+        ordersRecyclerView.setLayoutManager(layoutManager);
+        ordersRecyclerView.setAdapter(orderAdapter);
+        ordersRecyclerView.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+                if (layoutManager.findLastVisibleItemPosition() + PREFETCH_ROWS < orderAdapter.getItemCount()) {
+                    return;
+                }
+                if (showingHistory && orderQueue.hasMoreHistory()) {
+                    orderQueue.loadMoreHistory();
+                } else if (!showingHistory && orderQueue.hasMoreOpen()) {
+                    orderQueue.loadMoreOpen();
+                }
+            }
+        });
+    }
+
+    private void setupBulkActions() {
+        Button markPaidButton = findViewById(R.id.markPaidButton);
+        Button markShippedButton = findViewById(R.id.markShippedButton);
+        Button markDeliveredButton = findViewById(R.id.markDeliveredButton);
+        Button cancelOrdersButton = findViewById(R.id.cancelOrdersButton);
+        Button clearSelectionButton = findViewById(R.id.clearSelectionButton);
+
+        markPaidButton.setOnClickListener(v -> updateSelectedStatus(Order.STATUS_PAID));
+        markShippedButton.setOnClickListener(v -> updateSelectedStatus(Order.STATUS_SHIPPED));
+        markDeliveredButton.setOnClickListener(v -> updateSelectedStatus(Order.STATUS_DELIVERED));
+        cancelOrdersButton.setOnClickListener(v -> new AlertDialog.Builder(this)
+                .setTitle("Cancel Orders")
+                .setMessage("Cancel " + selectedIds.size() + " selected orders?")
+                .setPositiveButton("Cancel Orders", (dialog, which) -> updateSelectedStatus(Order.STATUS_CANCELLED))
+                .setNegativeButton("Keep", null)
+                .show());
+        clearSelectionButton.setOnClickListener(v -> clearSelection());
+    }
+
+    private void onOrderClicked(Order order) {
+        if (!selectedIds.isEmpty()) {
+            toggleSelection(order);
+        }
+    }
+
+    private void onOrderLongClicked(Order order) {
+        toggleSelection(order);
+    }
+
+    private void toggleSelection(Order order) {
+        boolean wasSelecting = !selectedIds.isEmpty();
+        if (!selectedIds.remove(order.getOrderId())) {
+            selectedIds.add(order.getOrderId());
+        }
+        if (wasSelecting == selectedIds.isEmpty()) {
+            // Checkboxes appear or disappear on every row
+            orderAdapter.notifySelectionChanged();
+        } else {
+            orderAdapter.notifySelectionChanged(order.getOrderId());
+        }
+        updateBulkActionBar();
+    }
+
+    private void clearSelection() {
+        if (selectedIds.isEmpty()) {
+            return;
+        }
+        selectedIds.clear();
+        orderAdapter.notifySelectionChanged();
+        updateBulkActionBar();
+    }
+
+    private void updateBulkActionBar() {
+        bulkActionBar.setVisibility(selectedIds.isEmpty() ? View.GONE : View.VISIBLE);
+        selectedCountText.setText(selectedIds.size() + " selected");
+    }
+
+    /**
+     * Shows the new status on the selected orders at once and writes it in
+     * batches; orders whose batch fails go back to their stored status.
+     */
+    private void updateSelectedStatus(String status) {
+        List<Order> selected = new ArrayList<>();
+        for (Order order : orderAdapter.getCurrentList()) {
+            if (selectedIds.contains(order.getOrderId())) {
+                selected.add(order);
+            }
+        }
+        clearSelection();
+
+        List<Order> skipped = statusUpdater.update(selected, status, this);
+        if (!skipped.isEmpty()) {
+            Toast.makeText(this, skipped.size() + " orders can't be marked " + status, Toast.LENGTH_SHORT).show();
+        }
+        if (selected.size() > skipped.size()) {
+            selected.removeAll(skipped);
+            orderQueue.applyLocalStatus(selected, status);
+        }
+    }
+
+    @Override
+    public void onStatusCommitted(List<Order> orders, String status) {
+        orderQueue.resolveLocalStatus(orders, status, true);
+        OrderStats.load(FirebaseFirestore.getInstance(), this);
+    }
+
+    @Override
+    public void onStatusFailed(List<Order> orders, String status, String error) {
+        orderQueue.resolveLocalStatus(orders, status, false);
+        Toast.makeText(this, "Could not mark " + orders.size() + " orders " + status + ": " + error,
+                Toast.LENGTH_SHORT).show();
+    }
+
+    @Override
+    public void onStatsLoaded(OrderStats stats) {
+        orderStatsText.setText(stats.formatSummary());
+    }
+
+    @Override
+    public void onStatsError(String error) {
+        orderStatsText.setText("Stats unavailable");
+    }
+
+    @Override
+    public void onOpenOrdersChanged(List<Order> orders) {
+        openOrders = orders;
+        if (!showingHistory) {
+            showOrders();
+        }
+    }
+
+    @Override
+    public void onHistoryChanged(List<Order> orders) {
+        history = orders;
+        if (showingHistory) {
+            showOrders();
+        }
+    }
+
+    @Override
+    public void onOrdersError(String error) {
+        Toast.makeText(this, "Error loading orders: " + error, Toast.LENGTH_SHORT).show();
+    }
+
+    private void showOrders() {
+        List<Order> orders = showingHistory ? history : openOrders;
+        orderAdapter.submitList(orders);
+        // Orders that left the list can't stay selected
+        Set<String> shownIds = new LinkedHashSet<>();
+        for (Order order : orders) {
+            shownIds.add(order.getOrderId());
+        }
+        if (selectedIds.retainAll(shownIds)) {
+            if (selectedIds.isEmpty()) {
+                orderAdapter.notifySelectionChanged();
+            }
+            updateBulkActionBar();
+        }
+        orderCountText.setText(showingHistory
+                ? orders.size() + (orderQueue.hasMoreHistory() ? "+" : "") + " past orders"
+                : orders.size() + (orderQueue.hasMoreOpen() ? "+" : "") + " open orders, oldest first");
+        ordersEmptyText.setVisibility(orders.isEmpty() ? View.VISIBLE : View.GONE);
+    }
+
+    private boolean checkAdminAccess() {
+        FirebaseAuthManager authManager = FirebaseAuthManager.getInstance(this);
+        Boolean cachedAdmin = authManager.getCachedAdminStatus();
+        if (cachedAdmin != null && !cachedAdmin) {
+            Toast.makeText(this, "Access denied. Admin only.", Toast.LENGTH_SHORT).show();
+            finish();
+            return false;
+        }
+
+        // Confirm against the live value; answers synchronously when the cache is fresh
         authManager.checkAdminStatus(new FirebaseAuthManager.AdminCheckListener() {
             @Override
             public void onAdminCheckResult(boolean isAdmin) {
@@ -42,6 +278,7 @@ public class ManageOrdersActivity extends AppCompatActivity {
                 finish();
             }
         });
+        return !isFinishing();
     }
 
     private void setupHamburgerMenu() {
@@ -109,7 +346,7 @@ public class ManageOrdersActivity extends AppCompatActivity {
     }
 
     private void logout() {
-        FirebaseAuthManager authManager = new FirebaseAuthManager(this);
+        FirebaseAuthManager authManager = FirebaseAuthManager.getInstance(this);
         authManager.signOut();
         Intent intent = new Intent(this, AuthenticationActivity.class);
         intent.setFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_CLEAR_TASK);
@@ -124,5 +361,151 @@ public class ManageOrdersActivity extends AppCompatActivity {
         SharedPreferences prefs = getSharedPreferences("settings", MODE_PRIVATE);
         boolean darkMode = prefs.getBoolean("dark_mode", false);
         AppCompatDelegate.setDefaultNightMode(darkMode ? AppCompatDelegate.MODE_NIGHT_YES : AppCompatDelegate.MODE_NIGHT_NO);
+        if (orderQueue != null) {
+            orderQueue.start();
+            OrderStats.load(FirebaseFirestore.getInstance(), this);
+        }
+    }
+
+    @Override
+    protected void onStop() {
+        super.onStop();
+        if (orderQueue != null) {
+            // No live reads while the screen isn't visible
+            orderQueue.stop();
+        }
+    }
+
+    private static class OrderAdapter extends ListAdapter<Order, OrderAdapter.ViewHolder> {
+
+        interface OnOrderClickListener {
+            void onClick(Order order);
+        }
+
+        // A changed order always arrives as a fresh Order instance, so identity marks changed content
+        private static final DiffUtil.ItemCallback<Order> DIFF_CALLBACK = new DiffUtil.ItemCallback<Order>() {
+            @Override
+            public boolean areItemsTheSame(@NonNull Order oldItem, @NonNull Order newItem) {
+                return oldItem.getOrderId().equals(newItem.getOrderId());
+            }
+
+            @Override
+            public boolean areContentsTheSame(@NonNull Order oldItem, @NonNull Order newItem) {
+                return oldItem == newItem;
+            }
+        };
+
+        // Rebinds only a row's checkbox when the selection changes
+        private static final Object PAYLOAD_SELECTION = new Object();
+
+        private final DateFormat dateFormat = DateFormat.getDateTimeInstance(DateFormat.MEDIUM, DateFormat.SHORT);
+        private final Set<String> selectedIds;
+        private final OnOrderClickListener clickListener;
+        private final OnOrderClickListener longClickListener;
+
+        OrderAdapter(Set<String> selectedIds, OnOrderClickListener clickListener,
+                     OnOrderClickListener longClickListener) {
+            super(DIFF_CALLBACK);
+            this.selectedIds = selectedIds;
+            this.clickListener = clickListener;
+            this.longClickListener = longClickListener;
+            setHasStableIds(true);
+        }
+
+        @Override
+        public long getItemId(int position) {
+            return getItem(position).getOrderId().hashCode();
+        }
+
+        @NonNull
+        @Override
+        public ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+            View view = LayoutInflater.from(parent.getContext()).inflate(R.layout.item_order, parent, false);
+            return new ViewHolder(view);
+        }
+
+        void notifySelectionChanged() {
+            notifyItemRangeChanged(0, getItemCount(), PAYLOAD_SELECTION);
+        }
+
+        void notifySelectionChanged(String orderId) {
+            List<Order> orders = getCurrentList();
+            for (int position = 0; position < orders.size(); position++) {
+                if (orders.get(position).getOrderId().equals(orderId)) {
+                    notifyItemChanged(position, PAYLOAD_SELECTION);
+                    return;
+                }
+            }
+        }
+
+        @Override
+        public void onBindViewHolder(@NonNull ViewHolder holder, int position, @NonNull List<Object> payloads) {
+            if (!payloads.isEmpty() && onlySelection(payloads)) {
+                bindSelection(holder, getItem(position));
+            } else {
+                super.onBindViewHolder(holder, position, payloads);
+            }
+        }
+
+        @Override
+        public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
+            Order order = getItem(position);
+            holder.orderId.setText("#" + order.getOrderId().substring(0, Math.min(8, order.getOrderId().length())));
+            holder.orderStatus.setText(order.getStatus());
+            holder.orderDate.setText(order.getCreatedAt() != null
+                    ? dateFormat.format(order.getCreatedAt().toDate()) : "");
+            holder.orderItems.setText(itemsSummary(order));
+            holder.orderTotal.setText(String.format("$%.2f (%d items)", order.getTotal(), order.getItemCount()));
+
+            bindSelection(holder, order);
+            holder.itemView.setOnClickListener(v -> clickListener.onClick(order));
+            holder.itemView.setOnLongClickListener(v -> {
+                longClickListener.onClick(order);
+                return true;
+            });
+        }
+
+        private void bindSelection(ViewHolder holder, Order order) {
+            holder.orderSelected.setVisibility(selectedIds.isEmpty() ? View.GONE : View.VISIBLE);
+            holder.orderSelected.setChecked(selectedIds.contains(order.getOrderId()));
+        }
+
+        private static boolean onlySelection(List<Object> payloads) {
+            for (Object payload : payloads) {
+                if (payload != PAYLOAD_SELECTION) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static String itemsSummary(Order order) {
+            if (order.getItems() == null) {
+                return "";
+            }
+            StringBuilder summary = new StringBuilder();
+            for (Map<String, Object> item : order.getItems()) {
+                if (summary.length() > 0) {
+                    summary.append(", ");
+                }
+                summary.append(item.get("quantity")).append(" x ").append(item.get("name"));
+            }
+            return summary.toString();
+        }
+
+        static class ViewHolder extends RecyclerView.ViewHolder {
+            CheckBox orderSelected;
+            TextView orderId, orderStatus, orderDate, orderItems, orderTotal;
+
+            ViewHolder(View itemView) {
+                super(itemView);
+                orderSelected = itemView.findViewById(R.id.orderSelected);
+                orderId = itemView.findViewById(R.id.orderId);
+                orderStatus = itemView.findViewById(R.id.orderStatus);
+                orderDate = itemView.findViewById(R.id.orderDate);
+                orderItems = itemView.findViewById(R.id.orderItems);
+                orderTotal = itemView.findViewById(R.id.orderTotal);
+            }
+        }
     }
 }
\ No newline at end of file
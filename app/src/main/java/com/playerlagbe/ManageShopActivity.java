@@ -2,11 +2,16 @@ package com.playerlagbe;
 
 import android.content.Intent;
 import android.content.SharedPreferences;
+import android.net.Uri;
 import android.os.Bundle;
+import android.text.Editable;
+import android.text.TextUtils;
+import android.text.TextWatcher;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
 import android.widget.Button;
+import android.widget.CheckBox;
 import android.widget.EditText;
 import android.widget.ImageView;
 import android.widget.PopupMenu;
@@ -14,45 +19,108 @@ import android.widget.RadioGroup;
 import android.widget.TextView;
 import android.widget.Toast;
 
+import androidx.activity.result.ActivityResultLauncher;
+import androidx.activity.result.contract.ActivityResultContracts;
 import androidx.annotation.NonNull;
 import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.appcompat.app.AppCompatDelegate;
+import androidx.recyclerview.widget.ConcatAdapter;
+import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.GridLayoutManager;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.google.firebase.Timestamp;
-import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.DocumentReference;
 import com.google.firebase.firestore.FirebaseFirestore;
-import com.google.firebase.firestore.ListenerRegistration;
+import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.WriteBatch;
 
-import java.util.ArrayList;
-import java.util.HashMap;
+import java.io.FileNotFoundException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.List;
 import java.util.Map;
 
 public class ManageShopActivity extends AppCompatActivity {
 
+    private static final int GRID_SPAN_COUNT = 2;
+
+    // Rows ahead of the last visible one at which the next page is requested
+    private static final int PREFETCH_ROWS = 3;
+
+    // Adapter positions before the first product: the form and filters header
+    private static final int HEADER_ITEMS = 1;
+
+    private static final String[] IMPORT_MIME_TYPES = {
+            "text/csv", "text/comma-separated-values", "application/json", "text/plain"};
+
     private EditText productNameInput, imageLinkInput, productDetailsInput, priceInput;
-    private RadioGroup featuredGroup;
-    private Button addToStoreButton;
+    private RadioGroup featuredGroup, sortGroup;
+    private EditText minPriceFilter, maxPriceFilter, productSearchInput;
+    private CheckBox featuredOnlyCheck;
+    private Button applyFilterButton;
+    private Button addToStoreButton, importProductsButton, exportProductsButton;
+    private TextView bulkStatusText;
+    private View headerView;
     private RecyclerView productsRecyclerView;
     private ProductAdapter productAdapter;
-    private List<Product> productList;
     private FirebaseFirestore firestore;
-    private ListenerRegistration productsListener;
+    private ProductPager productPager;
+    private ProductBulkImporter bulkImporter;
+    private ProductBulkExporter bulkExporter;
+    private ProductEditQueue editQueue;
+    private ProductSearchRepository searchRepository;
+    // Latest pager contents, shown again when the search box is cleared
+    private List<Product> catalogProducts;
+    private String searchQuery = "";
+
+    private final ActivityResultLauncher<String[]> importFilePicker = registerForActivityResult(
+            new ActivityResultContracts.OpenDocument(), uri -> {
+                if (uri != null) importProducts(uri, 0);
+            });
+    private final ActivityResultLauncher<String> csvExportPicker = registerForActivityResult(
+            new ActivityResultContracts.CreateDocument("text/csv"), uri -> {
+                if (uri != null) exportProducts(uri, ProductBulkImporter.Format.CSV);
+            });
+    private final ActivityResultLauncher<String> jsonExportPicker = registerForActivityResult(
+            new ActivityResultContracts.CreateDocument("application/json"), uri -> {
+                if (uri != null) exportProducts(uri, ProductBulkImporter.Format.JSON);
+            });
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
-        setContentView(R.layout.activity_manage_shop);
 
-        // Check admin status
-        checkAdminAccess();
+        // Gate on the cached admin flag before inflating any admin UI
+        if (!checkAdminAccess()) {
+            return;
+        }
+        setContentView(R.layout.activity_manage_shop);
 
         // Initialize Firestore
         firestore = FirebaseFirestore.getInstance();
-        productList = new ArrayList<>();
+        bulkImporter = new ProductBulkImporter(firestore);
+        bulkExporter = new ProductBulkExporter(firestore);
+        editQueue = new ProductEditQueue(firestore, new ProductEditQueue.Listener() {
+            @Override
+            public void onEditsCommitted(Map<String, Map<String, Object>> edits) {
+                resolveLocalEdits(edits, true);
+                Toast.makeText(ManageShopActivity.this, edits.size() == 1 ? "Product updated successfully"
+                        : edits.size() + " products updated", Toast.LENGTH_SHORT).show();
+            }
+
+            @Override
+            public void onEditsFailed(Map<String, Map<String, Object>> edits, String error) {
+                // Roll the grid back to the stored values
+                resolveLocalEdits(edits, false);
+                Toast.makeText(ManageShopActivity.this, "Failed to update product: " + error, Toast.LENGTH_SHORT).show();
+            }
+        });
+
+        searchRepository = ProductSearchRepository.getInstance(this);
+        searchRepository.start();
 
         // Initialize views
         initializeViews();
@@ -63,12 +131,20 @@ public class ManageShopActivity extends AppCompatActivity {
         // Setup listeners
         setupClickListeners();
 
-        // Start listening for product updates
-        startProductListener();
+        // Load the first page of products
+        startProductPager(new CatalogFilter());
     }
 
-    private void checkAdminAccess() {
-        FirebaseAuthManager authManager = new FirebaseAuthManager(this);
+    private boolean checkAdminAccess() {
+        FirebaseAuthManager authManager = FirebaseAuthManager.getInstance(this);
+        Boolean cachedAdmin = authManager.getCachedAdminStatus();
+        if (cachedAdmin != null && !cachedAdmin) {
+            Toast.makeText(this, "Access denied. Admin only.", Toast.LENGTH_SHORT).show();
+            finish();
+            return false;
+        }
+
+        // Confirm against the live value; answers synchronously when the cache is fresh
         authManager.checkAdminStatus(new FirebaseAuthManager.AdminCheckListener() {
             @Override
             public void onAdminCheckResult(boolean isAdmin) {
@@ -84,26 +160,75 @@ public class ManageShopActivity extends AppCompatActivity {
                 finish();
             }
         });
+        return !isFinishing();
     }
 
     private void initializeViews() {
-        productNameInput = findViewById(R.id.productName);
-        imageLinkInput = findViewById(R.id.imageLink);
-        productDetailsInput = findViewById(R.id.productDetails);
-        priceInput = findViewById(R.id.price);
-        featuredGroup = findViewById(R.id.featuredGroup);
-        addToStoreButton = findViewById(R.id.addToStoreButton);
         productsRecyclerView = findViewById(R.id.productsRecyclerView);
+        // The form scrolls with the grid as its first item, so it is built once here
+        headerView = LayoutInflater.from(this).inflate(R.layout.header_manage_shop, productsRecyclerView, false);
+        productNameInput = headerView.findViewById(R.id.productName);
+        imageLinkInput = headerView.findViewById(R.id.imageLink);
+        productDetailsInput = headerView.findViewById(R.id.productDetails);
+        priceInput = headerView.findViewById(R.id.price);
+        featuredGroup = headerView.findViewById(R.id.featuredGroup);
+        addToStoreButton = headerView.findViewById(R.id.addToStoreButton);
+        importProductsButton = headerView.findViewById(R.id.importProductsButton);
+        exportProductsButton = headerView.findViewById(R.id.exportProductsButton);
+        bulkStatusText = headerView.findViewById(R.id.bulkStatusText);
+        productSearchInput = headerView.findViewById(R.id.productSearch);
+        featuredOnlyCheck = headerView.findViewById(R.id.featuredOnlyCheck);
+        minPriceFilter = headerView.findViewById(R.id.minPriceFilter);
+        maxPriceFilter = headerView.findViewById(R.id.maxPriceFilter);
+        sortGroup = headerView.findViewById(R.id.sortGroup);
+        applyFilterButton = headerView.findViewById(R.id.applyFilterButton);
     }
 
     private void setupRecyclerView() {
-        productAdapter = new ProductAdapter(productList, this::showEditDialog, this::showDeleteDialog);
-        productsRecyclerView.setLayoutManager(new GridLayoutManager(this, 2));
-        productsRecyclerView.setAdapter(productAdapter);
+        productAdapter = new ProductAdapter(ProductImageLoader.getInstance(this),
+                this::showEditDialog, this::showDeleteDialog);
+        GridLayoutManager layoutManager = new GridLayoutManager(this, GRID_SPAN_COUNT);
+        layoutManager.setSpanSizeLookup(new GridLayoutManager.SpanSizeLookup() {
+            @Override
+            public int getSpanSize(int position) {
+                return position < HEADER_ITEMS ? GRID_SPAN_COUNT : 1;
+            }
+        });
+        productsRecyclerView.setLayoutManager(layoutManager);
+
+        // The RecyclerView is the page's only scrolling container, so rows off
+        // screen are recycled instead of all being laid out at once
+        ConcatAdapter.Config config = new ConcatAdapter.Config.Builder()
+                .setStableIdMode(ConcatAdapter.Config.StableIdMode.ISOLATED_STABLE_IDS)
+                .build();
+        productsRecyclerView.setAdapter(new ConcatAdapter(config, new HeaderAdapter(headerView), productAdapter));
+        productsRecyclerView.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+                onProductsScrolled();
+            }
+        });
     }
 
     private void setupClickListeners() {
         addToStoreButton.setOnClickListener(v -> addProduct());
+        importProductsButton.setOnClickListener(v -> importFilePicker.launch(IMPORT_MIME_TYPES));
+        exportProductsButton.setOnClickListener(v -> showExportFormatDialog());
+        applyFilterButton.setOnClickListener(v -> applyFilter());
+        productSearchInput.addTextChangedListener(new TextWatcher() {
+            @Override
+            public void beforeTextChanged(CharSequence s, int start, int count, int after) {
+            }
+
+            @Override
+            public void onTextChanged(CharSequence s, int start, int before, int count) {
+            }
+
+            @Override
+            public void afterTextChanged(Editable s) {
+                searchProducts(s.toString().trim());
+            }
+        });
         
         // Setup hamburger menu
         ImageView hamburgerMenuIcon = findViewById(R.id.hamburgerMenuIcon);
@@ -170,7 +295,7 @@ public class ManageShopActivity extends AppCompatActivity {
     }
 
     private void logout() {
-        FirebaseAuthManager authManager = new FirebaseAuthManager(this);
+        FirebaseAuthManager authManager = FirebaseAuthManager.getInstance(this);
         authManager.signOut();
         Intent intent = new Intent(this, AuthenticationActivity.class);
         intent.setFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_CLEAR_TASK);
@@ -186,46 +311,37 @@ public class ManageShopActivity extends AppCompatActivity {
         String priceStr = priceInput.getText().toString().trim();
 
         // Validation
-        if (name.isEmpty()) {
-            productNameInput.setError("Product name is required");
+        String error = ProductFields.nameError(name);
+        if (error != null) {
+            productNameInput.setError(error);
             return;
         }
-        if (details.isEmpty()) {
-            productDetailsInput.setError("Product details are required");
+        error = ProductFields.detailsError(details);
+        if (error != null) {
+            productDetailsInput.setError(error);
             return;
         }
-        if (priceStr.isEmpty()) {
-            priceInput.setError("Price is required");
-            return;
-        }
-
-        double price;
-        try {
-            price = Double.parseDouble(priceStr);
-        } catch (NumberFormatException e) {
-            priceInput.setError("Invalid price format");
+        error = ProductFields.priceError(priceStr);
+        if (error != null) {
+            priceInput.setError(error);
             return;
         }
+        double price = Double.parseDouble(priceStr);
 
         // Get featured status
         int selectedId = featuredGroup.getCheckedRadioButtonId();
         boolean featured = selectedId == R.id.radioFeaturedYes;
 
         // Create product data
-        Map<String, Object> productData = new HashMap<>();
-        productData.put("name", name);
-        if (!imageLink.isEmpty()) {
-            productData.put("imageLink", imageLink);
-        }
-        productData.put("details", details);
-        productData.put("price", price);
-        productData.put("featured", featured);
-        productData.put("createdAt", Timestamp.now());
-
-        // Add to Firestore
-        firestore.collection("shop")
-                .add(productData)
-                .addOnSuccessListener(documentReference -> {
+        Map<String, Object> productData = ProductFields.newProductData(name, imageLink, details, price, featured);
+
+        // Add to Firestore, together with its price list entry
+        DocumentReference productRef = firestore.collection("shop").document();
+        WriteBatch batch = firestore.batch();
+        batch.set(productRef, productData);
+        ShopPriceList.put(batch, firestore, productRef.getId(), price);
+        batch.commit()
+                .addOnSuccessListener(aVoid -> {
                     Toast.makeText(this, "Product added successfully", Toast.LENGTH_SHORT).show();
                     clearForm();
                 })
@@ -242,26 +358,207 @@ public class ManageShopActivity extends AppCompatActivity {
         featuredGroup.check(R.id.radioFeaturedNo);
     }
 
-    private void startProductListener() {
-        productsListener = firestore.collection("shop")
-                .addSnapshotListener((snapshots, e) -> {
-                    if (e != null) {
-                        Toast.makeText(this, "Error loading products: " + e.getMessage(), Toast.LENGTH_SHORT).show();
-                        return;
-                    }
+    private void importProducts(Uri uri, int startRow) {
+        InputStream in;
+        try {
+            in = getContentResolver().openInputStream(uri);
+        } catch (FileNotFoundException e) {
+            Toast.makeText(this, "Cannot open file: " + e.getMessage(), Toast.LENGTH_SHORT).show();
+            return;
+        }
+
+        setBulkRunning(true);
+        bulkStatusText.setText("Importing...");
+        bulkImporter.importProducts(in, formatOf(uri), startRow, new ProductBulkImporter.Listener() {
+            @Override
+            public void onProgress(int committed, int rejected) {
+                bulkStatusText.setText("Imported " + committed + " products, " + rejected + " rows rejected");
+            }
+
+            @Override
+            public void onComplete(int committed, List<String> rejectedRows) {
+                setBulkRunning(false);
+                bulkStatusText.setText("Imported " + committed + " products, " + rejectedRows.size() + " rows rejected");
+                if (!rejectedRows.isEmpty()) {
+                    new AlertDialog.Builder(ManageShopActivity.this)
+                            .setTitle("Rejected Rows")
+                            .setMessage(TextUtils.join("\n", rejectedRows))
+                            .setPositiveButton("OK", null)
+                            .show();
+                }
+            }
+
+            @Override
+            public void onFailure(String error, int resumeFromRow, int committed) {
+                setBulkRunning(false);
+                bulkStatusText.setText("Import stopped after " + committed + " products: " + error);
+                new AlertDialog.Builder(ManageShopActivity.this)
+                        .setTitle("Import Failed")
+                        .setMessage("Rows before " + (resumeFromRow + 1) + " were saved. Resume from there?")
+                        .setPositiveButton("Resume", (dialog, which) -> importProducts(uri, resumeFromRow))
+                        .setNegativeButton("Cancel", null)
+                        .show();
+            }
+        });
+    }
+
+    private ProductBulkImporter.Format formatOf(Uri uri) {
+        String type = getContentResolver().getType(uri);
+        String path = uri.getLastPathSegment();
+        boolean json = (type != null && type.contains("json")) || (path != null && path.endsWith(".json"));
+        return json ? ProductBulkImporter.Format.JSON : ProductBulkImporter.Format.CSV;
+    }
 
-                    if (snapshots != null) {
-                        productList.clear();
-                        for (DocumentSnapshot doc : snapshots.getDocuments()) {
-                            Product product = doc.toObject(Product.class);
-                            if (product != null) {
-                                product.setProductId(doc.getId());
-                                productList.add(product);
-                            }
-                        }
-                        productAdapter.notifyDataSetChanged();
+    private void showExportFormatDialog() {
+        new AlertDialog.Builder(this)
+                .setTitle("Export Products")
+                .setItems(new String[]{"CSV", "JSON"}, (dialog, which) -> {
+                    if (which == 0) {
+                        csvExportPicker.launch("products.csv");
+                    } else {
+                        jsonExportPicker.launch("products.json");
                     }
-                });
+                })
+                .show();
+    }
+
+    private void exportProducts(Uri uri, ProductBulkImporter.Format format) {
+        OutputStream out;
+        try {
+            out = getContentResolver().openOutputStream(uri);
+        } catch (FileNotFoundException e) {
+            Toast.makeText(this, "Cannot create file: " + e.getMessage(), Toast.LENGTH_SHORT).show();
+            return;
+        }
+
+        setBulkRunning(true);
+        bulkStatusText.setText("Exporting...");
+        bulkExporter.exportProducts(out, format, new ProductBulkExporter.Listener() {
+            @Override
+            public void onProgress(int exported) {
+                bulkStatusText.setText("Exported " + exported + " products");
+            }
+
+            @Override
+            public void onComplete(int exported) {
+                setBulkRunning(false);
+                bulkStatusText.setText("Exported " + exported + " products");
+            }
+
+            @Override
+            public void onFailure(String error, int exported) {
+                setBulkRunning(false);
+                bulkStatusText.setText("Export failed after " + exported + " products: " + error);
+            }
+        });
+    }
+
+    private void setBulkRunning(boolean running) {
+        importProductsButton.setEnabled(!running);
+        exportProductsButton.setEnabled(!running);
+        bulkStatusText.setVisibility(View.VISIBLE);
+    }
+
+    private void applyFilter() {
+        CatalogFilter filter = new CatalogFilter();
+        filter.setFeaturedOnly(featuredOnlyCheck.isChecked());
+        try {
+            filter.setMinPrice(parsePriceFilter(minPriceFilter));
+            filter.setMaxPrice(parsePriceFilter(maxPriceFilter));
+        } catch (NumberFormatException e) {
+            Toast.makeText(this, "Invalid price format", Toast.LENGTH_SHORT).show();
+            return;
+        }
+
+        int sortId = sortGroup.getCheckedRadioButtonId();
+        if (sortId == R.id.sortPriceLow) {
+            filter.setSort(CatalogFilter.Sort.PRICE_LOW_TO_HIGH);
+        } else if (sortId == R.id.sortPriceHigh) {
+            filter.setSort(CatalogFilter.Sort.PRICE_HIGH_TO_LOW);
+        }
+        if (filter.effectiveSort() != filter.getSort()) {
+            // A price range can only be ordered by price
+            sortGroup.check(R.id.sortPriceLow);
+        }
+
+        // Don't lose edits still waiting out the debounce on the old pager
+        editQueue.flush();
+        productPager.release();
+        catalogProducts = null;
+        if (searchQuery.isEmpty()) {
+            productAdapter.submitList(null);
+        }
+        startProductPager(filter);
+    }
+
+    private static Double parsePriceFilter(EditText input) {
+        String text = input.getText().toString().trim();
+        return text.isEmpty() ? null : Double.parseDouble(text);
+    }
+
+    private void startProductPager(CatalogFilter filter) {
+        ShopCatalogRepository catalogRepository = ShopCatalogRepository.getInstance();
+        Query query = catalogRepository.catalogQuery(filter);
+        productPager = new ProductPager(catalogRepository, query, new ProductPager.Listener() {
+            @Override
+            public void onProductsChanged(List<Product> products) {
+                catalogProducts = products;
+                if (!searchQuery.isEmpty()) {
+                    return;
+                }
+                productAdapter.submitList(products);
+                // Re-check the viewport in case the loaded rows don't fill it yet
+                productsRecyclerView.post(() -> onProductsScrolled());
+            }
+
+            @Override
+            public void onProductsError(String error) {
+                Toast.makeText(ManageShopActivity.this, "Error loading products: " + error, Toast.LENGTH_SHORT).show();
+            }
+        });
+        productPager.loadNextPage();
+    }
+
+    private void searchProducts(String query) {
+        searchQuery = query;
+        if (query.isEmpty()) {
+            productAdapter.submitList(catalogProducts);
+            productsRecyclerView.post(() -> onProductsScrolled());
+            return;
+        }
+        searchRepository.search(query, (resultQuery, products) -> {
+            // Drop results for text the admin has already typed past
+            if (!resultQuery.equals(searchQuery)) {
+                return;
+            }
+            productAdapter.submitList(products);
+            productsRecyclerView.post(() -> onProductsScrolled());
+        });
+    }
+
+    private void onProductsScrolled() {
+        if (productPager == null) {
+            return;
+        }
+
+        GridLayoutManager layoutManager = (GridLayoutManager) productsRecyclerView.getLayoutManager();
+        int firstVisible = Math.max(0, layoutManager.findFirstVisibleItemPosition() - HEADER_ITEMS);
+        int lastVisible = layoutManager.findLastVisibleItemPosition() - HEADER_ITEMS;
+        if (lastVisible < 0) {
+            // Only the header is on screen; only the first page matters
+            firstVisible = 0;
+            lastVisible = 0;
+        }
+        int prefetchDistance = PREFETCH_ROWS * GRID_SPAN_COUNT;
+        if (searchQuery.isEmpty()) {
+            // Search results come from the local index, not from pages
+            productPager.onVisibleRangeChanged(firstVisible, lastVisible, prefetchDistance);
+        }
+
+        // Rows just off screen stay bound in RecyclerView's view cache, so only the
+        // rows on screen hold bitmaps and the next rows are warmed in the caches
+        productAdapter.setImageWindow(productsRecyclerView, firstVisible, lastVisible);
+        productAdapter.prefetchImages(lastVisible + 1, lastVisible + prefetchDistance);
     }
 
     private void showEditDialog(Product product) {
@@ -284,13 +581,13 @@ public class ManageShopActivity extends AppCompatActivity {
         builder.setView(editView)
                 .setTitle("Edit Product")
                 .setPositiveButton("Update", (dialog, which) -> {
-                    updateProduct(product.getProductId(), editName, editImageLink, editDetails, editPrice, editFeaturedGroup);
+                    updateProduct(product, editName, editImageLink, editDetails, editPrice, editFeaturedGroup);
                 })
                 .setNegativeButton("Cancel", null)
                 .show();
     }
 
-    private void updateProduct(String productId, EditText editName, EditText editImageLink, 
+    private void updateProduct(Product product, EditText editName, EditText editImageLink, 
                              EditText editDetails, EditText editPrice, RadioGroup editFeaturedGroup) {
         String name = editName.getText().toString().trim();
         String imageLink = editImageLink.getText().toString().trim();
@@ -312,25 +609,20 @@ public class ManageShopActivity extends AppCompatActivity {
 
         boolean featured = editFeaturedGroup.getCheckedRadioButtonId() == R.id.editRadioFeaturedYes;
 
-        Map<String, Object> updates = new HashMap<>();
-        updates.put("name", name);
-        if (!imageLink.isEmpty()) {
-            updates.put("imageLink", imageLink);
-        } else {
-            updates.put("imageLink", null);
+        // Only the fields that differ from what the grid shows are written
+        Map<String, Object> changes = ProductFields.changedFields(product, name, imageLink, details, price, featured);
+        if (changes.isEmpty()) {
+            return;
         }
-        updates.put("details", details);
-        updates.put("price", price);
-        updates.put("featured", featured);
+        productPager.applyLocalEdit(product.getProductId(), changes);
+        editQueue.enqueue(product.getProductId(), changes);
+    }
 
-        firestore.collection("shop").document(productId)
-                .update(updates)
-                .addOnSuccessListener(aVoid -> {
-                    Toast.makeText(this, "Product updated successfully", Toast.LENGTH_SHORT).show();
-                })
-                .addOnFailureListener(e -> {
-                    Toast.makeText(this, "Failed to update product: " + e.getMessage(), Toast.LENGTH_SHORT).show();
-                });
+    private void resolveLocalEdits(Map<String, Map<String, Object>> edits, boolean committed) {
+        if (productPager == null) {
+            return;
+        }
+        productPager.resolveLocalEdits(edits, committed);
     }
 
     private void showDeleteDialog(Product product) {
@@ -338,9 +630,12 @@ public class ManageShopActivity extends AppCompatActivity {
                 .setTitle("Delete Product")
                 .setMessage("Are you sure you want to delete '" + product.getName() + "'?")
                 .setPositiveButton("Delete", (dialog, which) -> {
-                    firestore.collection("shop").document(product.getProductId())
-                            .delete()
+                    WriteBatch batch = firestore.batch();
+                    batch.delete(firestore.collection("shop").document(product.getProductId()));
+                    ShopPriceList.remove(batch, firestore, product.getProductId());
+                    batch.commit()
                             .addOnSuccessListener(aVoid -> {
+                                searchRepository.remove(product.getProductId());
                                 Toast.makeText(this, "Product deleted successfully", Toast.LENGTH_SHORT).show();
                             })
                             .addOnFailureListener(e -> {
@@ -354,8 +649,16 @@ public class ManageShopActivity extends AppCompatActivity {
     @Override
     protected void onDestroy() {
         super.onDestroy();
-        if (productsListener != null) {
-            productsListener.remove();
+        if (editQueue != null) {
+            // Don't drop edits still waiting out the debounce
+            editQueue.flush();
+        }
+        if (productPager != null) {
+            productPager.release();
+            productPager = null;
+        }
+        if (searchRepository != null) {
+            searchRepository.stop();
         }
     }
 
@@ -404,11 +707,51 @@ public class ManageShopActivity extends AppCompatActivity {
         public void setCreatedAt(Timestamp createdAt) { this.createdAt = createdAt; }
     }
 
+    // Shows the prebuilt form and filters as the grid's first, full-width item
+    private static class HeaderAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder> {
+        private final View headerView;
+
+        HeaderAdapter(View headerView) {
+            this.headerView = headerView;
+            setHasStableIds(true);
+        }
+
+        @Override
+        public long getItemId(int position) {
+            return 0;
+        }
+
+        @Override
+        public int getItemCount() {
+            return HEADER_ITEMS;
+        }
+
+        @NonNull
+        @Override
+        public RecyclerView.ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+            // A holder dropped from the pool may still own the view
+            if (headerView.getParent() != null) {
+                ((ViewGroup) headerView.getParent()).removeView(headerView);
+            }
+            return new RecyclerView.ViewHolder(headerView) {
+            };
+        }
+
+        @Override
+        public void onBindViewHolder(@NonNull RecyclerView.ViewHolder holder, int position) {
+            // The form keeps its own state
+        }
+    }
+
     // RecyclerView Adapter
-    private static class ProductAdapter extends RecyclerView.Adapter<ProductAdapter.ViewHolder> {
-        private List<Product> products;
+    private static class ProductAdapter extends ListAdapter<Product, ProductAdapter.ViewHolder> {
+        private final ProductImageLoader imageLoader;
         private OnProductEditListener editListener;
         private OnProductDeleteListener deleteListener;
+        private int imageWidth;
+        private int imageHeight;
+        private int imageWindowStart = 0;
+        private int imageWindowEnd = -1;
 
         interface OnProductEditListener {
             void onEdit(Product product);
@@ -418,22 +761,64 @@ public class ManageShopActivity extends AppCompatActivity {
             void onDelete(Product product);
         }
 
-        public ProductAdapter(List<Product> products, OnProductEditListener editListener, OnProductDeleteListener deleteListener) {
-            this.products = products;
+        // Rows are keyed on productId. A MODIFIED snapshot produces a fresh Product
+        // instance while unchanged rows are reused, so identity marks changed content.
+        private static final DiffUtil.ItemCallback<Product> DIFF_CALLBACK = new DiffUtil.ItemCallback<Product>() {
+            @Override
+            public boolean areItemsTheSame(@NonNull Product oldItem, @NonNull Product newItem) {
+                return oldItem.getProductId().equals(newItem.getProductId());
+            }
+
+            @Override
+            public boolean areContentsTheSame(@NonNull Product oldItem, @NonNull Product newItem) {
+                return oldItem == newItem;
+            }
+        };
+
+        public ProductAdapter(ProductImageLoader imageLoader, OnProductEditListener editListener,
+                              OnProductDeleteListener deleteListener) {
+            super(DIFF_CALLBACK);
+            this.imageLoader = imageLoader;
             this.editListener = editListener;
             this.deleteListener = deleteListener;
+            setHasStableIds(true);
+        }
+
+        @Override
+        public long getItemId(int position) {
+            return getItem(position).getProductId().hashCode();
         }
 
         @NonNull
         @Override
         public ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
             View view = LayoutInflater.from(parent.getContext()).inflate(R.layout.item_product_admin, parent, false);
+            if (imageWidth == 0) {
+                int gridWidth = parent.getWidth() > 0 ? parent.getWidth()
+                        : parent.getResources().getDisplayMetrics().widthPixels;
+                imageWidth = gridWidth / GRID_SPAN_COUNT;
+                // Fixed height from the item layout
+                imageHeight = view.findViewById(R.id.productImage).getLayoutParams().height;
+            }
             return new ViewHolder(view);
         }
 
         @Override
         public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
-            Product product = products.get(position);
+            Product product = getItem(position);
+            if (ProductPager.isPlaceholder(product)) {
+                // An evicted row, reloaded before it scrolls back on screen
+                holder.itemView.setVisibility(View.INVISIBLE);
+                holder.productName.setText(null);
+                holder.productDetails.setText(null);
+                holder.productPrice.setText(null);
+                holder.featuredBadge.setVisibility(View.GONE);
+                holder.editButton.setOnClickListener(null);
+                holder.deleteButton.setOnClickListener(null);
+                bindImage(holder, position);
+                return;
+            }
+            holder.itemView.setVisibility(View.VISIBLE);
             holder.productName.setText(product.getName());
             holder.productDetails.setText(product.getDetails());
             holder.productPrice.setText(String.format("$%.2f", product.getPrice()));
@@ -441,19 +826,66 @@ public class ManageShopActivity extends AppCompatActivity {
 
             holder.editButton.setOnClickListener(v -> editListener.onEdit(product));
             holder.deleteButton.setOnClickListener(v -> deleteListener.onDelete(product));
+            bindImage(holder, position);
         }
 
         @Override
-        public int getItemCount() {
-            return products.size();
+        public void onViewRecycled(@NonNull ViewHolder holder) {
+            imageLoader.cancel(holder.productImage);
+        }
+
+        /**
+         * Loads images for positions in [start, end] and releases the rest.
+         */
+        void setImageWindow(RecyclerView recyclerView, int start, int end) {
+            imageWindowStart = start;
+            imageWindowEnd = end;
+            for (int i = 0; i < recyclerView.getChildCount(); i++) {
+                RecyclerView.ViewHolder holder = recyclerView.getChildViewHolder(recyclerView.getChildAt(i));
+                if (!(holder instanceof ViewHolder)) {
+                    // The header
+                    continue;
+                }
+                // Position within this adapter, not the ConcatAdapter
+                int position = holder.getBindingAdapterPosition();
+                if (position != RecyclerView.NO_POSITION) {
+                    bindImage((ViewHolder) holder, position);
+                }
+            }
+        }
+
+        void prefetchImages(int start, int end) {
+            for (int position = Math.max(0, start); position <= end && position < getItemCount(); position++) {
+                String link = getItem(position).getImageLink();
+                if (link != null && !link.isEmpty()) {
+                    imageLoader.prefetch(link, imageWidth, imageHeight);
+                }
+            }
+        }
+
+        private void bindImage(ViewHolder holder, int position) {
+            String link = getItem(position).getImageLink();
+            if (link == null || link.isEmpty()) {
+                imageLoader.cancel(holder.productImage);
+                holder.productImage.setVisibility(View.GONE);
+                return;
+            }
+            holder.productImage.setVisibility(View.VISIBLE);
+            if (position >= imageWindowStart && position <= imageWindowEnd) {
+                imageLoader.load(link, holder.productImage, imageWidth, imageHeight);
+            } else {
+                imageLoader.cancel(holder.productImage);
+            }
         }
 
         static class ViewHolder extends RecyclerView.ViewHolder {
+            ImageView productImage;
             TextView productName, productDetails, productPrice, featuredBadge;
             Button editButton, deleteButton;
 
             ViewHolder(View itemView) {
                 super(itemView);
+                productImage = itemView.findViewById(R.id.productImage);
                 productName = itemView.findViewById(R.id.productName);
                 productDetails = itemView.findViewById(R.id.productDetails);
                 productPrice = itemView.findViewById(R.id.productPrice);
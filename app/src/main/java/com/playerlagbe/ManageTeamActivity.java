@@ -4,29 +4,295 @@ import android.content.Intent;
 import android.content.SharedPreferences;
 import android.os.Bundle;
 import android.view.View;
+import android.widget.ArrayAdapter;
+import android.widget.Button;
+import android.widget.CheckBox;
+import android.widget.EditText;
 import android.widget.ImageView;
 import android.widget.PopupMenu;
+import android.widget.Spinner;
+import android.widget.TextView;
 import android.widget.Toast;
 
+import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.appcompat.app.AppCompatDelegate;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
 
-public class ManageTeamActivity extends AppCompatActivity {
+import com.google.firebase.firestore.ListenerRegistration;
+
+import java.util.List;
+import java.util.Map;
+
+public class ManageTeamActivity extends AppCompatActivity implements TeamRepository.TeamsListener {
+
+    // Returned by parseLocation() for input that isn't a coordinate pair
+    private static final double[] INVALID_LOCATION = new double[0];
+
+    private EditText teamNameInput, teamAreaInput, teamLocationInput;
+    private EditText playerNameInput, playerSkillInput, playerAreaInput, playerContactInput, playerLocationInput;
+    private Spinner playerPositionSpinner;
+    private CheckBox playerAvailableCheck;
+    private Button savePlayerButton;
+    private View playerFormCard;
+    private TextView playerFormTitle;
+    private TeamAdapter teamAdapter;
+    private TeamRepository teamRepository;
+    private ListenerRegistration teamsRegistration;
+
+    // Team the player form writes to, and the player being edited (null when adding)
+    private Team selectedTeam;
+    private Player editingPlayer;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
+
+        // Gate on the cached admin flag before inflating any admin UI
+        if (!checkAdminAccess()) {
+            return;
+        }
         setContentView(R.layout.activity_manage_team);
 
-        // Check admin status
-        checkAdminAccess();
+        teamRepository = TeamRepository.getInstance();
+        initViews();
 
         // Setup hamburger menu
         setupHamburgerMenu();
     }
 
-    private void checkAdminAccess() {
-        FirebaseAuthManager authManager = new FirebaseAuthManager(this);
+    private void initViews() {
+        teamNameInput = findViewById(R.id.teamNameInput);
+        teamAreaInput = findViewById(R.id.teamAreaInput);
+        teamLocationInput = findViewById(R.id.teamLocationInput);
+        playerFormCard = findViewById(R.id.playerFormCard);
+        playerFormTitle = findViewById(R.id.playerFormTitle);
+        playerNameInput = findViewById(R.id.playerNameInput);
+        playerPositionSpinner = findViewById(R.id.playerPositionSpinner);
+        playerSkillInput = findViewById(R.id.playerSkillInput);
+        playerAreaInput = findViewById(R.id.playerAreaInput);
+        playerContactInput = findViewById(R.id.playerContactInput);
+        playerLocationInput = findViewById(R.id.playerLocationInput);
+        playerAvailableCheck = findViewById(R.id.playerAvailableCheck);
+        savePlayerButton = findViewById(R.id.savePlayerButton);
+
+        ArrayAdapter<String> positions = new ArrayAdapter<>(this,
+                android.R.layout.simple_spinner_item, Player.POSITIONS);
+        positions.setDropDownViewResource(android.R.layout.simple_spinner_dropdown_item);
+        playerPositionSpinner.setAdapter(positions);
+
+        RecyclerView teamsRecyclerView = findViewById(R.id.teamsRecyclerView);
+        teamsRecyclerView.setLayoutManager(new LinearLayoutManager(this));
+        teamAdapter = new TeamAdapter(this::selectTeam);
+        teamsRecyclerView.setAdapter(teamAdapter);
+
+        findViewById(R.id.createTeamButton).setOnClickListener(v -> createTeam());
+        savePlayerButton.setOnClickListener(v -> savePlayer());
+        findViewById(R.id.showRosterButton).setOnClickListener(v -> showRoster());
+    }
+
+    @Override
+    public void onTeamsChanged(List<Team> teams) {
+        teamAdapter.submitList(teams);
+        if (selectedTeam == null) {
+            return;
+        }
+        // Keep the selection on the latest copy, whose summaries removals must match
+        for (Team team : teams) {
+            if (team.getTeamId().equals(selectedTeam.getTeamId())) {
+                selectedTeam = team;
+                return;
+            }
+        }
+        selectTeam(null);
+    }
+
+    @Override
+    public void onTeamsError(String error) {
+        Toast.makeText(this, "Error loading teams: " + error, Toast.LENGTH_SHORT).show();
+    }
+
+    private void createTeam() {
+        String name = teamNameInput.getText().toString().trim();
+        String area = teamAreaInput.getText().toString().trim();
+        if (name.isEmpty()) {
+            teamNameInput.setError("Team name is required");
+            return;
+        }
+        if (area.isEmpty()) {
+            teamAreaInput.setError("Area is required");
+            return;
+        }
+        double[] location = parseLocation(teamLocationInput);
+        if (location == INVALID_LOCATION) {
+            return;
+        }
+        teamRepository.createTeam(name, area, location != null ? location[0] : null,
+                        location != null ? location[1] : null)
+                .addOnSuccessListener(aVoid -> {
+                    Toast.makeText(this, "Team created", Toast.LENGTH_SHORT).show();
+                    teamNameInput.setText("");
+                    teamAreaInput.setText("");
+                    teamLocationInput.setText("");
+                })
+                .addOnFailureListener(e ->
+                        Toast.makeText(this, "Error creating team: " + e.getMessage(), Toast.LENGTH_SHORT).show());
+    }
+
+    private void selectTeam(Team team) {
+        selectedTeam = team;
+        editPlayer(null);
+        playerFormCard.setVisibility(team != null ? View.VISIBLE : View.GONE);
+    }
+
+    /**
+     * Points the player form at an existing player, or back to adding one.
+     */
+    private void editPlayer(Player player) {
+        editingPlayer = player;
+        if (selectedTeam != null) {
+            playerFormTitle.setText((player != null ? "Edit Player · " : "Add Player · ") + selectedTeam.getName());
+        }
+        savePlayerButton.setText(player != null ? "Save Player" : "Add Player");
+        playerNameInput.setText(player != null ? player.getName() : "");
+        int position = player != null ? Player.POSITIONS.indexOf(player.getPosition()) : 0;
+        playerPositionSpinner.setSelection(Math.max(0, position));
+        playerSkillInput.setText(player != null ? String.valueOf(player.getSkillRating()) : "");
+        playerAreaInput.setText(player != null && player.getArea() != null ? player.getArea() : "");
+        playerContactInput.setText(player != null && player.getContact() != null ? player.getContact() : "");
+        playerAvailableCheck.setChecked(player == null || player.isAvailable());
+        playerLocationInput.setText(player != null && player.hasLocation()
+                ? player.getLat() + ", " + player.getLng() : "");
+    }
+
+    /**
+     * Reads a "lat, lng" field: null when it is empty, INVALID_LOCATION (with
+     * the error shown on the field) when it can't be parsed.
+     */
+    private static double[] parseLocation(EditText input) {
+        String text = input.getText().toString().trim();
+        if (text.isEmpty()) {
+            return null;
+        }
+        String[] parts = text.split(",");
+        try {
+            if (parts.length == 2) {
+                double lat = Double.parseDouble(parts[0].trim());
+                double lng = Double.parseDouble(parts[1].trim());
+                if (lat >= -90 && lat <= 90 && lng >= -180 && lng <= 180) {
+                    return new double[]{lat, lng};
+                }
+            }
+        } catch (NumberFormatException e) {
+            // Falls through to the error below
+        }
+        input.setError("Enter latitude, longitude");
+        return INVALID_LOCATION;
+    }
+
+    private void savePlayer() {
+        if (selectedTeam == null) {
+            return;
+        }
+        String name = playerNameInput.getText().toString().trim();
+        String skill = playerSkillInput.getText().toString().trim();
+        if (name.isEmpty()) {
+            playerNameInput.setError("Player name is required");
+            return;
+        }
+        int skillRating;
+        try {
+            skillRating = Integer.parseInt(skill);
+        } catch (NumberFormatException e) {
+            skillRating = 0;
+        }
+        if (skillRating < Player.MIN_SKILL || skillRating > Player.MAX_SKILL) {
+            playerSkillInput.setError("Skill must be " + Player.MIN_SKILL + "-" + Player.MAX_SKILL);
+            return;
+        }
+
+        double[] location = parseLocation(playerLocationInput);
+        if (location == INVALID_LOCATION) {
+            return;
+        }
+
+        Player player = editingPlayer != null ? editingPlayer : new Player();
+        player.setName(name);
+        player.setPosition((String) playerPositionSpinner.getSelectedItem());
+        player.setSkillRating(skillRating);
+        player.setArea(playerAreaInput.getText().toString().trim());
+        player.setContact(playerContactInput.getText().toString().trim());
+        player.setAvailable(playerAvailableCheck.isChecked());
+        player.setLat(location != null ? location[0] : null);
+        player.setLng(location != null ? location[1] : null);
+
+        boolean adding = editingPlayer == null;
+        (adding ? teamRepository.addPlayer(selectedTeam, player) : teamRepository.updatePlayer(selectedTeam, player))
+                .addOnSuccessListener(aVoid -> {
+                    Toast.makeText(this, adding ? "Player added" : "Player updated", Toast.LENGTH_SHORT).show();
+                    editPlayer(null);
+                })
+                .addOnFailureListener(e ->
+                        Toast.makeText(this, "Error saving player: " + e.getMessage(), Toast.LENGTH_SHORT).show());
+    }
+
+    private void showRoster() {
+        if (selectedTeam == null) {
+            return;
+        }
+        Team team = selectedTeam;
+        List<Map<String, Object>> players = team.roster();
+        String[] labels = new String[players.size()];
+        for (int i = 0; i < labels.length; i++) {
+            labels[i] = TeamAdapter.playerLabel(players.get(i));
+        }
+        new AlertDialog.Builder(this)
+                .setTitle(team.getName())
+                .setItems(labels, (dialog, which) ->
+                        showPlayerActions(team, (String) players.get(which).get(Team.SUMMARY_PLAYER_ID)))
+                .setNegativeButton("Close", null)
+                .show();
+    }
+
+    private void showPlayerActions(Team team, String playerId) {
+        new AlertDialog.Builder(this)
+                .setItems(new String[]{"Edit", "Remove"}, (dialog, which) -> {
+                    if (which == 0) {
+                        // Only the summary is loaded; editing needs the full document
+                        teamRepository.loadPlayer(playerId, new TeamRepository.PlayerListener() {
+                            @Override
+                            public void onPlayerLoaded(Player player) {
+                                editPlayer(player);
+                            }
+
+                            @Override
+                            public void onPlayerError(String error) {
+                                Toast.makeText(ManageTeamActivity.this, "Error loading player: " + error,
+                                        Toast.LENGTH_SHORT).show();
+                            }
+                        });
+                    } else {
+                        teamRepository.removePlayer(team, playerId)
+                                .addOnSuccessListener(aVoid ->
+                                        Toast.makeText(this, "Player removed", Toast.LENGTH_SHORT).show())
+                                .addOnFailureListener(e -> Toast.makeText(this,
+                                        "Error removing player: " + e.getMessage(), Toast.LENGTH_SHORT).show());
+                    }
+                })
+                .show();
+    }
+
+    private boolean checkAdminAccess() {
+        FirebaseAuthManager authManager = FirebaseAuthManager.getInstance(this);
+        Boolean cachedAdmin = authManager.getCachedAdminStatus();
+        if (cachedAdmin != null && !cachedAdmin) {
+            Toast.makeText(this, "Access denied. Admin only.", Toast.LENGTH_SHORT).show();
+            finish();
+            return false;
+        }
+
+        // Confirm against the live value; answers synchronously when the cache is fresh
         authManager.checkAdminStatus(new FirebaseAuthManager.AdminCheckListener() {
             @Override
             public void onAdminCheckResult(boolean isAdmin) {
@@ -42,6 +308,7 @@ public class ManageTeamActivity extends AppCompatActivity {
                 finish();
             }
         });
+        return !isFinishing();
     }
 
     private void setupHamburgerMenu() {
@@ -109,7 +376,7 @@ public class ManageTeamActivity extends AppCompatActivity {
     }
 
     private void logout() {
-        FirebaseAuthManager authManager = new FirebaseAuthManager(this);
+        FirebaseAuthManager authManager = FirebaseAuthManager.getInstance(this);
         authManager.signOut();
         Intent intent = new Intent(this, AuthenticationActivity.class);
         intent.setFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_CLEAR_TASK);
@@ -124,5 +391,17 @@ public class ManageTeamActivity extends AppCompatActivity {
         SharedPreferences prefs = getSharedPreferences("settings", MODE_PRIVATE);
         boolean darkMode = prefs.getBoolean("dark_mode", false);
         AppCompatDelegate.setDefaultNightMode(darkMode ? AppCompatDelegate.MODE_NIGHT_YES : AppCompatDelegate.MODE_NIGHT_NO);
+        if (teamRepository != null) {
+            teamsRegistration = teamRepository.listenTeams(this);
+        }
+    }
+
+    @Override
+    protected void onStop() {
+        super.onStop();
+        if (teamsRegistration != null) {
+            teamsRegistration.remove();
+            teamsRegistration = null;
+        }
     }
 }
\ No newline at end of file
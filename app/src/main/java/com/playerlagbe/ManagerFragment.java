@@ -5,15 +5,36 @@ import android.os.Bundle;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
+import android.widget.Button;
+import android.widget.EditText;
 import android.widget.ImageView;
 import android.widget.PopupMenu;
+import android.widget.TextView;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.appcompat.app.AlertDialog;
 import androidx.fragment.app.Fragment;
 
+import com.google.firebase.firestore.FirebaseFirestore;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
 public class ManagerFragment extends Fragment {
 
+    // Conflicts listed in the dialog; the rest are only counted
+    private static final int MAX_CONFLICTS_SHOWN = 50;
+
     private View rootView;
+    private EditText pitchesInput, firstKickoffInput, slotLengthInput, slotsPerDayInput;
+    private Button generateFixturesButton, checkConflictsButton;
+    private TextView fixturesStatusText;
 
     @Nullable
     @Override
@@ -26,6 +47,292 @@ public class ManagerFragment extends Fragment {
     public void onViewCreated(@NonNull View view, @Nullable Bundle savedInstanceState) {
         super.onViewCreated(view, savedInstanceState);
         setupHamburgerMenu();
+        FirebaseAuthManager.getInstance(requireContext()).checkAdminStatus(new FirebaseAuthManager.AdminCheckListener() {
+            @Override
+            public void onAdminCheckResult(boolean isAdmin) {
+                if (!isAdmin || !isAdded()) {
+                    return;
+                }
+                rootView.findViewById(R.id.managerInfoText).setVisibility(View.GONE);
+                setupFixtures();
+                loadShopStats();
+            }
+
+            @Override
+            public void onAdminCheckError(String error) {
+            }
+        });
+    }
+
+    /**
+     * Shows the order counters; ten shard reads however many orders exist.
+     */
+    private void loadShopStats() {
+        OrderStats.load(FirebaseFirestore.getInstance(), new OrderStats.LoadListener() {
+            @Override
+            public void onStatsLoaded(OrderStats stats) {
+                if (!isAdded()) {
+                    return;
+                }
+                rootView.findViewById(R.id.shopStatsCard).setVisibility(View.VISIBLE);
+                ((TextView) rootView.findViewById(R.id.shopStatsText)).setText(stats.formatSummary());
+            }
+
+            @Override
+            public void onStatsError(String error) {
+                // The card stays hidden
+            }
+        });
+    }
+
+    private void setupFixtures() {
+        rootView.findViewById(R.id.fixturesCard).setVisibility(View.VISIBLE);
+        pitchesInput = rootView.findViewById(R.id.pitchesInput);
+        firstKickoffInput = rootView.findViewById(R.id.firstKickoffInput);
+        slotLengthInput = rootView.findViewById(R.id.slotLengthInput);
+        slotsPerDayInput = rootView.findViewById(R.id.slotsPerDayInput);
+        generateFixturesButton = rootView.findViewById(R.id.generateFixturesButton);
+        checkConflictsButton = rootView.findViewById(R.id.checkConflictsButton);
+        fixturesStatusText = rootView.findViewById(R.id.fixturesStatusText);
+
+        generateFixturesButton.setOnClickListener(v -> generateFixtures());
+        checkConflictsButton.setOnClickListener(v -> checkConflicts());
+    }
+
+    private void generateFixtures() {
+        List<String> pitches = new ArrayList<>();
+        for (String pitch : pitchesInput.getText().toString().split(",")) {
+            if (!pitch.trim().isEmpty()) {
+                pitches.add(pitch.trim());
+            }
+        }
+        if (pitches.isEmpty()) {
+            pitchesInput.setError("Enter at least one pitch");
+            return;
+        }
+        Date firstKickoff;
+        try {
+            firstKickoff = kickoffFormat().parse(firstKickoffInput.getText().toString().trim());
+        } catch (ParseException e) {
+            firstKickoffInput.setError("Use yyyy-MM-dd HH:mm");
+            return;
+        }
+        int slotMinutes = parsePositive(slotLengthInput);
+        int slotsPerDay = parsePositive(slotsPerDayInput);
+        if (slotMinutes <= 0 || slotsPerDay <= 0) {
+            return;
+        }
+        long slotMillis = slotMinutes * 60_000L;
+        if (slotMillis * slotsPerDay > MatchScheduler.DAY_MILLIS) {
+            slotsPerDayInput.setError("Slots don't fit in a day");
+            return;
+        }
+
+        // Holding each team until the same time next day keeps it to one match a day
+        MatchScheduler scheduler = new MatchScheduler(pitches, firstKickoff.getTime(), slotMillis, slotsPerDay,
+                MatchScheduler.DAY_MILLIS - slotMillis);
+        setFixturesBusy(true, "Loading teams...");
+        TeamRepository.getInstance().loadTeams(new TeamRepository.TeamsListener() {
+            @Override
+            public void onTeamsChanged(List<Team> teams) {
+                if (!isAdded()) {
+                    return;
+                }
+                if (teams.size() < 2) {
+                    setFixturesBusy(false, "At least two teams are needed");
+                    return;
+                }
+                setFixturesBusy(true, "Scheduling " + teams.size() + " teams...");
+                MatchRepository.getInstance().generateFixtures(scheduler, toEntrants(teams), matches -> {
+                    if (isAdded()) {
+                        confirmSaveFixtures(matches);
+                    }
+                });
+            }
+
+            @Override
+            public void onTeamsError(String error) {
+                if (isAdded()) {
+                    setFixturesBusy(false, "Error loading teams: " + error);
+                }
+            }
+        });
+    }
+
+    private void confirmSaveFixtures(List<Match> matches) {
+        SimpleDateFormat format = kickoffFormat();
+        String message = matches.size() + " matches from "
+                + format.format(new Date(matches.get(0).getStartTime())) + " to "
+                + format.format(new Date(matches.get(matches.size() - 1).getStartTime())) + ".";
+        setFixturesBusy(false, message);
+        new AlertDialog.Builder(requireContext())
+                .setTitle("Save Fixtures?")
+                .setMessage(message + " They are added alongside any fixtures already saved.")
+                .setPositiveButton("Save", (dialog, which) -> saveFixtures(matches))
+                .setNegativeButton("Cancel", null)
+                .show();
+    }
+
+    private void saveFixtures(List<Match> matches) {
+        setFixturesBusy(true, "Saving 0/" + matches.size() + "...");
+        MatchRepository.getInstance().saveMatches(matches, new MatchRepository.SaveListener() {
+            @Override
+            public void onProgress(int saved, int total) {
+                if (isAdded()) {
+                    fixturesStatusText.setText("Saving " + saved + "/" + total + "...");
+                }
+            }
+
+            @Override
+            public void onSaved(int total) {
+                if (isAdded()) {
+                    setFixturesBusy(false, total + " matches saved");
+                }
+            }
+
+            @Override
+            public void onSaveError(String error, int saved) {
+                if (isAdded()) {
+                    setFixturesBusy(false, "Saved " + saved + " of " + matches.size() + " matches: " + error);
+                }
+            }
+        });
+    }
+
+    /**
+     * Checks saved matches from the first kickoff on against current rosters,
+     * so transfers that leave a player booked twice show up too.
+     */
+    private void checkConflicts() {
+        Date from;
+        try {
+            from = kickoffFormat().parse(firstKickoffInput.getText().toString().trim());
+        } catch (ParseException e) {
+            firstKickoffInput.setError("Use yyyy-MM-dd HH:mm");
+            return;
+        }
+        setFixturesBusy(true, "Checking fixtures from " + kickoffFormat().format(from) + "...");
+        TeamRepository.getInstance().loadTeams(new TeamRepository.TeamsListener() {
+            @Override
+            public void onTeamsChanged(List<Team> teams) {
+                if (!isAdded()) {
+                    return;
+                }
+                Map<String, List<String>> rosters = new HashMap<>();
+                Map<String, String> playerNames = new HashMap<>();
+                for (Team team : teams) {
+                    List<String> playerIds = new ArrayList<>();
+                    for (Map<String, Object> summary : team.getPlayers().values()) {
+                        String playerId = (String) summary.get(Team.SUMMARY_PLAYER_ID);
+                        playerIds.add(playerId);
+                        playerNames.put(playerId, String.valueOf(summary.get(Team.SUMMARY_NAME)));
+                    }
+                    rosters.put(team.getTeamId(), playerIds);
+                }
+                MatchRepository.getInstance().findConflicts(from.getTime(), rosters, new MatchRepository.ConflictsListener() {
+                    @Override
+                    public void onConflictsFound(int checked, List<MatchScheduler.Conflict> conflicts) {
+                        if (isAdded()) {
+                            showConflicts(checked, conflicts, playerNames);
+                        }
+                    }
+
+                    @Override
+                    public void onConflictsError(String error) {
+                        if (isAdded()) {
+                            setFixturesBusy(false, "Error checking fixtures: " + error);
+                        }
+                    }
+                });
+            }
+
+            @Override
+            public void onTeamsError(String error) {
+                if (isAdded()) {
+                    setFixturesBusy(false, "Error loading teams: " + error);
+                }
+            }
+        });
+    }
+
+    private void showConflicts(int matchCount, List<MatchScheduler.Conflict> conflicts,
+                               Map<String, String> playerNames) {
+        if (conflicts.isEmpty()) {
+            setFixturesBusy(false, matchCount + " matches checked, no double bookings");
+            return;
+        }
+        setFixturesBusy(false, matchCount + " matches checked, " + conflicts.size() + " double bookings");
+        SimpleDateFormat format = kickoffFormat();
+        StringBuilder message = new StringBuilder();
+        for (MatchScheduler.Conflict conflict : conflicts.subList(0, Math.min(conflicts.size(), MAX_CONFLICTS_SHOWN))) {
+            String who;
+            if (MatchScheduler.KIND_PITCH.equals(conflict.kind)) {
+                who = "Pitch " + conflict.id;
+            } else if (MatchScheduler.KIND_TEAM.equals(conflict.kind)) {
+                who = conflict.id.equals(conflict.first.getHomeTeamId())
+                        ? conflict.first.getHomeTeamName() : conflict.first.getAwayTeamName();
+            } else {
+                String name = playerNames.get(conflict.id);
+                who = name != null ? name : "Player " + conflict.id;
+            }
+            message.append(who).append(": ")
+                    .append(fixtureLabel(conflict.first, format)).append(" and ")
+                    .append(fixtureLabel(conflict.second, format)).append("\n\n");
+        }
+        if (conflicts.size() > MAX_CONFLICTS_SHOWN) {
+            message.append("...and ").append(conflicts.size() - MAX_CONFLICTS_SHOWN).append(" more");
+        }
+        new AlertDialog.Builder(requireContext())
+                .setTitle(conflicts.size() + " Double Bookings")
+                .setMessage(message.toString().trim())
+                .setPositiveButton("OK", null)
+                .show();
+    }
+
+    private static String fixtureLabel(Match match, SimpleDateFormat format) {
+        return match.getHomeTeamName() + " v " + match.getAwayTeamName()
+                + " (" + format.format(new Date(match.getStartTime())) + ", " + match.getPitch() + ")";
+    }
+
+    private static List<MatchScheduler.Entrant> toEntrants(List<Team> teams) {
+        List<MatchScheduler.Entrant> entrants = new ArrayList<>();
+        for (Team team : teams) {
+            List<String> playerIds = new ArrayList<>();
+            for (Map<String, Object> summary : team.getPlayers().values()) {
+                playerIds.add((String) summary.get(Team.SUMMARY_PLAYER_ID));
+            }
+            entrants.add(new MatchScheduler.Entrant(team.getTeamId(), team.getName(), playerIds));
+        }
+        return entrants;
+    }
+
+    private static SimpleDateFormat kickoffFormat() {
+        SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd HH:mm", Locale.US);
+        format.setLenient(false);
+        return format;
+    }
+
+    /**
+     * The field as a positive whole number, or 0 with an error shown on it.
+     */
+    private static int parsePositive(EditText input) {
+        try {
+            int value = Integer.parseInt(input.getText().toString().trim());
+            if (value > 0) {
+                return value;
+            }
+        } catch (NumberFormatException e) {
+            // Falls through to the error below
+        }
+        input.setError("Enter a positive number");
+        return 0;
+    }
+
+    private void setFixturesBusy(boolean busy, String status) {
+        generateFixturesButton.setEnabled(!busy);
+        checkConflictsButton.setEnabled(!busy);
+        fixturesStatusText.setVisibility(View.VISIBLE);
+        fixturesStatusText.setText(status);
     }
 
     private void setupHamburgerMenu() {
@@ -0,0 +1,74 @@
+package com.playerlagbe;
+
+/**
+ * A matches/{matchId} document: two teams on a pitch for a time slot. Times
+ * are epoch milliseconds, and the match occupies [startTime, endTime). Team
+ * names are copied in so fixture lists render without reading teams.
+ */
+public class Match {
+
+    public static final String STATUS_SCHEDULED = "scheduled";
+    public static final String STATUS_LIVE = "live";
+    public static final String STATUS_FINISHED = "finished";
+
+    private String matchId;
+    private String homeTeamId;
+    private String homeTeamName;
+    private String awayTeamId;
+    private String awayTeamName;
+    private String pitch;
+    private long startTime;
+    private long endTime;
+    private int round;
+    private String status = STATUS_SCHEDULED;
+    private int homeScore;
+    private int awayScore;
+
+    public Match() {
+        // Default constructor required for Firestore
+    }
+
+    /**
+     * Whether the two matches involve the same team.
+     */
+    public boolean sharesTeamWith(Match other) {
+        return homeTeamId.equals(other.homeTeamId) || homeTeamId.equals(other.awayTeamId)
+                || awayTeamId.equals(other.homeTeamId) || awayTeamId.equals(other.awayTeamId);
+    }
+
+    public String getMatchId() { return matchId; }
+    public void setMatchId(String matchId) { this.matchId = matchId; }
+
+    public String getHomeTeamId() { return homeTeamId; }
+    public void setHomeTeamId(String homeTeamId) { this.homeTeamId = homeTeamId; }
+
+    public String getHomeTeamName() { return homeTeamName; }
+    public void setHomeTeamName(String homeTeamName) { this.homeTeamName = homeTeamName; }
+
+    public String getAwayTeamId() { return awayTeamId; }
+    public void setAwayTeamId(String awayTeamId) { this.awayTeamId = awayTeamId; }
+
+    public String getAwayTeamName() { return awayTeamName; }
+    public void setAwayTeamName(String awayTeamName) { this.awayTeamName = awayTeamName; }
+
+    public String getPitch() { return pitch; }
+    public void setPitch(String pitch) { this.pitch = pitch; }
+
+    public long getStartTime() { return startTime; }
+    public void setStartTime(long startTime) { this.startTime = startTime; }
+
+    public long getEndTime() { return endTime; }
+    public void setEndTime(long endTime) { this.endTime = endTime; }
+
+    public int getRound() { return round; }
+    public void setRound(int round) { this.round = round; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public int getHomeScore() { return homeScore; }
+    public void setHomeScore(int homeScore) { this.homeScore = homeScore; }
+
+    public int getAwayScore() { return awayScore; }
+    public void setAwayScore(int awayScore) { this.awayScore = awayScore; }
+}
@@ -0,0 +1,177 @@
+package com.playerlagbe;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.CollectionReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.QuerySnapshot;
+import com.google.firebase.firestore.WriteBatch;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Fixtures in the matches collection.
+ *
+ * Generating a season and checking it for double bookings can take a while
+ * for a big league, so MatchScheduler runs on a background executor. The
+ * check reads stored matches CONFLICT_PAGE_SIZE at a time. Saving commits a
+ * generated season in WriteBatches of up to ProductBulkImporter.BATCH_LIMIT.
+ * Listeners are called on the main thread.
+ */
+public class MatchRepository {
+
+    private static final String TAG = "MatchRepository";
+    private static final int CONFLICT_PAGE_SIZE = 500;
+
+    private static MatchRepository instance;
+
+    public interface FixturesListener {
+        void onFixturesGenerated(List<Match> matches);
+    }
+
+    public interface ConflictsListener {
+        void onConflictsFound(int checked, List<MatchScheduler.Conflict> conflicts);
+        void onConflictsError(String error);
+    }
+
+    public interface SaveListener {
+        void onProgress(int saved, int total);
+        void onSaved(int total);
+        void onSaveError(String error, int saved);
+    }
+
+    private final CollectionReference matches;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    public static synchronized MatchRepository getInstance() {
+        if (instance == null) {
+            instance = new MatchRepository(FirebaseFirestore.getInstance());
+        }
+        return instance;
+    }
+
+    public MatchRepository(FirebaseFirestore firestore) {
+        this.matches = firestore.collection("matches");
+    }
+
+    public void generateFixtures(MatchScheduler scheduler, List<MatchScheduler.Entrant> entrants,
+                                 FixturesListener listener) {
+        executor.execute(() -> {
+            List<Match> fixtures = scheduler.scheduleRoundRobin(entrants);
+            mainHandler.post(() -> listener.onFixturesGenerated(fixtures));
+        });
+    }
+
+    /**
+     * Reports double bookings among stored matches starting at or after from,
+     * e.g. a season's first kickoff. Matches are read in start order a page
+     * at a time and checked with MatchScheduler.PagedConflictCheck, so
+     * earlier seasons aren't read and only about a page is held at once.
+     *
+     * @param playerIdsByTeam current rosters, so player clashes reflect transfers
+     */
+    public void findConflicts(long from, Map<String, List<String>> playerIdsByTeam, ConflictsListener listener) {
+        executor.execute(() -> {
+            MatchScheduler.PagedConflictCheck check = new MatchScheduler.PagedConflictCheck(playerIdsByTeam);
+            List<MatchScheduler.Conflict> conflicts = new ArrayList<>();
+            try {
+                Query query = matches.whereGreaterThanOrEqualTo("startTime", from)
+                        .orderBy("startTime", Query.Direction.ASCENDING)
+                        .limit(CONFLICT_PAGE_SIZE);
+                DocumentSnapshot last = null;
+                while (true) {
+                    QuerySnapshot page = Tasks.await(last == null ? query.get() : query.startAfter(last).get());
+                    conflicts.addAll(check.add(toMatches(page)));
+                    if (page.size() < CONFLICT_PAGE_SIZE) {
+                        break;
+                    }
+                    last = page.getDocuments().get(page.size() - 1);
+                }
+                int checked = check.checked();
+                mainHandler.post(() -> listener.onConflictsFound(checked, conflicts));
+            } catch (Exception e) {
+                Log.e(TAG, "Error loading matches", e);
+                String message = e.getMessage() != null ? e.getMessage() : e.toString();
+                mainHandler.post(() -> listener.onConflictsError(message));
+            }
+        });
+    }
+
+    /**
+     * Writes new matches, assigning their ids. Batches that committed before a
+     * failure stay written; saved in onSaveError counts them.
+     */
+    public void saveMatches(List<Match> toSave, SaveListener listener) {
+        executor.execute(() -> {
+            int saved = 0;
+            try {
+                for (int start = 0; start < toSave.size(); start += ProductBulkImporter.BATCH_LIMIT) {
+                    int end = Math.min(start + ProductBulkImporter.BATCH_LIMIT, toSave.size());
+                    WriteBatch batch = matches.getFirestore().batch();
+                    for (Match match : toSave.subList(start, end)) {
+                        if (match.getMatchId() == null) {
+                            match.setMatchId(matches.document().getId());
+                        }
+                        batch.set(matches.document(match.getMatchId()), matchData(match));
+                    }
+                    Tasks.await(batch.commit());
+                    saved = end;
+                    int progress = saved;
+                    mainHandler.post(() -> listener.onProgress(progress, toSave.size()));
+                }
+                mainHandler.post(() -> listener.onSaved(toSave.size()));
+            } catch (Exception e) {
+                Log.e(TAG, "Saving matches stopped after " + saved, e);
+                int committed = saved;
+                String message = e.getMessage() != null ? e.getMessage() : e.toString();
+                mainHandler.post(() -> listener.onSaveError(message, committed));
+            }
+        });
+    }
+
+    static List<Match> toMatches(QuerySnapshot snapshots) {
+        List<Match> result = new ArrayList<>();
+        for (DocumentSnapshot doc : snapshots.getDocuments()) {
+            Match match = toMatch(doc);
+            if (match != null) {
+                result.add(match);
+            }
+        }
+        return result;
+    }
+
+    static Match toMatch(DocumentSnapshot doc) {
+        Match match = doc.toObject(Match.class);
+        if (match != null) {
+            match.setMatchId(doc.getId());
+        }
+        return match;
+    }
+
+    private static Map<String, Object> matchData(Match match) {
+        Map<String, Object> data = new HashMap<>();
+        data.put("homeTeamId", match.getHomeTeamId());
+        data.put("homeTeamName", match.getHomeTeamName());
+        data.put("awayTeamId", match.getAwayTeamId());
+        data.put("awayTeamName", match.getAwayTeamName());
+        data.put("pitch", match.getPitch());
+        data.put("startTime", match.getStartTime());
+        data.put("endTime", match.getEndTime());
+        data.put("round", match.getRound());
+        data.put("status", match.getStatus());
+        data.put("homeScore", match.getHomeScore());
+        data.put("awayScore", match.getAwayScore());
+        return data;
+    }
+}
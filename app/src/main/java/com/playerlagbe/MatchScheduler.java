@@ -0,0 +1,380 @@
+package com.playerlagbe;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Builds round-robin fixtures and finds double bookings.
+ *
+ * Time is divided into fixed slots, slotsPerDay a day from firstSlotStart.
+ * scheduleRoundRobin() pairs every team with every other once (the circle
+ * method) and gives each match the earliest slot and pitch where the pitch,
+ * both teams and all their players are free. findConflicts() reports
+ * pitches, teams and players booked into overlapping matches in any list,
+ * e.g. one edited by hand.
+ *
+ * Both keep an IntervalIndex of bookings per pitch, team and player. Each
+ * check is then a lookup among the bookings near that time, not a pass over
+ * every match, so generating and checking a season for hundreds of teams
+ * stays quick. Plain Java so it can be unit tested and benchmarked on the
+ * JVM.
+ */
+public class MatchScheduler {
+
+    public static final long DAY_MILLIS = 24L * 60 * 60 * 1000;
+
+    public static final String KIND_PITCH = "pitch";
+    public static final String KIND_TEAM = "team";
+    public static final String KIND_PLAYER = "player";
+
+    /**
+     * A team taking part, with the ids of its players.
+     */
+    public static class Entrant {
+        public final String teamId;
+        public final String name;
+        public final List<String> playerIds;
+
+        public Entrant(String teamId, String name, List<String> playerIds) {
+            this.teamId = teamId;
+            this.name = name;
+            this.playerIds = playerIds;
+        }
+    }
+
+    /**
+     * One pitch, team or player booked into two overlapping matches.
+     */
+    public static class Conflict {
+        public final String kind;
+        public final String id;
+        public final Match first;
+        public final Match second;
+
+        Conflict(String kind, String id, Match first, Match second) {
+            this.kind = kind;
+            this.id = id;
+            this.first = first;
+            this.second = second;
+        }
+    }
+
+    /**
+     * findConflicts() over matches read a page at a time.
+     *
+     * Pages must come in start order, no match in a page starting before one
+     * in the page before it. Only the matches still running where the previous page
+     * stopped are held and checked again with the next page, so memory stays
+     * at one page plus whatever overlaps its boundary, however many pages
+     * are read.
+     */
+    public static class PagedConflictCheck {
+        private final Map<String, List<String>> playerIdsByTeam;
+        private List<Match> running = new ArrayList<>();
+        private int checked = 0;
+
+        public PagedConflictCheck(Map<String, List<String>> playerIdsByTeam) {
+            this.playerIdsByTeam = playerIdsByTeam;
+        }
+
+        /**
+         * Double bookings involving a match in page, each reported once.
+         */
+        public List<Conflict> add(List<Match> page) {
+            if (page.isEmpty()) {
+                return Collections.emptyList();
+            }
+            // Held matches go first, so with equal start times they are booked before the page
+            List<Match> window = new ArrayList<>(running);
+            window.addAll(page);
+            Set<Match> held = Collections.newSetFromMap(new IdentityHashMap<>());
+            held.addAll(running);
+
+            List<Conflict> conflicts = new ArrayList<>();
+            for (Conflict conflict : findConflicts(window, playerIdsByTeam)) {
+                // A clash between two held matches was reported with their own page
+                if (!held.contains(conflict.second)) {
+                    conflicts.add(conflict);
+                }
+            }
+
+            long nextStart = 0;
+            for (Match match : page) {
+                nextStart = Math.max(nextStart, match.getStartTime());
+            }
+            List<Match> stillRunning = new ArrayList<>();
+            for (Match match : window) {
+                if (match.getEndTime() > nextStart) {
+                    stillRunning.add(match);
+                }
+            }
+            running = stillRunning;
+            checked += page.size();
+            return conflicts;
+        }
+
+        public int checked() {
+            return checked;
+        }
+    }
+
+    /**
+     * An IntervalIndex per pitch, team and shared player.
+     *
+     * A player listed on only one team is busy exactly when that team is, so
+     * the team's index already covers them. Only players listed on more than
+     * one team get an index of their own.
+     */
+    private static class Bookings {
+        private final Map<String, IntervalIndex<Match>> pitches = new HashMap<>();
+        private final Map<String, IntervalIndex<Match>> teams = new HashMap<>();
+        private final Map<String, IntervalIndex<Match>> players = new HashMap<>();
+        private final Set<String> sharedPlayers = new HashSet<>();
+
+        Bookings(Collection<List<String>> rosters) {
+            Set<String> seen = new HashSet<>();
+            for (List<String> roster : rosters) {
+                // A player listed twice on one team doesn't count as shared
+                for (String playerId : new HashSet<>(roster)) {
+                    if (!seen.add(playerId)) {
+                        sharedPlayers.add(playerId);
+                    }
+                }
+            }
+        }
+
+        boolean tracks(String playerId) {
+            return sharedPlayers.contains(playerId);
+        }
+
+        boolean isFree(String kind, String id, long start, long end) {
+            IntervalIndex<Match> index = of(kind).get(id);
+            return index == null || index.isFree(start, end);
+        }
+
+        IntervalIndex<Match> index(String kind, String id) {
+            Map<String, IntervalIndex<Match>> indexes = of(kind);
+            IntervalIndex<Match> index = indexes.get(id);
+            if (index == null) {
+                index = new IntervalIndex<>();
+                indexes.put(id, index);
+            }
+            return index;
+        }
+
+        private Map<String, IntervalIndex<Match>> of(String kind) {
+            return KIND_PITCH.equals(kind) ? pitches : KIND_TEAM.equals(kind) ? teams : players;
+        }
+    }
+
+    private final List<String> pitches;
+    private final long firstSlotStart;
+    private final long slotMillis;
+    private final int slotsPerDay;
+    private final long restMillis;
+
+    /**
+     * @param restMillis least time between the end of a team's match and the
+     *                   start of its next one
+     */
+    public MatchScheduler(List<String> pitches, long firstSlotStart, long slotMillis, int slotsPerDay,
+                          long restMillis) {
+        if (pitches.isEmpty()) {
+            throw new IllegalArgumentException("At least one pitch is required");
+        }
+        if (slotMillis <= 0 || slotsPerDay <= 0 || slotMillis * slotsPerDay > DAY_MILLIS) {
+            throw new IllegalArgumentException("Slots must fit in a day");
+        }
+        this.pitches = new ArrayList<>(pitches);
+        this.firstSlotStart = firstSlotStart;
+        this.slotMillis = slotMillis;
+        this.slotsPerDay = slotsPerDay;
+        this.restMillis = Math.max(0, restMillis);
+    }
+
+    public long slotStart(int slot) {
+        return firstSlotStart + (slot / slotsPerDay) * DAY_MILLIS + (slot % slotsPerDay) * slotMillis;
+    }
+
+    /**
+     * Every pairing of entrants once, in rounds, each placed in the earliest
+     * free slot after both teams' previous matches. With an odd number of
+     * entrants one sits out each round.
+     */
+    public List<Match> scheduleRoundRobin(List<Entrant> entrants) {
+        List<Entrant> rotation = new ArrayList<>(entrants);
+        if (rotation.size() % 2 == 1) {
+            rotation.add(null);
+        }
+        int n = rotation.size();
+        List<Match> matches = new ArrayList<>(n / 2 * Math.max(0, n - 1));
+        List<List<String>> rosters = new ArrayList<>();
+        for (Entrant entrant : entrants) {
+            rosters.add(entrant.playerIds);
+        }
+        Bookings bookings = new Bookings(rosters);
+        Map<Integer, Integer> pitchesUsed = new HashMap<>();
+        // Every slot before this one has all its pitches taken
+        int openSlot = 0;
+        // Slot after each team's latest match, where searching for its next one starts
+        Map<String, Integer> nextSlot = new HashMap<>();
+
+        for (int round = 0; round < n - 1; round++) {
+            for (int i = 0; i < n / 2; i++) {
+                Entrant first = rotation.get(i);
+                Entrant second = rotation.get(n - 1 - i);
+                if (first == null || second == null) {
+                    continue;
+                }
+                // Alternate which side is at home
+                boolean firstAtHome = (round + i) % 2 == 0;
+                int fromSlot = Math.max(openSlot, Math.max(slotHint(nextSlot, first), slotHint(nextSlot, second)));
+                int slot = place(firstAtHome ? first : second, firstAtHome ? second : first,
+                        round + 1, fromSlot, bookings, pitchesUsed, matches);
+                nextSlot.put(first.teamId, slot + 1);
+                nextSlot.put(second.teamId, slot + 1);
+                while (pitchesUsed.containsKey(openSlot) && pitchesUsed.get(openSlot) == pitches.size()) {
+                    pitchesUsed.remove(openSlot);
+                    openSlot++;
+                }
+            }
+            // Circle method: the first entrant stays put, the rest rotate one place
+            rotation.add(1, rotation.remove(n - 1));
+        }
+        return matches;
+    }
+
+    private static int slotHint(Map<String, Integer> nextSlot, Entrant entrant) {
+        Integer slot = nextSlot.get(entrant.teamId);
+        return slot != null ? slot : 0;
+    }
+
+    /**
+     * Books home against away into the first slot from fromSlot that works,
+     * adds the match to matches and returns its slot.
+     */
+    private int place(Entrant home, Entrant away, int round, int fromSlot,
+                      Bookings bookings, Map<Integer, Integer> pitchesUsed, List<Match> matches) {
+        for (int slot = fromSlot; ; slot++) {
+            Integer used = pitchesUsed.get(slot);
+            if (used != null && used == pitches.size()) {
+                continue;
+            }
+            long start = slotStart(slot);
+            long end = start + slotMillis;
+            // Teams and players are held for the rest period too
+            if (!bookings.isFree(KIND_TEAM, home.teamId, start, end + restMillis)
+                    || !bookings.isFree(KIND_TEAM, away.teamId, start, end + restMillis)
+                    || !playersFree(bookings, home, start, end + restMillis)
+                    || !playersFree(bookings, away, start, end + restMillis)) {
+                continue;
+            }
+            // Pitches fill in list order, so start looking after the ones already taken
+            int taken = used != null ? used : 0;
+            String pitch = null;
+            for (int i = 0; i < pitches.size(); i++) {
+                String candidate = pitches.get((taken + i) % pitches.size());
+                if (bookings.isFree(KIND_PITCH, candidate, start, end)) {
+                    pitch = candidate;
+                    break;
+                }
+            }
+            if (pitch == null) {
+                continue;
+            }
+
+            Match match = new Match();
+            match.setHomeTeamId(home.teamId);
+            match.setHomeTeamName(home.name);
+            match.setAwayTeamId(away.teamId);
+            match.setAwayTeamName(away.name);
+            match.setPitch(pitch);
+            match.setStartTime(start);
+            match.setEndTime(end);
+            match.setRound(round);
+
+            bookings.index(KIND_PITCH, pitch).add(start, end, match);
+            for (Entrant entrant : new Entrant[]{home, away}) {
+                bookings.index(KIND_TEAM, entrant.teamId).add(start, end + restMillis, match);
+                for (String playerId : entrant.playerIds) {
+                    if (bookings.tracks(playerId)) {
+                        bookings.index(KIND_PLAYER, playerId).add(start, end + restMillis, match);
+                    }
+                }
+            }
+            pitchesUsed.put(slot, used != null ? used + 1 : 1);
+            matches.add(match);
+            return slot;
+        }
+    }
+
+    /**
+     * Every pair of overlapping matches sharing a pitch, team or player, in
+     * start order. Players are only reported when their two matches don't
+     * already clash through a team, so one double-booked team isn't repeated
+     * for each of its players.
+     *
+     * @param playerIdsByTeam team id to its players' ids; teams missing from
+     *                        it are checked without players
+     */
+    public static List<Conflict> findConflicts(List<Match> matches, Map<String, List<String>> playerIdsByTeam) {
+        List<Match> sorted = new ArrayList<>(matches);
+        Collections.sort(sorted, (a, b) -> Long.compare(a.getStartTime(), b.getStartTime()));
+        Bookings bookings = new Bookings(playerIdsByTeam.values());
+        List<Conflict> conflicts = new ArrayList<>();
+
+        for (Match match : sorted) {
+            long start = match.getStartTime();
+            long end = match.getEndTime();
+            if (end <= start) {
+                continue;
+            }
+            checkAndBook(bookings, conflicts, KIND_PITCH, match.getPitch(), match);
+            checkAndBook(bookings, conflicts, KIND_TEAM, match.getHomeTeamId(), match);
+            checkAndBook(bookings, conflicts, KIND_TEAM, match.getAwayTeamId(), match);
+            for (String teamId : new String[]{match.getHomeTeamId(), match.getAwayTeamId()}) {
+                List<String> playerIds = playerIdsByTeam.get(teamId);
+                if (playerIds == null) {
+                    continue;
+                }
+                for (String playerId : playerIds) {
+                    if (bookings.tracks(playerId)) {
+                        checkAndBook(bookings, conflicts, KIND_PLAYER, playerId, match);
+                    }
+                }
+            }
+        }
+        return conflicts;
+    }
+
+    private static void checkAndBook(Bookings bookings, List<Conflict> conflicts,
+                                     String kind, String id, Match match) {
+        if (id == null) {
+            return;
+        }
+        IntervalIndex<Match> index = bookings.index(kind, id);
+        for (Match other : index.overlapping(match.getStartTime(), match.getEndTime())) {
+            if (KIND_PLAYER.equals(kind) && match.sharesTeamWith(other)) {
+                continue;
+            }
+            conflicts.add(new Conflict(kind, id, other, match));
+        }
+        index.add(match.getStartTime(), match.getEndTime(), match);
+    }
+
+    private static boolean playersFree(Bookings bookings, Entrant entrant, long start, long end) {
+        for (String playerId : entrant.playerIds) {
+            if (bookings.tracks(playerId) && !bookings.isFree(KIND_PLAYER, playerId, start, end)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,145 @@
+package com.playerlagbe;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.CollectionReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.QuerySnapshot;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Radius searches over players and teams by their stored geohash.
+ *
+ * GeoHash.coverRadius() turns the circle into a few geohash ranges. Each one
+ * is an orderBy("geohash") range query, and all of them are sent at once.
+ * When every range has answered, the documents are de-duplicated, measured
+ * and filtered to the radius on a background thread, sorted nearest first,
+ * and handed back on the main thread. The ranges over-read the corners of the
+ * circle's cells, which is the price of needing only the single-field index
+ * Firestore builds by default.
+ */
+public class NearbySearch {
+
+    private static final String TAG = "NearbySearch";
+    public static final String FIELD_GEOHASH = "geohash";
+    public static final double DEFAULT_RADIUS_METERS = 5000;
+
+    private static NearbySearch instance;
+
+    /**
+     * A found document with its distance from the search centre.
+     */
+    public static class Result<T> {
+        public final T item;
+        public final double distanceMeters;
+
+        Result(T item, double distanceMeters) {
+            this.item = item;
+            this.distanceMeters = distanceMeters;
+        }
+    }
+
+    public interface Listener<T> {
+        void onNearbyFound(List<Result<T>> results);
+        void onNearbyError(String error);
+    }
+
+    private interface Converter<T> {
+        T convert(DocumentSnapshot doc);
+    }
+
+    private final CollectionReference players;
+    private final CollectionReference teams;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    public static synchronized NearbySearch getInstance() {
+        if (instance == null) {
+            instance = new NearbySearch(FirebaseFirestore.getInstance());
+        }
+        return instance;
+    }
+
+    public NearbySearch(FirebaseFirestore firestore) {
+        this.players = firestore.collection("players");
+        this.teams = firestore.collection("teams");
+    }
+
+    public void findPlayersNear(double lat, double lng, double radiusMeters, Listener<Player> listener) {
+        findNear(players, lat, lng, radiusMeters, doc -> {
+            Player player = doc.toObject(Player.class);
+            if (player != null) {
+                player.setPlayerId(doc.getId());
+            }
+            return player;
+        }, listener);
+    }
+
+    public void findTeamsNear(double lat, double lng, double radiusMeters, Listener<Team> listener) {
+        findNear(teams, lat, lng, radiusMeters, doc -> {
+            Team team = doc.toObject(Team.class);
+            if (team != null) {
+                team.setTeamId(doc.getId());
+            }
+            return team;
+        }, listener);
+    }
+
+    private <T> void findNear(CollectionReference collection, double lat, double lng, double radiusMeters,
+                              Converter<T> converter, Listener<T> listener) {
+        List<Task<QuerySnapshot>> queries = new ArrayList<>();
+        for (GeoHash.Range range : GeoHash.coverRadius(lat, lng, radiusMeters)) {
+            queries.add(collection.orderBy(FIELD_GEOHASH).startAt(range.start).endBefore(range.end).get());
+        }
+
+        Tasks.whenAllSuccess(queries).addOnSuccessListener(executor, snapshots -> {
+            List<Result<T>> results = new ArrayList<>();
+            Set<String> seen = new HashSet<>();
+            for (Object snapshot : snapshots) {
+                for (DocumentSnapshot doc : ((QuerySnapshot) snapshot).getDocuments()) {
+                    Double docLat = doc.getDouble("lat");
+                    Double docLng = doc.getDouble("lng");
+                    // Ranges don't overlap, but a document can move between reads
+                    if (docLat == null || docLng == null || !seen.add(doc.getId())) {
+                        continue;
+                    }
+                    double distance = GeoHash.distanceMeters(lat, lng, docLat, docLng);
+                    if (distance > radiusMeters) {
+                        continue;
+                    }
+                    T item = converter.convert(doc);
+                    if (item != null) {
+                        results.add(new Result<>(item, distance));
+                    }
+                }
+            }
+            Collections.sort(results, (a, b) -> Double.compare(a.distanceMeters, b.distanceMeters));
+            mainHandler.post(() -> listener.onNearbyFound(results));
+        }).addOnFailureListener(e -> {
+            Log.e(TAG, "Error searching " + collection.getPath() + " nearby", e);
+            listener.onNearbyError(e.getMessage());
+        });
+    }
+
+    /**
+     * Distance for display: metres under 1 km, otherwise kilometres.
+     */
+    public static String formatDistance(double meters) {
+        return meters < 1000
+                ? Math.round(meters) + " m"
+                : String.format(Locale.US, "%.1f km", meters / 1000);
+    }
+}
@@ -0,0 +1,100 @@
+package com.playerlagbe;
+
+import com.google.firebase.Timestamp;
+import com.google.firebase.firestore.IgnoreExtraProperties;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An orders/{orderId} document as written by CheckoutManager. Fields kept for
+ * the rules and counters (prevStatus, statsShard, updatedAt) aren't mapped.
+ */
+@IgnoreExtraProperties
+public class Order {
+
+    public static final String STATUS_PENDING = "pending";
+    public static final String STATUS_PAID = "paid";
+    public static final String STATUS_SHIPPED = "shipped";
+    public static final String STATUS_DELIVERED = "delivered";
+    public static final String STATUS_CANCELLED = "cancelled";
+
+    // Orders an admin still has to act on; the rest are history
+    public static final List<String> OPEN_STATUSES = Arrays.asList(STATUS_PENDING, STATUS_PAID, STATUS_SHIPPED);
+    public static final List<String> CLOSED_STATUSES = Arrays.asList(STATUS_DELIVERED, STATUS_CANCELLED);
+
+    private static final List<String> FULFILMENT_ORDER =
+            Arrays.asList(STATUS_PENDING, STATUS_PAID, STATUS_SHIPPED, STATUS_DELIVERED);
+
+    private String orderId;
+    private String uid;
+    private List<Map<String, Object>> items;
+    private int itemCount;
+    private double total;
+    private String status;
+    private Timestamp createdAt;
+    private String statsDay;
+
+    public Order() {
+        // Default constructor required for Firestore
+    }
+
+    public String getOrderId() { return orderId; }
+    public void setOrderId(String orderId) { this.orderId = orderId; }
+
+    public String getUid() { return uid; }
+    public void setUid(String uid) { this.uid = uid; }
+
+    public List<Map<String, Object>> getItems() { return items; }
+    public void setItems(List<Map<String, Object>> items) { this.items = items; }
+
+    public int getItemCount() { return itemCount; }
+    public void setItemCount(int itemCount) { this.itemCount = itemCount; }
+
+    public double getTotal() { return total; }
+    public void setTotal(double total) { this.total = total; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public Timestamp getCreatedAt() { return createdAt; }
+    public void setCreatedAt(Timestamp createdAt) { this.createdAt = createdAt; }
+
+    // OrderStats day bucket the order's revenue was counted under
+    public String getStatsDay() { return statsDay; }
+    public void setStatsDay(String statsDay) { this.statsDay = statsDay; }
+
+    /**
+     * Copy of this order with a different status.
+     */
+    Order withStatus(String newStatus) {
+        Order copy = new Order();
+        copy.orderId = orderId;
+        copy.uid = uid;
+        copy.items = items;
+        copy.itemCount = itemCount;
+        copy.total = total;
+        copy.status = newStatus;
+        copy.createdAt = createdAt;
+        copy.statsDay = statsDay;
+        return copy;
+    }
+
+    public boolean isOpen() {
+        return OPEN_STATUSES.contains(status);
+    }
+
+    /**
+     * Whether an order may move from one status to another: forward along
+     * pending, paid, shipped, delivered, or to cancelled before shipping.
+     */
+    public static boolean canTransition(String from, String to) {
+        if (STATUS_CANCELLED.equals(to)) {
+            return STATUS_PENDING.equals(from) || STATUS_PAID.equals(from);
+        }
+        int fromIndex = FULFILMENT_ORDER.indexOf(from);
+        int toIndex = FULFILMENT_ORDER.indexOf(to);
+        return fromIndex >= 0 && toIndex > fromIndex;
+    }
+}
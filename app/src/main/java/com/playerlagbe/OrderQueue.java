@@ -0,0 +1,376 @@
+package com.playerlagbe;
+
+import android.util.Log;
+
+import com.google.firebase.firestore.CollectionReference;
+import com.google.firebase.firestore.DocumentChange;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.ListenerRegistration;
+import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.QuerySnapshot;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The admin view of orders: open orders live, closed orders paged on demand.
+ *
+ * Open orders (Order.OPEN_STATUSES) are shown oldest first, the order admins
+ * work through them. Two snapshot listeners keep them live: one on the
+ * OPEN_PAGE_SIZE oldest, which a backlog never pushes out, and one on the
+ * NEWEST_OPEN_SIZE newest, so a new order shows up as soon as it is written
+ * however long the backlog is. Each snapshot is applied as DocumentChanges to
+ * the list already held, so a change costs one document read. Open orders
+ * between the two are read OPEN_PAGE_SIZE at a time by loadMoreOpen(), with
+ * startAfter() on the last one loaded, and are not listened to. History
+ * (delivered and cancelled) is read HISTORY_PAGE_SIZE orders at a time, newest
+ * first, the same way.
+ *
+ * Status changes that have not been written yet can be laid over every list
+ * with applyLocalStatus(), so the screen shows them before the round trip
+ * completes, and taken back per order with resolveLocalStatus(). Must be
+ * used from the main thread.
+ */
+public class OrderQueue {
+
+    private static final String TAG = "OrderQueue";
+    public static final int HISTORY_PAGE_SIZE = 25;
+
+    // Oldest open orders listened to, and the size of each older page after
+    // them, so a backlog can't turn into one huge listen
+    public static final int OPEN_PAGE_SIZE = 100;
+
+    // Newest open orders listened to, so new ones arrive past any backlog
+    public static final int NEWEST_OPEN_SIZE = 20;
+
+    public interface Listener {
+        void onOpenOrdersChanged(List<Order> orders);
+        void onHistoryChanged(List<Order> orders);
+        void onOrdersError(String error);
+    }
+
+    private final CollectionReference orders;
+    private final Listener listener;
+    // Live, oldest first
+    private final List<Order> oldestOpen = new ArrayList<>();
+    // Live, newest first
+    private final List<Order> newestOpen = new ArrayList<>();
+    // Read once by loadMoreOpen(), oldest first
+    private final List<Order> pagedOpen = new ArrayList<>();
+    private final List<Order> history = new ArrayList<>();
+    private ListenerRegistration oldestRegistration;
+    private ListenerRegistration newestRegistration;
+    private boolean awaitingOldest;
+    private boolean awaitingNewest;
+    private DocumentSnapshot lastOldest;
+    private DocumentSnapshot lastPagedOpen;
+    private boolean loadingOpen = false;
+    private boolean openEnded = false;
+    // Bumped by start() so an open page still loading is dropped
+    private int openGeneration = 0;
+    private DocumentSnapshot lastHistory;
+    private boolean loadingHistory = false;
+    private boolean historyEnded = false;
+    // Bumped by resetHistory() so a page still loading is dropped
+    private int historyGeneration = 0;
+
+    // Unwritten status per order id, applied on top of every list when publishing
+    private final Map<String, String> localStatuses = new HashMap<>();
+
+    public OrderQueue(FirebaseFirestore firestore, Listener listener) {
+        this.orders = firestore.collection("orders");
+        this.listener = listener;
+    }
+
+    /**
+     * Attaches the open orders listeners; safe to call when already started.
+     * Older pages are dropped, since they aren't kept live while stopped.
+     */
+    public void start() {
+        if (oldestRegistration != null) {
+            return;
+        }
+        openGeneration++;
+        pagedOpen.clear();
+        lastPagedOpen = null;
+        loadingOpen = false;
+        openEnded = false;
+
+        awaitingOldest = true;
+        oldestRegistration = orders.whereIn("status", Order.OPEN_STATUSES)
+                .orderBy("createdAt", Query.Direction.ASCENDING)
+                .limit(OPEN_PAGE_SIZE)
+                .addSnapshotListener((snapshots, e) -> {
+                    if (e != null) {
+                        Log.e(TAG, "Error listening to oldest open orders", e);
+                        listener.onOrdersError(e.getMessage());
+                        return;
+                    }
+                    if (snapshots == null) {
+                        return;
+                    }
+                    // A fresh listener reports every document as ADDED
+                    apply(oldestOpen, snapshots, awaitingOldest);
+                    awaitingOldest = false;
+                    List<DocumentSnapshot> docs = snapshots.getDocuments();
+                    lastOldest = docs.isEmpty() ? null : docs.get(docs.size() - 1);
+                    publishOpen();
+                });
+
+        awaitingNewest = true;
+        newestRegistration = orders.whereIn("status", Order.OPEN_STATUSES)
+                .orderBy("createdAt", Query.Direction.DESCENDING)
+                .limit(NEWEST_OPEN_SIZE)
+                .addSnapshotListener((snapshots, e) -> {
+                    if (e != null) {
+                        Log.e(TAG, "Error listening to newest open orders", e);
+                        listener.onOrdersError(e.getMessage());
+                        return;
+                    }
+                    if (snapshots == null) {
+                        return;
+                    }
+                    apply(newestOpen, snapshots, awaitingNewest);
+                    awaitingNewest = false;
+                    publishOpen();
+                });
+    }
+
+    public void stop() {
+        if (oldestRegistration != null) {
+            oldestRegistration.remove();
+            oldestRegistration = null;
+        }
+        if (newestRegistration != null) {
+            newestRegistration.remove();
+            newestRegistration = null;
+        }
+    }
+
+    /**
+     * True when open orders older than the newest ones may be left out.
+     */
+    public boolean hasMoreOpen() {
+        return oldestOpen.size() >= OPEN_PAGE_SIZE && !openEnded;
+    }
+
+    /**
+     * Reads the next OPEN_PAGE_SIZE open orders after the oldest ones and any
+     * pages already loaded. The page is read once, not listened to.
+     */
+    public void loadMoreOpen() {
+        if (oldestRegistration == null || awaitingOldest || loadingOpen || !hasMoreOpen()) {
+            return;
+        }
+        DocumentSnapshot after = lastPagedOpen != null ? lastPagedOpen : lastOldest;
+        if (after == null) {
+            return;
+        }
+        loadingOpen = true;
+        int generation = openGeneration;
+
+        orders.whereIn("status", Order.OPEN_STATUSES)
+                .orderBy("createdAt", Query.Direction.ASCENDING)
+                .startAfter(after)
+                .limit(OPEN_PAGE_SIZE)
+                .get().addOnSuccessListener(snapshots -> {
+                    if (generation != openGeneration) {
+                        return;
+                    }
+                    loadingOpen = false;
+                    List<DocumentSnapshot> docs = snapshots.getDocuments();
+                    if (docs.size() < OPEN_PAGE_SIZE) {
+                        openEnded = true;
+                    }
+                    if (!docs.isEmpty()) {
+                        lastPagedOpen = docs.get(docs.size() - 1);
+                    }
+                    for (DocumentSnapshot doc : docs) {
+                        pagedOpen.add(toOrder(doc));
+                    }
+                    publishOpen();
+                }).addOnFailureListener(e -> {
+                    if (generation != openGeneration) {
+                        return;
+                    }
+                    loadingOpen = false;
+                    Log.e(TAG, "Error loading open orders", e);
+                    listener.onOrdersError(e.getMessage());
+                });
+    }
+
+    public boolean hasMoreHistory() {
+        return !historyEnded;
+    }
+
+    public void loadMoreHistory() {
+        if (loadingHistory || historyEnded) {
+            return;
+        }
+        loadingHistory = true;
+        int generation = historyGeneration;
+
+        Query query = orders.whereIn("status", Order.CLOSED_STATUSES)
+                .orderBy("createdAt", Query.Direction.DESCENDING)
+                .limit(HISTORY_PAGE_SIZE);
+        if (lastHistory != null) {
+            query = query.startAfter(lastHistory);
+        }
+        query.get().addOnSuccessListener(snapshots -> {
+            if (generation != historyGeneration) {
+                return;
+            }
+            loadingHistory = false;
+            List<DocumentSnapshot> docs = snapshots.getDocuments();
+            if (docs.size() < HISTORY_PAGE_SIZE) {
+                historyEnded = true;
+            }
+            if (!docs.isEmpty()) {
+                lastHistory = docs.get(docs.size() - 1);
+            }
+            for (DocumentSnapshot doc : docs) {
+                history.add(toOrder(doc));
+            }
+            publishHistory();
+        }).addOnFailureListener(e -> {
+            if (generation != historyGeneration) {
+                return;
+            }
+            loadingHistory = false;
+            Log.e(TAG, "Error loading order history", e);
+            listener.onOrdersError(e.getMessage());
+        });
+    }
+
+    public void applyLocalStatus(List<Order> orders, String status) {
+        for (Order order : orders) {
+            localStatuses.put(order.getOrderId(), status);
+        }
+        publishOpen();
+        publishHistory();
+    }
+
+    /**
+     * Drops the overlay for orders once their status write has settled, which
+     * rolls them back to their stored status if it failed. Orders given a
+     * different status since then stay overlaid. If committed, history and
+     * older open pages (which get no snapshots) keep the new status.
+     */
+    public void resolveLocalStatus(List<Order> orders, String status, boolean committed) {
+        for (Order order : orders) {
+            if (status.equals(localStatuses.get(order.getOrderId()))) {
+                localStatuses.remove(order.getOrderId());
+            }
+            if (committed) {
+                setStatus(history, order.getOrderId(), status);
+                setStatus(pagedOpen, order.getOrderId(), status);
+            }
+        }
+        publishOpen();
+        publishHistory();
+    }
+
+    /**
+     * Forgets loaded history so the next loadMoreHistory() starts from the newest.
+     */
+    public void resetHistory() {
+        historyGeneration++;
+        history.clear();
+        lastHistory = null;
+        loadingHistory = false;
+        historyEnded = false;
+    }
+
+    /**
+     * Publishes open orders oldest first: the oldest listened to, then older
+     * pages, then the newest listened to. An order held twice is shown once,
+     * from a live list where it is in one.
+     */
+    private void publishOpen() {
+        Map<String, Order> merged = new LinkedHashMap<>();
+        for (Order order : oldestOpen) {
+            merged.put(order.getOrderId(), order);
+        }
+        Set<String> newestIds = new HashSet<>();
+        for (Order order : newestOpen) {
+            newestIds.add(order.getOrderId());
+        }
+        for (Order order : pagedOpen) {
+            if (!merged.containsKey(order.getOrderId()) && !newestIds.contains(order.getOrderId())) {
+                merged.put(order.getOrderId(), order);
+            }
+        }
+        for (int i = newestOpen.size() - 1; i >= 0; i--) {
+            Order order = newestOpen.get(i);
+            if (!merged.containsKey(order.getOrderId())) {
+                merged.put(order.getOrderId(), order);
+            }
+        }
+
+        List<Order> visible = new ArrayList<>(merged.size());
+        for (Order order : merged.values()) {
+            Order shown = withLocalStatus(order);
+            // Closing an order takes it off the open list right away
+            if (shown.isOpen()) {
+                visible.add(shown);
+            }
+        }
+        listener.onOpenOrdersChanged(visible);
+    }
+
+    private void publishHistory() {
+        List<Order> visible = new ArrayList<>(history.size());
+        for (Order order : history) {
+            visible.add(withLocalStatus(order));
+        }
+        listener.onHistoryChanged(visible);
+    }
+
+    private static void apply(List<Order> target, QuerySnapshot snapshots, boolean first) {
+        if (first) {
+            target.clear();
+        }
+        for (DocumentChange change : snapshots.getDocumentChanges()) {
+            switch (change.getType()) {
+                case ADDED:
+                    target.add(change.getNewIndex(), toOrder(change.getDocument()));
+                    break;
+                case MODIFIED:
+                    target.remove(change.getOldIndex());
+                    target.add(change.getNewIndex(), toOrder(change.getDocument()));
+                    break;
+                case REMOVED:
+                    target.remove(change.getOldIndex());
+                    break;
+            }
+        }
+    }
+
+    private static void setStatus(List<Order> orders, String orderId, String status) {
+        for (int i = 0; i < orders.size(); i++) {
+            if (orders.get(i).getOrderId().equals(orderId)) {
+                orders.set(i, orders.get(i).withStatus(status));
+            }
+        }
+    }
+
+    private Order withLocalStatus(Order order) {
+        String status = localStatuses.get(order.getOrderId());
+        return status == null || status.equals(order.getStatus()) ? order : order.withStatus(status);
+    }
+
+    static Order toOrder(DocumentSnapshot doc) {
+        Order order = doc.toObject(Order.class);
+        if (order == null) {
+            order = new Order();
+        }
+        order.setOrderId(doc.getId());
+        return order;
+    }
+}
@@ -0,0 +1,299 @@
+package com.playerlagbe;
+
+import android.util.Log;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.CollectionReference;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldValue;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.SetOptions;
+import com.google.firebase.firestore.Transaction;
+import com.google.firebase.firestore.WriteBatch;
+
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TimeZone;
+import java.util.TreeSet;
+
+/**
+ * Running order totals kept in sharded order_stats documents.
+ *
+ * Orders per status live in NUM_SHARDS order_stats/{shard} documents, whose
+ * size is fixed by the number of statuses. Revenue (in cents) per day and
+ * units per product live in NUM_SHARDS order_stats/{yyyy-MM}_{shard}
+ * documents per month, counted under the month of the order's statsDay, so
+ * no document keeps growing as days and products accumulate. Every order
+ * write adds FieldValue.increment()s to one shard of each kind in the same
+ * commit. Increments are blind writes, so the commit doesn't read or contend
+ * on the shards, and spreading them over shards keeps each document well
+ * under Firestore's sustained write rate on busy days. Reading the totals
+ * costs 2 * NUM_SHARDS document reads however many orders exist.
+ */
+public class OrderStats {
+
+    private static final String TAG = "OrderStats";
+    public static final int NUM_SHARDS = 10;
+
+    public static final String FIELD_STATUS_COUNTS = "statusCounts";
+    public static final String FIELD_REVENUE_BY_DAY = "revenueByDay";
+    public static final String FIELD_UNITS_BY_PRODUCT = "unitsByProduct";
+    public static final String FIELD_LAST_ORDER_ID = "lastOrderId";
+
+    // Order field naming the shard number its counts went to, so the rules
+    // can hold a shopper to one shard of each kind
+    public static final String FIELD_STATS_SHARD = "statsShard";
+
+    private static final Random random = new Random();
+
+    private static final List<String> ALL_STATUSES = Arrays.asList(Order.STATUS_PENDING, Order.STATUS_PAID,
+            Order.STATUS_SHIPPED, Order.STATUS_DELIVERED, Order.STATUS_CANCELLED);
+
+    public interface LoadListener {
+        void onStatsLoaded(OrderStats stats);
+        void onStatsError(String error);
+    }
+
+    private final Map<String, Long> statusCounts = new HashMap<>();
+    private final Map<String, Long> revenueCentsByDay = new HashMap<>();
+    private final Map<String, Long> unitsByProduct = new HashMap<>();
+
+    public static CollectionReference shards(FirebaseFirestore firestore) {
+        return firestore.collection("order_stats");
+    }
+
+    /**
+     * Day bucket (UTC, yyyy-MM-dd) an order's revenue is counted under. Stored
+     * on the order so a later cancellation takes it off the same day.
+     */
+    public static String dayKey(Date date) {
+        SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd", Locale.US);
+        format.setTimeZone(TimeZone.getTimeZone("UTC"));
+        return format.format(date);
+    }
+
+    /**
+     * Month (yyyy-MM) whose shards count a day's revenue and units.
+     */
+    public static String periodOf(String day) {
+        return day.substring(0, 7);
+    }
+
+    /**
+     * A shard number to count a new order under, stored on the order as
+     * FIELD_STATS_SHARD.
+     */
+    public static int randomShard() {
+        synchronized (random) {
+            return random.nextInt(NUM_SHARDS);
+        }
+    }
+
+    /**
+     * Counts a newly placed order in status shard {shard} and period shard
+     * {yyyy-MM}_{shard} for its day. Both name the order, which
+     * firestore.rules checks is created in the same commit with that shard.
+     */
+    public static void recordPlaced(Transaction transaction, FirebaseFirestore firestore, String orderId,
+                                    int shard, List<Map<String, Object>> items, long totalCents, String day) {
+        Map<String, Long> statusDeltas = new HashMap<>();
+        statusDeltas.put(Order.STATUS_PENDING, 1L);
+        Map<String, Object> counts = increments(FIELD_STATUS_COUNTS, statusDeltas);
+        counts.put(FIELD_LAST_ORDER_ID, orderId);
+        transaction.set(statusShard(firestore, shard), counts, SetOptions.merge());
+
+        Map<String, Long> revenueDeltas = new HashMap<>();
+        revenueDeltas.put(day, totalCents);
+        Map<String, Long> unitDeltas = new HashMap<>();
+        addUnits(unitDeltas, items, 1);
+        Map<String, Object> totals = increments(FIELD_REVENUE_BY_DAY, revenueDeltas);
+        totals.putAll(increments(FIELD_UNITS_BY_PRODUCT, unitDeltas));
+        totals.put(FIELD_LAST_ORDER_ID, orderId);
+        transaction.set(periodShard(firestore, periodOf(day), shard), totals, SetOptions.merge());
+    }
+
+    /**
+     * Moves orders from their status to newStatus in the counts, as a single
+     * status shard write. The batch must also write each order's status as
+     * prevStatus, so firestore.rules refuses it if any has moved on. Cancelling
+     * takes their revenue and units back out of their months' shards.
+     */
+    public static void recordTransitions(WriteBatch batch, FirebaseFirestore firestore,
+                                         List<Order> orders, String newStatus) {
+        Map<String, Long> statusDeltas = new HashMap<>();
+        for (Order order : orders) {
+            addTo(statusDeltas, order.getStatus(), -1);
+            addTo(statusDeltas, newStatus, 1);
+        }
+        batch.set(statusShard(firestore, randomShard()), increments(FIELD_STATUS_COUNTS, statusDeltas),
+                SetOptions.merge());
+
+        for (String period : periodsOf(orders, newStatus)) {
+            Map<String, Long> revenueDeltas = new HashMap<>();
+            Map<String, Long> unitDeltas = new HashMap<>();
+            for (Order order : orders) {
+                if (period.equals(periodOf(order.getStatsDay()))) {
+                    addTo(revenueDeltas, order.getStatsDay(), -Cart.toCents(order.getTotal()));
+                    addUnits(unitDeltas, order.getItems(), -1);
+                }
+            }
+            Map<String, Object> totals = increments(FIELD_REVENUE_BY_DAY, revenueDeltas);
+            totals.putAll(increments(FIELD_UNITS_BY_PRODUCT, unitDeltas));
+            if (!totals.isEmpty()) {
+                batch.set(periodShard(firestore, period, randomShard()), totals, SetOptions.merge());
+            }
+        }
+    }
+
+    /**
+     * Reads the status shards and this month's period shards once and sums
+     * them.
+     */
+    public static void load(FirebaseFirestore firestore, LoadListener listener) {
+        String period = periodOf(dayKey(new Date()));
+        List<Task<DocumentSnapshot>> reads = new ArrayList<>();
+        for (int shard = 0; shard < NUM_SHARDS; shard++) {
+            reads.add(statusShard(firestore, shard).get());
+        }
+        for (int shard = 0; shard < NUM_SHARDS; shard++) {
+            reads.add(periodShard(firestore, period, shard).get());
+        }
+        Tasks.whenAllSuccess(reads).addOnSuccessListener(shards -> {
+            OrderStats stats = new OrderStats();
+            for (int i = 0; i < shards.size(); i++) {
+                DocumentSnapshot shard = (DocumentSnapshot) shards.get(i);
+                if (i < NUM_SHARDS) {
+                    // Status shards from before the split may still hold old
+                    // revenue and units maps, which are left out
+                    sumInto(stats.statusCounts, shard.get(FIELD_STATUS_COUNTS));
+                } else {
+                    sumInto(stats.revenueCentsByDay, shard.get(FIELD_REVENUE_BY_DAY));
+                    sumInto(stats.unitsByProduct, shard.get(FIELD_UNITS_BY_PRODUCT));
+                }
+            }
+            listener.onStatsLoaded(stats);
+        }).addOnFailureListener(e -> {
+            Log.e(TAG, "Error loading order stats", e);
+            listener.onStatsError(e.getMessage());
+        });
+    }
+
+    public long getOrderCount(String status) {
+        Long count = statusCounts.get(status);
+        return count != null ? count : 0;
+    }
+
+    public long getRevenueCents(String day) {
+        Long cents = revenueCentsByDay.get(day);
+        return cents != null ? cents : 0;
+    }
+
+    public Map<String, Long> getRevenueCentsByDay() {
+        return revenueCentsByDay;
+    }
+
+    public Map<String, Long> getUnitsByProduct() {
+        return unitsByProduct;
+    }
+
+    /**
+     * Order counts by status, then today's and this month's revenue, for
+     * display.
+     */
+    public String formatSummary() {
+        StringBuilder summary = new StringBuilder();
+        for (String status : ALL_STATUSES) {
+            if (summary.length() > 0) {
+                summary.append(" · ");
+            }
+            summary.append(Character.toUpperCase(status.charAt(0))).append(status.substring(1))
+                    .append(' ').append(getOrderCount(status));
+        }
+        long monthCents = 0;
+        for (long cents : revenueCentsByDay.values()) {
+            monthCents += cents;
+        }
+        summary.append(String.format(Locale.US, "\nToday $%.2f · This month $%.2f",
+                Cart.fromCents(getRevenueCents(dayKey(new Date()))), Cart.fromCents(monthCents)));
+        return summary.toString();
+    }
+
+    private static void sumInto(Map<String, Long> totals, Object field) {
+        if (!(field instanceof Map)) {
+            return;
+        }
+        for (Map.Entry<?, ?> entry : ((Map<?, ?>) field).entrySet()) {
+            if (entry.getValue() instanceof Number) {
+                addTo(totals, String.valueOf(entry.getKey()), ((Number) entry.getValue()).longValue());
+            }
+        }
+    }
+
+    private static DocumentReference statusShard(FirebaseFirestore firestore, int shard) {
+        return shards(firestore).document(String.valueOf(shard));
+    }
+
+    private static DocumentReference periodShard(FirebaseFirestore firestore, String period, int shard) {
+        return shards(firestore).document(period + "_" + shard);
+    }
+
+    // Months whose revenue and units change when orders move to newStatus
+    private static Set<String> periodsOf(List<Order> orders, String newStatus) {
+        Set<String> periods = new TreeSet<>();
+        if (Order.STATUS_CANCELLED.equals(newStatus)) {
+            for (Order order : orders) {
+                if (order.getStatsDay() != null) {
+                    periods.add(periodOf(order.getStatsDay()));
+                }
+            }
+        }
+        return periods;
+    }
+
+    private static Map<String, Object> increments(String field, Map<String, Long> deltas) {
+        Map<String, Object> data = new HashMap<>();
+        // An empty map under merge would replace the whole field, so leave it out
+        putIncrements(data, field, deltas);
+        return data;
+    }
+
+    private static void putIncrements(Map<String, Object> data, String field, Map<String, Long> deltas) {
+        Map<String, Object> increments = new HashMap<>();
+        for (Map.Entry<String, Long> delta : deltas.entrySet()) {
+            if (delta.getValue() != 0) {
+                increments.put(delta.getKey(), FieldValue.increment(delta.getValue()));
+            }
+        }
+        if (!increments.isEmpty()) {
+            data.put(field, increments);
+        }
+    }
+
+    private static void addUnits(Map<String, Long> unitDeltas, List<Map<String, Object>> items, int sign) {
+        if (items == null) {
+            return;
+        }
+        for (Map<String, Object> item : items) {
+            Object productId = item.get("productId");
+            Object quantity = item.get("quantity");
+            if (productId instanceof String && quantity instanceof Number) {
+                addTo(unitDeltas, (String) productId, sign * ((Number) quantity).longValue());
+            }
+        }
+    }
+
+    private static void addTo(Map<String, Long> totals, String key, long delta) {
+        Long total = totals.get(key);
+        totals.put(key, (total != null ? total : 0) + delta);
+    }
+}
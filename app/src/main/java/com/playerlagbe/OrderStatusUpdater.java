@@ -0,0 +1,106 @@
+package com.playerlagbe;
+
+import android.util.Log;
+
+import com.google.firebase.firestore.CollectionReference;
+import com.google.firebase.firestore.FieldValue;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.WriteBatch;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Moves many orders to a new status in a few WriteBatch commits.
+ *
+ * Orders are written in chunks filling a batch up to BATCH_LIMIT, all chunks
+ * in flight at once, so marking a day's orders as shipped costs a handful of
+ * round trips rather than one per order. Each chunk also carries its
+ * OrderStats shard updates with the chunk's summed counter changes, worked
+ * out from the statuses the caller last saw. Every order write names that
+ * status as prevStatus, and firestore.rules rejects it unless it is still
+ * the stored one, so a chunk built from a stale list fails as a whole,
+ * counters included. Each chunk is reported separately, so callers can roll
+ * back exactly the orders whose write did not land.
+ */
+public class OrderStatusUpdater {
+
+    private static final String TAG = "OrderStatusUpdater";
+    public static final int BATCH_LIMIT = ProductBulkImporter.BATCH_LIMIT;
+
+    public static final String FIELD_PREV_STATUS = "prevStatus";
+
+    public interface Listener {
+        void onStatusCommitted(List<Order> orders, String status);
+        void onStatusFailed(List<Order> orders, String status, String error);
+    }
+
+    private final CollectionReference orders;
+
+    public OrderStatusUpdater(FirebaseFirestore firestore) {
+        this.orders = firestore.collection("orders");
+    }
+
+    /**
+     * Writes status to every order that may transition to it and returns the
+     * ones that were skipped because they may not. A chunk holding an order
+     * whose status has moved on since it was listed is reported through
+     * onStatusFailed.
+     */
+    public List<Order> update(List<Order> selected, String status, Listener listener) {
+        List<Order> allowed = new ArrayList<>();
+        List<Order> skipped = new ArrayList<>();
+        for (Order order : selected) {
+            if (Order.canTransition(order.getStatus(), status)) {
+                allowed.add(order);
+            } else {
+                skipped.add(order);
+            }
+        }
+
+        // Each batch leaves room for its counter updates: one status shard,
+        // plus a month shard per month its cancelled orders are counted under
+        List<Order> chunk = new ArrayList<>();
+        Set<String> periods = new HashSet<>();
+        for (Order order : allowed) {
+            String period = Order.STATUS_CANCELLED.equals(status) && order.getStatsDay() != null
+                    ? OrderStats.periodOf(order.getStatsDay()) : null;
+            int periodWrites = periods.size() + (period != null && !periods.contains(period) ? 1 : 0);
+            if (chunk.size() + 1 + 1 + periodWrites > BATCH_LIMIT) {
+                commit(chunk, status, listener);
+                chunk = new ArrayList<>();
+                periods = new HashSet<>();
+            }
+            chunk.add(order);
+            if (period != null) {
+                periods.add(period);
+            }
+        }
+        if (!chunk.isEmpty()) {
+            commit(chunk, status, listener);
+        }
+        return skipped;
+    }
+
+    private void commit(List<Order> chunk, String status, Listener listener) {
+        WriteBatch batch = orders.getFirestore().batch();
+        for (Order order : chunk) {
+            Map<String, Object> fields = new HashMap<>();
+            fields.put("status", status);
+            fields.put(FIELD_PREV_STATUS, order.getStatus());
+            fields.put("updatedAt", FieldValue.serverTimestamp());
+            batch.update(orders.document(order.getOrderId()), fields);
+        }
+        OrderStats.recordTransitions(batch, orders.getFirestore(), chunk, status);
+        batch.commit()
+                .addOnSuccessListener(aVoid -> listener.onStatusCommitted(chunk, status))
+                .addOnFailureListener(e -> {
+                    Log.e(TAG, "Failed to mark " + chunk.size() + " orders " + status, e);
+                    listener.onStatusFailed(chunk, status, e.getMessage());
+                });
+    }
+}
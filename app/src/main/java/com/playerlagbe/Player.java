@@ -0,0 +1,72 @@
+package com.playerlagbe;
+
+import com.google.firebase.Timestamp;
+import com.google.firebase.firestore.IgnoreExtraProperties;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A players/{playerId} document: the full profile, read only when a player
+ * is opened. Lists render from the Team.players summaries instead. The
+ * stored nameLower, areaLower and geohash search fields are not mapped.
+ * lat and lng are null for players without a location.
+ */
+@IgnoreExtraProperties
+public class Player {
+
+    public static final List<String> POSITIONS = Arrays.asList("Goalkeeper", "Defender", "Midfielder", "Forward");
+    public static final int MIN_SKILL = 1;
+    public static final int MAX_SKILL = 10;
+
+    private String playerId;
+    private String name;
+    private String position;
+    private int skillRating;
+    private String area;
+    private boolean available;
+    private String contact;
+    private String teamId;
+    private Double lat;
+    private Double lng;
+    private Timestamp createdAt;
+
+    public Player() {
+        // Default constructor required for Firestore
+    }
+
+    public String getPlayerId() { return playerId; }
+    public void setPlayerId(String playerId) { this.playerId = playerId; }
+
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+
+    public String getPosition() { return position; }
+    public void setPosition(String position) { this.position = position; }
+
+    public int getSkillRating() { return skillRating; }
+    public void setSkillRating(int skillRating) { this.skillRating = skillRating; }
+
+    public String getArea() { return area; }
+    public void setArea(String area) { this.area = area; }
+
+    public boolean isAvailable() { return available; }
+    public void setAvailable(boolean available) { this.available = available; }
+
+    public String getContact() { return contact; }
+    public void setContact(String contact) { this.contact = contact; }
+
+    public String getTeamId() { return teamId; }
+    public void setTeamId(String teamId) { this.teamId = teamId; }
+
+    public Double getLat() { return lat; }
+    public void setLat(Double lat) { this.lat = lat; }
+
+    public Double getLng() { return lng; }
+    public void setLng(Double lng) { this.lng = lng; }
+
+    public boolean hasLocation() { return lat != null && lng != null; }
+
+    public Timestamp getCreatedAt() { return createdAt; }
+    public void setCreatedAt(Timestamp createdAt) { this.createdAt = createdAt; }
+}
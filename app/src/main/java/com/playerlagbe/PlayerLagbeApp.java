@@ -0,0 +1,18 @@
+package com.playerlagbe;
+
+import android.app.Application;
+
+import com.google.firebase.firestore.FirebaseFirestore;
+
+/**
+ * Application entry point; applies Firestore settings before any screen
+ * touches the database.
+ */
+public class PlayerLagbeApp extends Application {
+
+    @Override
+    public void onCreate() {
+        super.onCreate();
+        ShopCatalogRepository.configureCache(FirebaseFirestore.getInstance());
+    }
+}
@@ -0,0 +1,94 @@
+package com.playerlagbe;
+
+import com.google.firebase.firestore.CollectionReference;
+import com.google.firebase.firestore.Query;
+
+import java.util.Locale;
+
+/**
+ * Marketplace search options for players, turned into a Firestore query.
+ *
+ * Position, area and availability are equality filters. A name prefix is a
+ * range on the lowercase nameLower field and sorts by name; otherwise
+ * results sort by skill, best first, and a minimum skill is a range on
+ * skillRating. Firestore serves each equality filter with either sort from
+ * the composite indexes in firestore.indexes.json, merging them when several
+ * are combined. When a name prefix and a minimum skill are both given, the
+ * skill check runs on the returned page instead, since the two ranges would
+ * need different sort fields.
+ */
+public class PlayerQuery {
+
+    public static final int LIMIT = 30;
+
+    private String namePrefix;
+    private String position;
+    private Integer minSkill;
+    private String area;
+    private boolean availableOnly;
+
+    public String getNamePrefix() { return namePrefix; }
+    public void setNamePrefix(String namePrefix) { this.namePrefix = emptyToNull(normalize(namePrefix)); }
+
+    public String getPosition() { return position; }
+    public void setPosition(String position) { this.position = emptyToNull(position); }
+
+    public Integer getMinSkill() { return minSkill; }
+    public void setMinSkill(Integer minSkill) { this.minSkill = minSkill; }
+
+    public String getArea() { return area; }
+    public void setArea(String area) { this.area = emptyToNull(normalize(area)); }
+
+    public boolean isAvailableOnly() { return availableOnly; }
+    public void setAvailableOnly(boolean availableOnly) { this.availableOnly = availableOnly; }
+
+    /**
+     * The form names and areas are stored in for prefix and equality matching.
+     */
+    public static String normalize(String text) {
+        return text == null ? null : text.trim().toLowerCase(Locale.ROOT).replaceAll("\\s+", " ");
+    }
+
+    public Query apply(CollectionReference players) {
+        Query query = players;
+        if (availableOnly) {
+            query = query.whereEqualTo("available", true);
+        }
+        if (position != null) {
+            query = query.whereEqualTo("position", position);
+        }
+        if (area != null) {
+            query = query.whereEqualTo("areaLower", area);
+        }
+
+        if (namePrefix != null) {
+            query = query.whereGreaterThanOrEqualTo("nameLower", namePrefix)
+                    .whereLessThan("nameLower", namePrefix + '\uf8ff')
+                    .orderBy("nameLower", Query.Direction.ASCENDING);
+        } else {
+            if (minSkill != null) {
+                query = query.whereGreaterThanOrEqualTo("skillRating", minSkill);
+            }
+            query = query.orderBy("skillRating", Query.Direction.DESCENDING);
+        }
+        return query.limit(LIMIT);
+    }
+
+    /**
+     * Checks the filters the query could not apply on the server.
+     */
+    public boolean matches(Player player) {
+        return minSkill == null || player.getSkillRating() >= minSkill;
+    }
+
+    /**
+     * Identifies the query in the result cache; equal keys read the same documents.
+     */
+    public String cacheKey() {
+        return namePrefix + '|' + position + '|' + minSkill + '|' + area + '|' + availableOnly;
+    }
+
+    private static String emptyToNull(String value) {
+        return value == null || value.isEmpty() ? null : value;
+    }
+}
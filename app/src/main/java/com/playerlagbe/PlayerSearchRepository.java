@@ -0,0 +1,98 @@
+package com.playerlagbe;
+
+import android.util.Log;
+
+import com.google.firebase.firestore.CollectionReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FirebaseFirestore;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Player marketplace search.
+ *
+ * Each PlayerQuery runs as one indexed Firestore query, and its result is
+ * kept in a SearchResultCache for CACHE_TTL_MS. Going back to filters
+ * browsed a moment ago is answered from memory without any reads, and a
+ * search already in flight is shared rather than issued twice. Roster
+ * writes from TeamRepository clear the cache. Must be used from the main
+ * thread.
+ */
+public class PlayerSearchRepository {
+
+    private static final String TAG = "PlayerSearchRepository";
+    private static final int CACHE_ENTRIES = 32;
+    private static final long CACHE_TTL_MS = 60_000;
+
+    private static PlayerSearchRepository instance;
+
+    public interface SearchListener {
+        void onPlayersFound(PlayerQuery query, List<Player> players);
+        void onSearchError(String error);
+    }
+
+    private final CollectionReference players;
+    private final SearchResultCache<List<Player>> cache = new SearchResultCache<>(CACHE_ENTRIES, CACHE_TTL_MS);
+    private final Map<String, List<SearchListener>> inFlight = new HashMap<>();
+
+    public static synchronized PlayerSearchRepository getInstance() {
+        if (instance == null) {
+            instance = new PlayerSearchRepository(FirebaseFirestore.getInstance());
+        }
+        return instance;
+    }
+
+    public PlayerSearchRepository(FirebaseFirestore firestore) {
+        this.players = firestore.collection("players");
+    }
+
+    public void search(PlayerQuery query, SearchListener listener) {
+        String key = query.cacheKey();
+        List<Player> cached = cache.get(key);
+        if (cached != null) {
+            listener.onPlayersFound(query, cached);
+            return;
+        }
+        List<SearchListener> waiting = inFlight.get(key);
+        if (waiting != null) {
+            waiting.add(listener);
+            return;
+        }
+        waiting = new ArrayList<>();
+        waiting.add(listener);
+        inFlight.put(key, waiting);
+
+        query.apply(players).get().addOnSuccessListener(snapshots -> {
+            List<Player> result = new ArrayList<>();
+            for (DocumentSnapshot doc : snapshots.getDocuments()) {
+                Player player = doc.toObject(Player.class);
+                if (player != null && query.matches(player)) {
+                    player.setPlayerId(doc.getId());
+                    result.add(player);
+                }
+            }
+            // Cache only what the server returned, not a cache-only fallback
+            if (!snapshots.getMetadata().isFromCache()) {
+                cache.put(key, result);
+            }
+            for (SearchListener waiter : inFlight.remove(key)) {
+                waiter.onPlayersFound(query, result);
+            }
+        }).addOnFailureListener(e -> {
+            Log.e(TAG, "Player search failed", e);
+            for (SearchListener waiter : inFlight.remove(key)) {
+                waiter.onSearchError(e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Drops cached results, e.g. after players were added or edited.
+     */
+    public void invalidate() {
+        cache.clear();
+    }
+}
@@ -0,0 +1,143 @@
+package com.playerlagbe;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.JsonWriter;
+import android.util.Log;
+
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.QuerySnapshot;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Writes the shop collection to a CSV or JSON file that ProductBulkImporter
+ * can read back. Products are read a page at a time with a createdAt cursor
+ * and written as they arrive, so the whole catalog is never held in memory.
+ */
+public class ProductBulkExporter {
+
+    private static final String TAG = "ProductBulkExporter";
+    private static final int PAGE_SIZE = 500;
+
+    public interface Listener {
+        void onProgress(int exported);
+        void onComplete(int exported);
+        void onFailure(String error, int exported);
+    }
+
+    private interface RecordWriter {
+        void write(DocumentSnapshot document) throws IOException;
+        void finish() throws IOException;
+    }
+
+    private final FirebaseFirestore firestore;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    public ProductBulkExporter(FirebaseFirestore firestore) {
+        this.firestore = firestore;
+    }
+
+    public void exportProducts(OutputStream out, ProductBulkImporter.Format format, Listener listener) {
+        executor.execute(() -> {
+            int exported = 0;
+            try (Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8))) {
+                RecordWriter records = format == ProductBulkImporter.Format.CSV
+                        ? csvWriter(writer) : jsonWriter(writer);
+                Query query = firestore.collection("shop")
+                        .orderBy("createdAt", Query.Direction.ASCENDING)
+                        .limit(PAGE_SIZE);
+                DocumentSnapshot last = null;
+                while (true) {
+                    Query page = last == null ? query : query.startAfter(last);
+                    QuerySnapshot snapshot = Tasks.await(page.get());
+                    for (DocumentSnapshot document : snapshot.getDocuments()) {
+                        records.write(document);
+                    }
+                    exported += snapshot.size();
+                    int progress = exported;
+                    mainHandler.post(() -> listener.onProgress(progress));
+                    if (snapshot.size() < PAGE_SIZE) {
+                        break;
+                    }
+                    last = snapshot.getDocuments().get(snapshot.size() - 1);
+                }
+                records.finish();
+                int total = exported;
+                mainHandler.post(() -> listener.onComplete(total));
+            } catch (Exception e) {
+                Log.e(TAG, "Export failed after " + exported + " products", e);
+                int total = exported;
+                String message = e.getMessage() != null ? e.getMessage() : e.toString();
+                mainHandler.post(() -> listener.onFailure(message, total));
+            }
+        });
+    }
+
+    private static String text(DocumentSnapshot document, String field) {
+        Object value = document.get(field);
+        return value == null ? "" : String.valueOf(value);
+    }
+
+    private static RecordWriter csvWriter(Writer writer) throws IOException {
+        List<String> header = new ArrayList<>();
+        for (String column : ProductCsv.COLUMNS) {
+            header.add(column);
+        }
+        writer.write(ProductCsv.formatRecord(header));
+        writer.write('\n');
+        return new RecordWriter() {
+            @Override
+            public void write(DocumentSnapshot document) throws IOException {
+                List<String> record = new ArrayList<>();
+                for (String column : ProductCsv.COLUMNS) {
+                    record.add(text(document, column));
+                }
+                writer.write(ProductCsv.formatRecord(record));
+                writer.write('\n');
+            }
+
+            @Override
+            public void finish() {
+            }
+        };
+    }
+
+    private static RecordWriter jsonWriter(Writer writer) throws IOException {
+        JsonWriter json = new JsonWriter(writer);
+        json.setIndent("  ");
+        json.beginArray();
+        return new RecordWriter() {
+            @Override
+            public void write(DocumentSnapshot document) throws IOException {
+                json.beginObject();
+                json.name("name").value(text(document, "name"));
+                json.name("imageLink").value(text(document, "imageLink"));
+                json.name("details").value(text(document, "details"));
+                Double price = document.getDouble("price");
+                json.name("price").value(price != null ? price : 0);
+                json.name("featured").value(Boolean.TRUE.equals(document.getBoolean("featured")));
+                json.endObject();
+            }
+
+            @Override
+            public void finish() throws IOException {
+                json.endArray();
+                json.flush();
+            }
+        };
+    }
+}
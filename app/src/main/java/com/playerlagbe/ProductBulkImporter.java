@@ -0,0 +1,212 @@
+package com.playerlagbe;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.JsonReader;
+import android.util.JsonToken;
+import android.util.Log;
+
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.CollectionReference;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.WriteBatch;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Streams products from a CSV or JSON file into the shop collection.
+ *
+ * Rows are validated with the same rules as the add form and committed in
+ * WriteBatches of up to BATCH_LIMIT writes (products plus their price list
+ * shard updates), one batch at a time. A batch
+ * is atomic, so when one fails nothing from it was written and the import
+ * can be restarted from the first row of that batch.
+ *
+ * CSV needs a header row naming the ProductCsv.COLUMNS it provides; JSON is
+ * a top-level array of objects with the same keys.
+ */
+public class ProductBulkImporter {
+
+    private static final String TAG = "ProductBulkImporter";
+
+    // Firestore's limit on writes per batch
+    public static final int BATCH_LIMIT = 500;
+
+    public enum Format { CSV, JSON }
+
+    public interface Listener {
+        void onProgress(int committed, int rejected);
+        void onComplete(int committed, List<String> rejectedRows);
+
+        /**
+         * Nothing from row resumeFromRow onwards was written; pass it back to
+         * importProducts() to continue.
+         */
+        void onFailure(String error, int resumeFromRow, int committed);
+    }
+
+    private interface RowReader extends Closeable {
+        Map<String, String> next() throws IOException;
+    }
+
+    private final CollectionReference shop;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    public ProductBulkImporter(FirebaseFirestore firestore) {
+        this.shop = firestore.collection("shop");
+    }
+
+    /**
+     * @param startRow zero-based data row to start from; earlier rows are skipped
+     */
+    public void importProducts(InputStream in, Format format, int startRow, Listener listener) {
+        executor.execute(() -> {
+            int row = 0;
+            int batchStartRow = startRow;
+            int committed = 0;
+            List<String> rejected = new ArrayList<>();
+            WriteBatch batch = shop.getFirestore().batch();
+            Map<String, Double> prices = new HashMap<>();
+            int batchSize = 0;
+
+            try (RowReader reader = format == Format.CSV ? csvReader(in) : jsonReader(in)) {
+                Map<String, String> fields;
+                while ((fields = reader.next()) != null) {
+                    int current = row++;
+                    if (current < startRow) {
+                        continue;
+                    }
+
+                    String name = value(fields, "name");
+                    String details = value(fields, "details");
+                    String price = value(fields, "price");
+                    String error = ProductFields.firstError(name, details, price);
+                    if (error != null) {
+                        // Row numbers are one-based for the admin reading them
+                        rejected.add("Row " + (current + 1) + ": " + error);
+                        continue;
+                    }
+
+                    if (batchSize == 0) {
+                        batchStartRow = current;
+                    }
+                    DocumentReference productRef = shop.document();
+                    batch.set(productRef, ProductFields.newProductData(name, value(fields, "imageLink"),
+                            details, Double.parseDouble(price), Boolean.parseBoolean(value(fields, "featured"))));
+                    prices.put(productRef.getId(), Double.parseDouble(price));
+                    batchSize++;
+
+                    if (batchSize == BATCH_LIMIT - ShopPriceList.MAX_WRITES) {
+                        ShopPriceList.put(batch, shop.getFirestore(), prices);
+                        Tasks.await(batch.commit());
+                        committed += batchSize;
+                        postProgress(listener, committed, rejected.size());
+                        batch = shop.getFirestore().batch();
+                        prices = new HashMap<>();
+                        batchSize = 0;
+                    }
+                }
+
+                if (batchSize > 0) {
+                    ShopPriceList.put(batch, shop.getFirestore(), prices);
+                    Tasks.await(batch.commit());
+                    committed += batchSize;
+                }
+                int total = committed;
+                mainHandler.post(() -> listener.onComplete(total, rejected));
+            } catch (Exception e) {
+                Log.e(TAG, "Import stopped at row " + batchStartRow, e);
+                int resumeFrom = batchSize > 0 ? batchStartRow : row;
+                int total = committed;
+                String message = e.getMessage() != null ? e.getMessage() : e.toString();
+                mainHandler.post(() -> listener.onFailure(message, resumeFrom, total));
+            }
+        });
+    }
+
+    private void postProgress(Listener listener, int committed, int rejected) {
+        mainHandler.post(() -> listener.onProgress(committed, rejected));
+    }
+
+    private static String value(Map<String, String> fields, String column) {
+        String value = fields.get(column);
+        return value == null ? "" : value.trim();
+    }
+
+    private static RowReader csvReader(InputStream in) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        List<String> header = ProductCsv.readRecord(reader);
+        if (header == null) {
+            throw new IOException("File is empty");
+        }
+        return new RowReader() {
+            @Override
+            public Map<String, String> next() throws IOException {
+                List<String> record;
+                do {
+                    record = ProductCsv.readRecord(reader);
+                } while (record != null && record.size() == 1 && record.get(0).isEmpty());
+                if (record == null) {
+                    return null;
+                }
+                Map<String, String> fields = new HashMap<>();
+                for (int i = 0; i < header.size() && i < record.size(); i++) {
+                    fields.put(header.get(i).trim(), record.get(i));
+                }
+                return fields;
+            }
+
+            @Override
+            public void close() throws IOException {
+                reader.close();
+            }
+        };
+    }
+
+    private static RowReader jsonReader(InputStream in) throws IOException {
+        JsonReader reader = new JsonReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        reader.beginArray();
+        return new RowReader() {
+            @Override
+            public Map<String, String> next() throws IOException {
+                if (!reader.hasNext()) {
+                    reader.endArray();
+                    return null;
+                }
+                Map<String, String> fields = new HashMap<>();
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    String key = reader.nextName();
+                    JsonToken token = reader.peek();
+                    if (token == JsonToken.BOOLEAN) {
+                        fields.put(key, String.valueOf(reader.nextBoolean()));
+                    } else if (token == JsonToken.STRING || token == JsonToken.NUMBER) {
+                        fields.put(key, reader.nextString());
+                    } else {
+                        reader.skipValue();
+                    }
+                }
+                reader.endObject();
+                return fields;
+            }
+
+            @Override
+            public void close() throws IOException {
+                reader.close();
+            }
+        };
+    }
+}
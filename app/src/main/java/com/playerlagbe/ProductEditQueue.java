@@ -0,0 +1,103 @@
+package com.playerlagbe;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import com.google.firebase.firestore.CollectionReference;
+import com.google.firebase.firestore.FieldValue;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.WriteBatch;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Coalesces product edits into batched partial updates.
+ *
+ * Each edit carries only the fields that changed. Edits arriving within
+ * DEBOUNCE_MS of each other are merged per product (later values win) and
+ * written together in WriteBatches, so repricing a run of products costs a
+ * few commits instead of one full-document update each. Must be called from
+ * the main thread.
+ */
+public class ProductEditQueue {
+
+    private static final String TAG = "ProductEditQueue";
+    private static final long DEBOUNCE_MS = 750;
+
+    public interface Listener {
+        /**
+         * @param edits product id to the fields that were written
+         */
+        void onEditsCommitted(Map<String, Map<String, Object>> edits);
+        void onEditsFailed(Map<String, Map<String, Object>> edits, String error);
+    }
+
+    private final CollectionReference shop;
+    private final Listener listener;
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final Map<String, Map<String, Object>> pending = new LinkedHashMap<>();
+    private final Runnable flushRunnable = this::flush;
+
+    public ProductEditQueue(FirebaseFirestore firestore, Listener listener) {
+        this.shop = firestore.collection("shop");
+        this.listener = listener;
+    }
+
+    public void enqueue(String productId, Map<String, Object> changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        Map<String, Object> fields = pending.get(productId);
+        if (fields == null) {
+            fields = new HashMap<>();
+            pending.put(productId, fields);
+        }
+        fields.putAll(changes);
+
+        handler.removeCallbacks(flushRunnable);
+        handler.postDelayed(flushRunnable, DEBOUNCE_MS);
+    }
+
+    /**
+     * Writes everything pending now, e.g. when the screen is closing.
+     */
+    public void flush() {
+        handler.removeCallbacks(flushRunnable);
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        // Slots are left in each batch for the price list shard writes
+        int perBatch = ProductBulkImporter.BATCH_LIMIT - ShopPriceList.MAX_WRITES;
+        List<String> productIds = new ArrayList<>(pending.keySet());
+        for (int start = 0; start < productIds.size(); start += perBatch) {
+            int end = Math.min(start + perBatch, productIds.size());
+            Map<String, Map<String, Object>> chunk = new LinkedHashMap<>();
+            Map<String, Double> prices = new HashMap<>();
+            WriteBatch batch = shop.getFirestore().batch();
+            for (String productId : productIds.subList(start, end)) {
+                Map<String, Object> fields = pending.get(productId);
+                chunk.put(productId, fields);
+                Map<String, Object> update = new HashMap<>(fields);
+                update.put(ProductFields.FIELD_UPDATED_AT, FieldValue.serverTimestamp());
+                batch.update(shop.document(productId), update);
+                if (fields.get("price") instanceof Number) {
+                    prices.put(productId, ((Number) fields.get("price")).doubleValue());
+                }
+            }
+            ShopPriceList.put(batch, shop.getFirestore(), prices);
+            batch.commit()
+                    .addOnSuccessListener(aVoid -> listener.onEditsCommitted(chunk))
+                    .addOnFailureListener(e -> {
+                        Log.e(TAG, "Failed to write " + chunk.size() + " product edits", e);
+                        listener.onEditsFailed(chunk, e.getMessage());
+                    });
+        }
+        pending.clear();
+    }
+}
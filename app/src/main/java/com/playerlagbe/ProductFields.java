@@ -0,0 +1,111 @@
+package com.playerlagbe;
+
+import com.google.firebase.Timestamp;
+import com.google.firebase.firestore.FieldValue;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Validation and document shape for shop products, shared by the add form,
+ * the edit dialog and bulk import so all of them accept exactly the same rows.
+ */
+public final class ProductFields {
+
+    // Set on every write, so ProductSearchRepository can follow changes by it
+    public static final String FIELD_UPDATED_AT = "updatedAt";
+
+    private ProductFields() {
+    }
+
+    public static String nameError(String name) {
+        return name.isEmpty() ? "Product name is required" : null;
+    }
+
+    public static String detailsError(String details) {
+        return details.isEmpty() ? "Product details are required" : null;
+    }
+
+    public static String priceError(String price) {
+        if (price.isEmpty()) {
+            return "Price is required";
+        }
+        try {
+            Double.parseDouble(price);
+            return null;
+        } catch (NumberFormatException e) {
+            return "Invalid price format";
+        }
+    }
+
+    /**
+     * First validation error for the row, or null if it can be saved.
+     */
+    public static String firstError(String name, String details, String price) {
+        String error = nameError(name);
+        if (error == null) error = detailsError(details);
+        if (error == null) error = priceError(price);
+        return error;
+    }
+
+    public static Map<String, Object> newProductData(String name, String imageLink, String details,
+                                                     double price, boolean featured) {
+        Map<String, Object> productData = new HashMap<>();
+        productData.put("name", name);
+        if (imageLink != null && !imageLink.isEmpty()) {
+            productData.put("imageLink", imageLink);
+        }
+        productData.put("details", details);
+        productData.put("price", price);
+        productData.put("featured", featured);
+        productData.put("createdAt", Timestamp.now());
+        productData.put(FIELD_UPDATED_AT, FieldValue.serverTimestamp());
+        return productData;
+    }
+
+    /**
+     * Fields of the edited values that differ from product. An empty
+     * imageLink clears the stored one. Writers add FIELD_UPDATED_AT.
+     */
+    public static Map<String, Object> changedFields(ManageShopActivity.Product product, String name,
+                                                    String imageLink, String details, double price,
+                                                    boolean featured) {
+        Map<String, Object> changes = new HashMap<>();
+        if (!name.equals(product.getName())) {
+            changes.put("name", name);
+        }
+        String link = imageLink.isEmpty() ? null : imageLink;
+        String currentLink = product.getImageLink() == null || product.getImageLink().isEmpty()
+                ? null : product.getImageLink();
+        if (!Objects.equals(link, currentLink)) {
+            changes.put("imageLink", link);
+        }
+        if (!details.equals(product.getDetails())) {
+            changes.put("details", details);
+        }
+        if (Double.compare(price, product.getPrice()) != 0) {
+            changes.put("price", price);
+        }
+        if (featured != product.isFeatured()) {
+            changes.put("featured", featured);
+        }
+        return changes;
+    }
+
+    /**
+     * Copy of product with changes (as built by changedFields) applied.
+     */
+    public static ManageShopActivity.Product withChanges(ManageShopActivity.Product product,
+                                                         Map<String, Object> changes) {
+        ManageShopActivity.Product copy = new ManageShopActivity.Product();
+        copy.setProductId(product.getProductId());
+        copy.setName(changes.containsKey("name") ? (String) changes.get("name") : product.getName());
+        copy.setImageLink(changes.containsKey("imageLink") ? (String) changes.get("imageLink") : product.getImageLink());
+        copy.setDetails(changes.containsKey("details") ? (String) changes.get("details") : product.getDetails());
+        copy.setPrice(changes.containsKey("price") ? ((Number) changes.get("price")).doubleValue() : product.getPrice());
+        copy.setFeatured(changes.containsKey("featured") ? (Boolean) changes.get("featured") : product.isFeatured());
+        copy.setCreatedAt(product.getCreatedAt());
+        return copy;
+    }
+}
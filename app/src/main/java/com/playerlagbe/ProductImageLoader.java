@@ -0,0 +1,274 @@
+package com.playerlagbe;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.DisplayMetrics;
+import android.util.Log;
+import android.util.LruCache;
+import android.widget.ImageView;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Loads product images for the shop grid.
+ *
+ * Downloads are kept encoded in a bounded on-disk cache and decoded with
+ * inSampleSize close to the target ImageView size, so a full-size remote
+ * image never lands on the heap. Decoded bitmaps go into an in-memory LRU
+ * sized to a few screens of pixels. Each ImageView has at most one request
+ * in flight; binding it again or calling cancel() drops the previous one.
+ * Must be called from the main thread.
+ */
+public class ProductImageLoader {
+
+    private static final String TAG = "ProductImageLoader";
+    private static final String DISK_CACHE_DIR = "product_images";
+    private static final long DISK_CACHE_BYTES = 50L * 1024 * 1024;
+    private static final int THREADS = 3;
+    private static final int TIMEOUT_MS = 15_000;
+
+    // Screens' worth of decoded pixels kept in memory: the visible one plus
+    // room for the prefetched rows and a screen scrolled back
+    private static final int MEMORY_CACHE_SCREENS = 3;
+
+    private static ProductImageLoader instance;
+
+    private final LruCache<String, Bitmap> memoryCache;
+    private final File diskCacheDir;
+    private final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final Map<ImageView, Request> inFlight = new WeakHashMap<>();
+
+    private static class Request {
+        final String key;
+        Future<?> future;
+
+        Request(String key) {
+            this.key = key;
+        }
+    }
+
+    public static synchronized ProductImageLoader getInstance(Context context) {
+        if (instance == null) {
+            instance = new ProductImageLoader(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    private ProductImageLoader(Context context) {
+        DisplayMetrics metrics = context.getResources().getDisplayMetrics();
+        long viewportBytes = (long) metrics.widthPixels * metrics.heightPixels * 4 * MEMORY_CACHE_SCREENS;
+        long heapBudget = Runtime.getRuntime().maxMemory() / 8;
+        int maxBytes = (int) Math.min(viewportBytes, heapBudget);
+        memoryCache = new LruCache<String, Bitmap>(maxBytes) {
+            @Override
+            protected int sizeOf(String key, Bitmap bitmap) {
+                return bitmap.getByteCount();
+            }
+        };
+        diskCacheDir = new File(context.getCacheDir(), DISK_CACHE_DIR);
+    }
+
+    /**
+     * Shows the image at url in view, decoded to roughly targetWidth x targetHeight.
+     */
+    public void load(String url, ImageView view, int targetWidth, int targetHeight) {
+        String key = cacheKey(url, targetWidth, targetHeight);
+        Request current = inFlight.get(view);
+        if (current != null && current.key.equals(key)) {
+            return;
+        }
+        cancel(view);
+
+        Bitmap cached = memoryCache.get(key);
+        if (cached != null) {
+            view.setImageBitmap(cached);
+            return;
+        }
+
+        view.setImageDrawable(null);
+        Request request = new Request(key);
+        inFlight.put(view, request);
+        request.future = executor.submit(() -> {
+            Bitmap bitmap = fetch(url, key, targetWidth, targetHeight);
+            mainHandler.post(() -> {
+                // The view may have been rebound while this was decoding
+                if (inFlight.get(view) != request) {
+                    return;
+                }
+                inFlight.remove(view);
+                if (bitmap != null) {
+                    view.setImageBitmap(bitmap);
+                }
+            });
+        });
+    }
+
+    /**
+     * Warms the disk and memory caches for images about to scroll into view.
+     */
+    public void prefetch(String url, int targetWidth, int targetHeight) {
+        String key = cacheKey(url, targetWidth, targetHeight);
+        if (memoryCache.get(key) != null) {
+            return;
+        }
+        executor.submit(() -> fetch(url, key, targetWidth, targetHeight));
+    }
+
+    /**
+     * Drops the view's pending request and its bitmap, e.g. when it is recycled.
+     */
+    public void cancel(ImageView view) {
+        Request request = inFlight.remove(view);
+        if (request != null && request.future != null) {
+            request.future.cancel(true);
+        }
+        view.setImageDrawable(null);
+    }
+
+    private Bitmap fetch(String url, String key, int targetWidth, int targetHeight) {
+        Bitmap cached = memoryCache.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        try {
+            File file = new File(diskCacheDir, hash(url));
+            if (!file.exists()) {
+                download(url, file);
+                trimDiskCache();
+            } else {
+                // Mark as recently used for trimming
+                file.setLastModified(System.currentTimeMillis());
+            }
+            if (Thread.currentThread().isInterrupted()) {
+                return null;
+            }
+            Bitmap bitmap = decodeSampled(file, targetWidth, targetHeight);
+            if (bitmap != null) {
+                memoryCache.put(key, bitmap);
+            }
+            return bitmap;
+        } catch (IOException e) {
+            Log.w(TAG, "Failed to load image " + url, e);
+            return null;
+        }
+    }
+
+    private void download(String url, File file) throws IOException {
+        if (!diskCacheDir.exists() && !diskCacheDir.mkdirs()) {
+            throw new IOException("Cannot create " + diskCacheDir);
+        }
+        HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+        connection.setConnectTimeout(TIMEOUT_MS);
+        connection.setReadTimeout(TIMEOUT_MS);
+        // Per-thread temp name, since a prefetch and a bind may race on one URL
+        File partial = new File(diskCacheDir, file.getName() + "." + Thread.currentThread().getId() + ".tmp");
+        try (InputStream in = connection.getInputStream();
+             OutputStream out = new FileOutputStream(partial)) {
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new IOException("Cancelled");
+                }
+                out.write(buffer, 0, read);
+            }
+        } catch (IOException e) {
+            partial.delete();
+            throw e;
+        } finally {
+            connection.disconnect();
+        }
+        if (!partial.renameTo(file)) {
+            partial.delete();
+            throw new IOException("Cannot move " + partial + " into the cache");
+        }
+    }
+
+    private synchronized void trimDiskCache() {
+        File[] files = diskCacheDir.listFiles();
+        if (files == null) {
+            return;
+        }
+        long total = 0;
+        for (File file : files) {
+            total += file.length();
+        }
+        if (total <= DISK_CACHE_BYTES) {
+            return;
+        }
+        Arrays.sort(files, new Comparator<File>() {
+            @Override
+            public int compare(File a, File b) {
+                return Long.compare(a.lastModified(), b.lastModified());
+            }
+        });
+        for (File file : files) {
+            if (total <= DISK_CACHE_BYTES) {
+                break;
+            }
+            long length = file.length();
+            if (file.delete()) {
+                total -= length;
+            }
+        }
+    }
+
+    static Bitmap decodeSampled(File file, int targetWidth, int targetHeight) {
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inJustDecodeBounds = true;
+        BitmapFactory.decodeFile(file.getPath(), options);
+        options.inSampleSize = sampleSize(options.outWidth, options.outHeight, targetWidth, targetHeight);
+        options.inJustDecodeBounds = false;
+        return BitmapFactory.decodeFile(file.getPath(), options);
+    }
+
+    /**
+     * Largest power of two that keeps both dimensions at or above the target.
+     */
+    static int sampleSize(int width, int height, int targetWidth, int targetHeight) {
+        int sampleSize = 1;
+        if (targetWidth <= 0 || targetHeight <= 0) {
+            return sampleSize;
+        }
+        while (width / (sampleSize * 2) >= targetWidth && height / (sampleSize * 2) >= targetHeight) {
+            sampleSize *= 2;
+        }
+        return sampleSize;
+    }
+
+    private static String cacheKey(String url, int targetWidth, int targetHeight) {
+        return url + "@" + targetWidth + "x" + targetHeight;
+    }
+
+    private static String hash(String url) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-1").digest(url.getBytes("UTF-8"));
+            StringBuilder hex = new StringBuilder();
+            for (byte b : digest) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException | IOException e) {
+            return Integer.toHexString(url.hashCode());
+        }
+    }
+}
@@ -0,0 +1,416 @@
+package com.playerlagbe;
+
+import android.util.Log;
+
+import com.google.firebase.firestore.DocumentChange;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.ListenerRegistration;
+import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.QuerySnapshot;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Cursor-based pager over an ordered products query.
+ *
+ * Pages are fetched PAGE_SIZE documents at a time using startAfter() on the
+ * last document of the previous page. Only pages inside the visible window
+ * keep a live snapshot listener, bounded by that page's first and last
+ * document, so the listener count stays flat as the catalog grows. Pages
+ * just outside the window keep their last known contents. Pages further than
+ * KEPT_PAGE_MARGIN from the visible ones are evicted: their products are
+ * dropped and published as placeholders, so the grid keeps its positions
+ * and memory stays bounded. An evicted page is read again from its cursors
+ * when it comes back into the live window.
+ *
+ * Each page is served from the local cache first through
+ * ShopCatalogRepository. A page outside the live window is then reconciled
+ * with a server get. A page that will be live skips that get when the cache
+ * holds a full page: its listener's first snapshot reconciles it instead, so
+ * the page isn't read from the server twice.
+ *
+ * Edits that have not been written yet can be laid over the loaded data with
+ * applyLocalEdit(), so the grid shows them before the round trip completes.
+ */
+public class ProductPager {
+
+    private static final String TAG = "ProductPager";
+    public static final int PAGE_SIZE = 20;
+
+    // Pages on either side of the visible ones that stay live
+    private static final int LIVE_PAGE_MARGIN = 1;
+
+    // Pages on either side of the visible ones whose products stay in memory
+    private static final int KEPT_PAGE_MARGIN = 4;
+
+    // Firestore reserves ids of the form __.*__, so no product can collide
+    private static final String PLACEHOLDER_ID_PREFIX = "__placeholder_";
+
+    public interface Listener {
+        void onProductsChanged(List<ManageShopActivity.Product> products);
+        void onProductsError(String error);
+    }
+
+    private static class Page {
+        final List<ManageShopActivity.Product> items = new ArrayList<>();
+        DocumentSnapshot first;
+        DocumentSnapshot last;
+        ListenerRegistration registration;
+        boolean awaitingFirstSnapshot;
+        // Size of the page when it was evicted, 0 while its items are held
+        int placeholders;
+
+        int size() {
+            return items.size() + placeholders;
+        }
+    }
+
+    private final ShopCatalogRepository catalogRepository;
+    private final Query baseQuery;
+    private final Listener listener;
+    private final List<Page> pages = new ArrayList<>();
+    private boolean loading = false;
+    private boolean reachedEnd = false;
+    private int cachedCount = 0;
+    private int firstLivePage = 0;
+    private int lastLivePage = 0;
+
+    // Unwritten field changes per product id, applied on top of page items when publishing
+    private final Map<String, Map<String, Object>> localEdits = new HashMap<>();
+
+    /**
+     * @param baseQuery an ordered query, e.g. shop ordered by createdAt. Documents
+     *                  missing the ordering field are not returned by Firestore.
+     */
+    public ProductPager(ShopCatalogRepository catalogRepository, Query baseQuery, Listener listener) {
+        this.catalogRepository = catalogRepository;
+        this.baseQuery = baseQuery;
+        this.listener = listener;
+    }
+
+    public boolean hasMore() {
+        return !reachedEnd;
+    }
+
+    /**
+     * Whether product stands in for one of an evicted page's rows. Placeholders
+     * have only a product id.
+     */
+    public static boolean isPlaceholder(ManageShopActivity.Product product) {
+        String productId = product.getProductId();
+        return productId != null && productId.startsWith(PLACEHOLDER_ID_PREFIX);
+    }
+
+    public void loadNextPage() {
+        if (loading || reachedEnd) {
+            return;
+        }
+        loading = true;
+
+        Query query = baseQuery.limit(PAGE_SIZE);
+        if (!pages.isEmpty()) {
+            query = query.startAfter(pages.get(pages.size() - 1).last);
+        }
+
+        // Cache first so the page renders immediately, then the server result
+        // unless the page's own listener will bring it
+        int index = pages.size();
+        boolean willListen = index >= firstLivePage && index <= lastLivePage;
+        int enoughCached = willListen ? PAGE_SIZE : Integer.MAX_VALUE;
+        catalogRepository.fetch(query, enoughCached, new ShopCatalogRepository.FetchListener() {
+            private Page page;
+
+            @Override
+            public void onResult(QuerySnapshot snapshots, boolean fromCache) {
+                List<DocumentSnapshot> docs = snapshots.getDocuments();
+                if (!fromCache) {
+                    // Only the server result decides where the catalog ends
+                    loading = false;
+                    if (docs.size() < PAGE_SIZE) {
+                        reachedEnd = true;
+                    }
+                } else {
+                    cachedCount = docs.size();
+                    if (docs.size() >= enoughCached) {
+                        // No server result follows; the end is found by a later page
+                        loading = false;
+                    }
+                }
+                if (docs.isEmpty()) {
+                    return;
+                }
+
+                if (page == null) {
+                    page = new Page();
+                    fill(page, docs);
+                    pages.add(page);
+                    int added = pages.size() - 1;
+                    if (added >= firstLivePage && added <= lastLivePage) {
+                        attach(added);
+                    }
+                } else if (page.registration == null) {
+                    // A live page is already reconciled by its own listener
+                    page.items.clear();
+                    page.placeholders = 0;
+                    fill(page, docs);
+                }
+                publish();
+            }
+
+            @Override
+            public void onError(Exception e, boolean servedFromCache) {
+                loading = false;
+                if (servedFromCache) {
+                    // Offline: keep paging through whatever the cache holds
+                    if (cachedCount < PAGE_SIZE) {
+                        reachedEnd = true;
+                    }
+                    return;
+                }
+                Log.e(TAG, "Error loading products page", e);
+                listener.onProductsError(e.getMessage());
+            }
+        });
+    }
+
+    private void fill(Page page, List<DocumentSnapshot> docs) {
+        page.first = docs.get(0);
+        page.last = docs.get(docs.size() - 1);
+        for (DocumentSnapshot doc : docs) {
+            ManageShopActivity.Product product = toProduct(doc);
+            if (product != null) {
+                page.items.add(product);
+            }
+        }
+    }
+
+    /**
+     * Called from the grid's scroll listener with the adapter positions on screen.
+     * Moves the live window and prefetches the next page when the end is near.
+     */
+    public void onVisibleRangeChanged(int firstVisible, int lastVisible, int prefetchDistance) {
+        int firstVisiblePage = pageOf(firstVisible);
+        int lastVisiblePage = pageOf(lastVisible);
+        int first = Math.max(0, firstVisiblePage - LIVE_PAGE_MARGIN);
+        int last = lastVisiblePage + LIVE_PAGE_MARGIN;
+        if (first != firstLivePage || last != lastLivePage) {
+            firstLivePage = first;
+            lastLivePage = last;
+            boolean evicted = false;
+            for (int i = 0; i < pages.size(); i++) {
+                if (i >= first && i <= last) {
+                    attach(i);
+                } else {
+                    detach(i);
+                    if (i < firstVisiblePage - KEPT_PAGE_MARGIN || i > lastVisiblePage + KEPT_PAGE_MARGIN) {
+                        evicted |= evict(i);
+                    }
+                }
+            }
+            if (evicted) {
+                publish();
+            }
+        }
+
+        if (lastVisible + prefetchDistance >= itemCount()) {
+            loadNextPage();
+        }
+    }
+
+    public void applyLocalEdit(String productId, Map<String, Object> changes) {
+        Map<String, Object> fields = localEdits.get(productId);
+        if (fields == null) {
+            fields = new HashMap<>();
+            localEdits.put(productId, fields);
+        }
+        fields.putAll(changes);
+        publish();
+    }
+
+    /**
+     * Drops the overlay for edits (product id to fields) once their write has
+     * settled. Fields edited again since then stay overlaid. If committed, the
+     * values are also kept in the pages, since pages outside the live window
+     * get no snapshot for them.
+     */
+    public void resolveLocalEdits(Map<String, Map<String, Object>> edits, boolean committed) {
+        for (Map.Entry<String, Map<String, Object>> edit : edits.entrySet()) {
+            String productId = edit.getKey();
+            Map<String, Object> changes = edit.getValue();
+            Map<String, Object> fields = localEdits.get(productId);
+            if (fields != null) {
+                Iterator<Map.Entry<String, Object>> it = fields.entrySet().iterator();
+                while (it.hasNext()) {
+                    Map.Entry<String, Object> field = it.next();
+                    if (changes.containsKey(field.getKey())
+                            && Objects.equals(changes.get(field.getKey()), field.getValue())) {
+                        it.remove();
+                    }
+                }
+                if (fields.isEmpty()) {
+                    localEdits.remove(productId);
+                }
+            }
+
+            if (committed) {
+                for (Page page : pages) {
+                    if (page.registration != null) {
+                        continue;
+                    }
+                    for (int i = 0; i < page.items.size(); i++) {
+                        if (page.items.get(i).getProductId().equals(productId)) {
+                            page.items.set(i, ProductFields.withChanges(page.items.get(i), changes));
+                        }
+                    }
+                }
+            }
+        }
+        publish();
+    }
+
+    public void release() {
+        for (int i = 0; i < pages.size(); i++) {
+            detach(i);
+        }
+    }
+
+    private void attach(int index) {
+        Page page = pages.get(index);
+        if (page.registration != null) {
+            return;
+        }
+
+        // The first page is open-ended at the top so newly added products appear,
+        // and the final page is open-ended at the bottom once the end is reached
+        Query query = baseQuery;
+        if (index > 0) {
+            query = query.startAt(page.first);
+        }
+        if (index < pages.size() - 1 || !reachedEnd) {
+            query = query.endAt(page.last);
+        }
+
+        page.awaitingFirstSnapshot = true;
+        page.registration = query.addSnapshotListener((snapshots, e) -> {
+            if (e != null) {
+                Log.e(TAG, "Error listening to products page " + index, e);
+                listener.onProductsError(e.getMessage());
+                return;
+            }
+            if (snapshots != null) {
+                applyChanges(page, snapshots);
+                publish();
+            }
+        });
+    }
+
+    private boolean evict(int index) {
+        Page page = pages.get(index);
+        if (page.items.isEmpty()) {
+            return false;
+        }
+        page.placeholders = page.items.size();
+        page.items.clear();
+        return true;
+    }
+
+    private void detach(int index) {
+        Page page = pages.get(index);
+        if (page.registration != null) {
+            page.registration.remove();
+            page.registration = null;
+        }
+    }
+
+    private void applyChanges(Page page, QuerySnapshot snapshots) {
+        if (page.awaitingFirstSnapshot) {
+            // A fresh listener reports every document as ADDED
+            page.awaitingFirstSnapshot = false;
+            page.items.clear();
+            page.placeholders = 0;
+        }
+
+        for (DocumentChange change : snapshots.getDocumentChanges()) {
+            switch (change.getType()) {
+                case ADDED: {
+                    ManageShopActivity.Product product = toProduct(change.getDocument());
+                    if (product != null) {
+                        page.items.add(Math.min(change.getNewIndex(), page.items.size()), product);
+                    }
+                    break;
+                }
+                case MODIFIED: {
+                    ManageShopActivity.Product product = toProduct(change.getDocument());
+                    if (product == null) {
+                        break;
+                    }
+                    if (change.getOldIndex() == change.getNewIndex()) {
+                        page.items.set(change.getNewIndex(), product);
+                    } else {
+                        page.items.remove(change.getOldIndex());
+                        page.items.add(change.getNewIndex(), product);
+                    }
+                    break;
+                }
+                case REMOVED:
+                    page.items.remove(change.getOldIndex());
+                    break;
+            }
+        }
+
+        List<DocumentSnapshot> docs = snapshots.getDocuments();
+        if (!docs.isEmpty()) {
+            page.first = docs.get(0);
+            page.last = docs.get(docs.size() - 1);
+        }
+    }
+
+    private void publish() {
+        List<ManageShopActivity.Product> all = new ArrayList<>(itemCount());
+        for (int i = 0; i < pages.size(); i++) {
+            Page page = pages.get(i);
+            for (int j = 0; j < page.placeholders; j++) {
+                ManageShopActivity.Product placeholder = new ManageShopActivity.Product();
+                placeholder.setProductId(PLACEHOLDER_ID_PREFIX + i + "_" + j + "__");
+                all.add(placeholder);
+            }
+            for (ManageShopActivity.Product product : page.items) {
+                Map<String, Object> fields = localEdits.get(product.getProductId());
+                all.add(fields == null ? product : ProductFields.withChanges(product, fields));
+            }
+        }
+        listener.onProductsChanged(all);
+    }
+
+    private int itemCount() {
+        int count = 0;
+        for (Page page : pages) {
+            count += page.size();
+        }
+        return count;
+    }
+
+    private int pageOf(int position) {
+        int remaining = position;
+        for (int i = 0; i < pages.size(); i++) {
+            remaining -= pages.get(i).size();
+            if (remaining < 0) {
+                return i;
+            }
+        }
+        return Math.max(0, pages.size() - 1);
+    }
+
+    private static ManageShopActivity.Product toProduct(DocumentSnapshot doc) {
+        ManageShopActivity.Product product = doc.toObject(ManageShopActivity.Product.class);
+        if (product != null) {
+            product.setProductId(doc.getId());
+        }
+        return product;
+    }
+}
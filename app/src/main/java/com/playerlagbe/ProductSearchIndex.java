@@ -0,0 +1,398 @@
+package com.playerlagbe;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Inverted index over product names and details for search-as-you-type.
+ *
+ * Text is lowercased and split into letter/digit tokens. Terms live in a
+ * sorted map, so every query token is matched as a prefix with one range
+ * lookup, and a product matches when all query tokens do. Products are
+ * numbered internally so matches are combined as bit sets, and only the top
+ * results are ordered: name matches first, then alphabetically by name.
+ * Each product also keeps the fields a result row shows (see Entry), so
+ * results render without reading the products again.
+ *
+ * Plain Java with no Android dependencies, so it can be benchmarked on the
+ * JVM. Not thread-safe; callers synchronize.
+ */
+public class ProductSearchIndex {
+
+    private static final int FORMAT_VERSION = 2;
+
+    /**
+     * An indexed product's searchable text and display fields.
+     */
+    public static class Entry {
+        public final String productId;
+        public final String name;
+        public final String details;
+        public final String imageLink;
+        public final double price;
+        public final boolean featured;
+
+        public Entry(String productId, String name, String details, String imageLink, double price,
+                     boolean featured) {
+            this.productId = productId;
+            this.name = name != null ? name : "";
+            this.details = details != null ? details : "";
+            this.imageLink = imageLink != null ? imageLink : "";
+            this.price = price;
+            this.featured = featured;
+        }
+
+        boolean sameAs(Entry other) {
+            return name.equals(other.name) && details.equals(other.details)
+                    && imageLink.equals(other.imageLink) && Double.compare(price, other.price) == 0
+                    && featured == other.featured;
+        }
+
+        boolean sameText(Entry other) {
+            return name.equals(other.name) && details.equals(other.details);
+        }
+    }
+
+    private static class Doc {
+        final String productId;
+        final int ordinal;
+        final Entry entry;
+        final String sortKey;
+        final Set<String> nameTerms;
+        final Set<String> terms;
+
+        Doc(int ordinal, Entry entry, Doc sameText) {
+            this.productId = entry.productId;
+            this.ordinal = ordinal;
+            this.entry = entry;
+            if (sameText != null) {
+                // Only display fields changed, so the terms can be shared
+                this.sortKey = sameText.sortKey;
+                this.nameTerms = sameText.nameTerms;
+                this.terms = sameText.terms;
+                return;
+            }
+            String name = entry.name;
+            String details = entry.details;
+            this.sortKey = name.toLowerCase(Locale.ROOT);
+            this.nameTerms = new HashSet<>(tokenize(name));
+            this.terms = new HashSet<>(nameTerms);
+            this.terms.addAll(tokenize(details));
+        }
+    }
+
+    // Growable list of doc ordinals for one term
+    private static class Postings {
+        int[] ordinals = new int[2];
+        int size;
+
+        void add(int ordinal) {
+            if (size == ordinals.length) {
+                ordinals = Arrays.copyOf(ordinals, size * 2);
+            }
+            ordinals[size++] = ordinal;
+        }
+
+        void remove(int ordinal) {
+            for (int i = 0; i < size; i++) {
+                if (ordinals[i] == ordinal) {
+                    ordinals[i] = ordinals[--size];
+                    return;
+                }
+            }
+        }
+    }
+
+    private static final Comparator<Doc> BY_NAME = new Comparator<Doc>() {
+        @Override
+        public int compare(Doc a, Doc b) {
+            int byName = a.sortKey.compareTo(b.sortKey);
+            return byName != 0 ? byName : a.productId.compareTo(b.productId);
+        }
+    };
+
+    private final Map<String, Doc> docs = new HashMap<>();
+    private final List<Doc> byOrdinal = new ArrayList<>();
+    private final List<Integer> freeOrdinals = new ArrayList<>();
+    private final TreeMap<String, Postings> postings = new TreeMap<>();
+    private final TreeMap<String, Postings> namePostings = new TreeMap<>();
+
+    public int size() {
+        return docs.size();
+    }
+
+    /**
+     * Adds or replaces a product with only its text, e.g. in tests.
+     */
+    public boolean put(String productId, String name, String details) {
+        return put(new Entry(productId, name, details, null, 0, false));
+    }
+
+    /**
+     * Adds or replaces a product. Returns false if it was already indexed
+     * with the same fields, in which case nothing changes. Only products
+     * whose name or details changed are re-tokenized.
+     */
+    public boolean put(Entry entry) {
+        Doc old = docs.get(entry.productId);
+        if (old != null && old.entry.sameAs(entry)) {
+            return false;
+        }
+        if (old != null && old.entry.sameText(entry)) {
+            Doc doc = new Doc(old.ordinal, entry, old);
+            docs.put(entry.productId, doc);
+            byOrdinal.set(old.ordinal, doc);
+            return true;
+        }
+
+        int ordinal;
+        if (old != null) {
+            unlink(old);
+            ordinal = old.ordinal;
+        } else if (!freeOrdinals.isEmpty()) {
+            ordinal = freeOrdinals.remove(freeOrdinals.size() - 1);
+        } else {
+            ordinal = byOrdinal.size();
+            byOrdinal.add(null);
+        }
+
+        Doc doc = new Doc(ordinal, entry, null);
+        docs.put(entry.productId, doc);
+        byOrdinal.set(ordinal, doc);
+        link(postings, doc.terms, ordinal);
+        link(namePostings, doc.nameTerms, ordinal);
+        return true;
+    }
+
+    /**
+     * The indexed fields of productId, or null.
+     */
+    public Entry get(String productId) {
+        Doc doc = docs.get(productId);
+        return doc != null ? doc.entry : null;
+    }
+
+    public boolean remove(String productId) {
+        Doc doc = docs.remove(productId);
+        if (doc == null) {
+            return false;
+        }
+        unlink(doc);
+        byOrdinal.set(doc.ordinal, null);
+        freeOrdinals.add(doc.ordinal);
+        return true;
+    }
+
+    /**
+     * Removes every product whose id is not in productIds.
+     */
+    public void retainOnly(Set<String> productIds) {
+        for (String id : new ArrayList<>(docs.keySet())) {
+            if (!productIds.contains(id)) {
+                remove(id);
+            }
+        }
+    }
+
+    public void clear() {
+        docs.clear();
+        byOrdinal.clear();
+        freeOrdinals.clear();
+        postings.clear();
+        namePostings.clear();
+    }
+
+    /**
+     * Ids of products matching every token of query as a prefix, name matches
+     * first, then alphabetically by name. At most limit results.
+     */
+    public List<String> search(String query, int limit) {
+        List<String> tokens = tokenize(query);
+        if (tokens.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+
+        BitSet matches = matchAll(postings, tokens);
+        if (matches.isEmpty()) {
+            return Collections.emptyList();
+        }
+        BitSet nameMatches = matchAll(namePostings, tokens);
+        BitSet detailMatches = (BitSet) matches.clone();
+        detailMatches.andNot(nameMatches);
+
+        List<String> results = new ArrayList<>(Math.min(limit, matches.cardinality()));
+        addTop(results, nameMatches, limit);
+        addTop(results, detailMatches, limit);
+        return results;
+    }
+
+    private BitSet matchAll(TreeMap<String, Postings> index, List<String> tokens) {
+        BitSet matches = null;
+        for (String token : tokens) {
+            BitSet tokenMatches = new BitSet(byOrdinal.size());
+            for (Postings term : index.subMap(token, token + Character.MAX_VALUE).values()) {
+                for (int i = 0; i < term.size; i++) {
+                    tokenMatches.set(term.ordinals[i]);
+                }
+            }
+            if (matches == null) {
+                matches = tokenMatches;
+            } else {
+                matches.and(tokenMatches);
+            }
+            if (matches.isEmpty()) {
+                break;
+            }
+        }
+        return matches;
+    }
+
+    private void addTop(List<String> results, BitSet ordinals, int limit) {
+        int wanted = limit - results.size();
+        if (wanted <= 0) {
+            return;
+        }
+        // Keep only the first `wanted` names in a max-heap instead of sorting every match
+        PriorityQueue<Doc> top = new PriorityQueue<>(wanted, Collections.reverseOrder(BY_NAME));
+        for (int ordinal = ordinals.nextSetBit(0); ordinal >= 0; ordinal = ordinals.nextSetBit(ordinal + 1)) {
+            Doc doc = byOrdinal.get(ordinal);
+            if (top.size() < wanted) {
+                top.add(doc);
+            } else if (BY_NAME.compare(doc, top.peek()) < 0) {
+                top.poll();
+                top.add(doc);
+            }
+        }
+        List<Doc> sorted = new ArrayList<>(top);
+        Collections.sort(sorted, BY_NAME);
+        for (Doc doc : sorted) {
+            results.add(doc.productId);
+        }
+    }
+
+    private static void link(TreeMap<String, Postings> index, Set<String> terms, int ordinal) {
+        for (String term : terms) {
+            Postings list = index.get(term);
+            if (list == null) {
+                list = new Postings();
+                index.put(term, list);
+            }
+            list.add(ordinal);
+        }
+    }
+
+    private void unlink(Doc doc) {
+        unlink(postings, doc.terms, doc.ordinal);
+        unlink(namePostings, doc.nameTerms, doc.ordinal);
+    }
+
+    private static void unlink(TreeMap<String, Postings> index, Set<String> terms, int ordinal) {
+        for (String term : terms) {
+            Postings list = index.get(term);
+            if (list != null) {
+                list.remove(ordinal);
+                if (list.size == 0) {
+                    index.remove(term);
+                }
+            }
+        }
+    }
+
+    static List<String> tokenize(String text) {
+        Set<String> tokens = new LinkedHashSet<>();
+        if (text == null) {
+            return new ArrayList<>(tokens);
+        }
+        String lower = text.toLowerCase(Locale.ROOT);
+        int start = -1;
+        for (int i = 0; i <= lower.length(); i++) {
+            boolean wordChar = i < lower.length() && isWordChar(lower.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                tokens.add(lower.substring(start, i));
+                start = -1;
+            }
+        }
+        return new ArrayList<>(tokens);
+    }
+
+    // Vowel signs in Bangla and other Indic scripts are marks, not letters
+    private static boolean isWordChar(char c) {
+        int type = Character.getType(c);
+        return Character.isLetterOrDigit(c)
+                || type == Character.NON_SPACING_MARK
+                || type == Character.COMBINING_SPACING_MARK;
+    }
+
+    /**
+     * Writes the indexed entries. Postings are rebuilt from them on read,
+     * which costs about as much as deserializing them would.
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(FORMAT_VERSION);
+        data.writeInt(docs.size());
+        for (Doc doc : docs.values()) {
+            writeString(data, doc.productId);
+            writeString(data, doc.entry.name);
+            writeString(data, doc.entry.details);
+            writeString(data, doc.entry.imageLink);
+            data.writeDouble(doc.entry.price);
+            data.writeBoolean(doc.entry.featured);
+        }
+        data.flush();
+    }
+
+    /**
+     * Replaces the contents with what writeTo() wrote.
+     */
+    public void readFrom(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(in);
+        if (data.readInt() != FORMAT_VERSION) {
+            throw new IOException("Unknown search index format");
+        }
+        clear();
+        int count = data.readInt();
+        for (int i = 0; i < count; i++) {
+            String id = readString(data);
+            String name = readString(data);
+            String details = readString(data);
+            String imageLink = readString(data);
+            double price = data.readDouble();
+            boolean featured = data.readBoolean();
+            put(new Entry(id, name, details, imageLink, price, featured));
+        }
+    }
+
+    // writeUTF() caps strings at 64 KB, which long details could exceed
+    private static void writeString(DataOutputStream data, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        data.writeInt(bytes.length);
+        data.write(bytes);
+    }
+
+    private static String readString(DataInputStream data) throws IOException {
+        byte[] bytes = new byte[data.readInt()];
+        data.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,323 @@
+package com.playerlagbe;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import com.google.firebase.Timestamp;
+import com.google.firebase.firestore.CollectionReference;
+import com.google.firebase.firestore.DocumentChange;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldPath;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.ListenerRegistration;
+import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.QuerySnapshot;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Keeps a ProductSearchIndex of the shop catalog and answers searches off the
+ * main thread.
+ *
+ * The index is saved to a file a few seconds after it changes, together with
+ * the newest updatedAt it has seen, and loaded back on the next start. From
+ * there one snapshot listener on shop documents with a later updatedAt
+ * applies their DocumentChanges, so products added or edited anywhere are
+ * picked up without reading the rest of the catalog. With no saved index, or
+ * one older than REBUILD_AFTER_MS, it is built by reading the catalog
+ * BUILD_PAGE_SIZE products at a time; the rebuild also drops products
+ * deleted elsewhere, which the listener can't see. The index holds each
+ * product's display fields, so a search is answered with no reads at all.
+ */
+public class ProductSearchRepository {
+
+    private static final String TAG = "ProductSearchRepo";
+    private static final String INDEX_FILE = "product_search.idx";
+    private static final long SAVE_DELAY_MS = 3_000;
+    private static final int BUILD_PAGE_SIZE = 200;
+    // Deletes made on other devices are only dropped by a rebuild
+    private static final long REBUILD_AFTER_MS = 7L * 24 * 60 * 60 * 1000;
+    public static final int MAX_RESULTS = 50;
+
+    private static ProductSearchRepository instance;
+
+    public interface SearchListener {
+        void onResults(String query, List<ManageShopActivity.Product> products);
+    }
+
+    private final File indexFile;
+    private final CollectionReference shop;
+    // Index and watermark are only touched on this thread
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final ProductSearchIndex index = new ProductSearchIndex();
+    private final Runnable saveRunnable = () -> executor.execute(this::save);
+    private ListenerRegistration registration;
+    private int users = 0;
+    private boolean loaded = false;
+    // Newest updatedAt applied to the index; the listener picks up after it
+    private Timestamp indexedUpTo;
+    // When the index was last built from the whole catalog
+    private long indexedAt;
+    // A build is in progress; executor only. A partial index isn't saved, so
+    // an interrupted build starts over next time
+    private boolean building = false;
+
+    public static synchronized ProductSearchRepository getInstance(Context context) {
+        if (instance == null) {
+            instance = new ProductSearchRepository(context.getApplicationContext(), FirebaseFirestore.getInstance());
+        }
+        return instance;
+    }
+
+    private ProductSearchRepository(Context context, FirebaseFirestore firestore) {
+        this.indexFile = new File(context.getFilesDir(), INDEX_FILE);
+        this.shop = firestore.collection("shop");
+    }
+
+    /**
+     * Loads the saved index, or builds one, and starts following changes.
+     * Calls nest; each needs a stop(). Must be called on the main thread.
+     */
+    public void start() {
+        if (users++ > 0) {
+            return;
+        }
+        if (!loaded) {
+            loaded = true;
+            executor.execute(() -> {
+                load();
+                if (indexedUpTo != null && System.currentTimeMillis() - indexedAt < REBUILD_AFTER_MS) {
+                    mainHandler.post(this::listen);
+                    return;
+                }
+                index.clear();
+                building = true;
+                // Changes after the newest product seen now are replayed once the build is done
+                shop.orderBy(ProductFields.FIELD_UPDATED_AT, Query.Direction.DESCENDING).limit(1).get()
+                        .addOnSuccessListener(executor, newest -> {
+                            Timestamp updatedAt = newest.isEmpty() ? null
+                                    : newest.getDocuments().get(0).getTimestamp(ProductFields.FIELD_UPDATED_AT);
+                            indexedUpTo = updatedAt != null ? updatedAt : new Timestamp(0, 0);
+                            buildFrom(null);
+                        })
+                        .addOnFailureListener(executor, e -> {
+                            Log.e(TAG, "Failed to build search index", e);
+                            building = false;
+                        });
+            });
+        } else {
+            listen();
+        }
+    }
+
+    public void stop() {
+        if (users == 0 || --users > 0) {
+            return;
+        }
+        if (registration != null) {
+            registration.remove();
+            registration = null;
+        }
+        // Save now rather than waiting out the delay
+        mainHandler.removeCallbacks(saveRunnable);
+        executor.execute(this::save);
+    }
+
+    /**
+     * Drops a product deleted on this device straight away.
+     */
+    public void remove(String productId) {
+        executor.execute(() -> {
+            if (index.remove(productId)) {
+                scheduleSave();
+            }
+        });
+    }
+
+    public void search(String query, SearchListener listener) {
+        executor.execute(() -> {
+            List<ManageShopActivity.Product> results = new ArrayList<>();
+            for (String id : index.search(query, MAX_RESULTS)) {
+                results.add(toProduct(index.get(id)));
+            }
+            mainHandler.post(() -> listener.onResults(query, results));
+        });
+    }
+
+    /**
+     * Follows products changed after indexedUpTo. Runs on the main thread once
+     * the watermark is known; the changes are applied on the executor.
+     */
+    private void listen() {
+        if (registration != null || users == 0) {
+            return;
+        }
+        executor.execute(() -> {
+            Timestamp after = indexedUpTo;
+            if (after == null || building) {
+                // Still loading or building; that calls listen() when done
+                return;
+            }
+            mainHandler.post(() -> {
+                if (registration != null || users == 0) {
+                    return;
+                }
+                registration = shop.whereGreaterThan(ProductFields.FIELD_UPDATED_AT, after)
+                        .orderBy(ProductFields.FIELD_UPDATED_AT, Query.Direction.ASCENDING)
+                        .addSnapshotListener(executor, (snapshots, e) -> {
+                            if (e != null) {
+                                Log.e(TAG, "Error listening to product changes", e);
+                                return;
+                            }
+                            if (snapshots != null) {
+                                apply(snapshots);
+                            }
+                        });
+            });
+        });
+    }
+
+    private void apply(QuerySnapshot snapshots) {
+        boolean changed = false;
+        for (DocumentChange change : snapshots.getDocumentChanges()) {
+            DocumentSnapshot doc = change.getDocument();
+            if (change.getType() == DocumentChange.Type.REMOVED) {
+                // updatedAt only moves forward, so a product leaving the listen was deleted
+                changed |= index.remove(doc.getId());
+                continue;
+            }
+            ManageShopActivity.Product product = toProduct(doc);
+            if (product == null) {
+                continue;
+            }
+            changed |= index.put(toEntry(product));
+            // A pending write has no server timestamp yet; its own snapshot follows
+            Timestamp updatedAt = doc.getTimestamp(ProductFields.FIELD_UPDATED_AT);
+            if (updatedAt != null && !doc.getMetadata().hasPendingWrites()
+                    && (indexedUpTo == null || updatedAt.compareTo(indexedUpTo) > 0)) {
+                indexedUpTo = updatedAt;
+                changed = true;
+            }
+        }
+        if (changed) {
+            scheduleSave();
+        }
+    }
+
+    /**
+     * Indexes the catalog a page at a time, after the product with id
+     * afterId. Pages are converted and indexed on the executor.
+     */
+    private void buildFrom(String afterId) {
+        Query query = shop.orderBy(FieldPath.documentId()).limit(BUILD_PAGE_SIZE);
+        if (afterId != null) {
+            query = query.startAfter(afterId);
+        }
+        query.get().addOnSuccessListener(executor, snapshots -> {
+            List<DocumentSnapshot> docs = snapshots.getDocuments();
+            for (DocumentSnapshot doc : docs) {
+                ManageShopActivity.Product product = toProduct(doc);
+                if (product != null) {
+                    index.put(toEntry(product));
+                }
+            }
+            if (docs.size() == BUILD_PAGE_SIZE) {
+                buildFrom(docs.get(docs.size() - 1).getId());
+                return;
+            }
+            building = false;
+            indexedAt = System.currentTimeMillis();
+            scheduleSave();
+            mainHandler.post(this::listen);
+        }).addOnFailureListener(executor, e -> {
+            Log.e(TAG, "Failed to build search index", e);
+            building = false;
+            index.clear();
+        });
+    }
+
+    private void scheduleSave() {
+        mainHandler.removeCallbacks(saveRunnable);
+        mainHandler.postDelayed(saveRunnable, SAVE_DELAY_MS);
+    }
+
+    private static ProductSearchIndex.Entry toEntry(ManageShopActivity.Product product) {
+        return new ProductSearchIndex.Entry(product.getProductId(), product.getName(), product.getDetails(),
+                product.getImageLink(), product.getPrice(), product.isFeatured());
+    }
+
+    private static ManageShopActivity.Product toProduct(ProductSearchIndex.Entry entry) {
+        ManageShopActivity.Product product = new ManageShopActivity.Product();
+        product.setProductId(entry.productId);
+        product.setName(entry.name);
+        product.setDetails(entry.details);
+        product.setImageLink(entry.imageLink.isEmpty() ? null : entry.imageLink);
+        product.setPrice(entry.price);
+        product.setFeatured(entry.featured);
+        return product;
+    }
+
+    private static ManageShopActivity.Product toProduct(DocumentSnapshot doc) {
+        ManageShopActivity.Product product = doc.toObject(ManageShopActivity.Product.class);
+        if (product != null) {
+            product.setProductId(doc.getId());
+        }
+        return product;
+    }
+
+    /**
+     * Reads the saved index with its watermark. Leaves indexedUpTo null if
+     * there is none or it can't be read.
+     */
+    private void load() {
+        if (!indexFile.exists()) {
+            return;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(indexFile)))) {
+            // Runs before anything else touches the index, since all of it uses the executor
+            long indexedAt = in.readLong();
+            Timestamp indexedUpTo = new Timestamp(in.readLong(), in.readInt());
+            index.readFrom(in);
+            this.indexedAt = indexedAt;
+            this.indexedUpTo = indexedUpTo;
+        } catch (IOException e) {
+            Log.w(TAG, "Discarding unreadable search index", e);
+            index.clear();
+        }
+    }
+
+    private void save() {
+        if (building || indexedUpTo == null) {
+            return;
+        }
+        File partial = new File(indexFile.getPath() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(partial)))) {
+            out.writeLong(indexedAt);
+            out.writeLong(indexedUpTo.getSeconds());
+            out.writeInt(indexedUpTo.getNanoseconds());
+            index.writeTo(out);
+        } catch (IOException e) {
+            Log.w(TAG, "Failed to save search index", e);
+            partial.delete();
+            return;
+        }
+        if (!partial.renameTo(indexFile)) {
+            Log.w(TAG, "Failed to replace search index file");
+            partial.delete();
+        }
+    }
+}
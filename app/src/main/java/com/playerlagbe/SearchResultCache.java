@@ -0,0 +1,86 @@
+package com.playerlagbe;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Recent query results kept in memory: at most maxEntries, least recently
+ * used evicted first, and each entry only served for ttlMillis after it was
+ * stored. Lets repeated browsing of the same filters skip Firestore reads
+ * while keeping results reasonably fresh. Not thread-safe.
+ */
+public class SearchResultCache<V> {
+
+    public interface Clock {
+        long now();
+    }
+
+    private static class Entry<V> {
+        final V value;
+        final long storedAt;
+
+        Entry(V value, long storedAt) {
+            this.value = value;
+            this.storedAt = storedAt;
+        }
+    }
+
+    private final long ttlMillis;
+    private final Clock clock;
+    private final LinkedHashMap<String, Entry<V>> entries;
+
+    public SearchResultCache(int maxEntries, long ttlMillis) {
+        this(maxEntries, ttlMillis, System::currentTimeMillis);
+    }
+
+    SearchResultCache(int maxEntries, long ttlMillis, Clock clock) {
+        this.ttlMillis = ttlMillis;
+        this.clock = clock;
+        // Access order, so iteration starts at the least recently used entry
+        this.entries = new LinkedHashMap<String, Entry<V>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry<V>> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * The stored value, or null if there is none or it has expired.
+     */
+    public V get(String key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (clock.now() - entry.storedAt >= ttlMillis) {
+            entries.remove(key);
+            return null;
+        }
+        return entry.value;
+    }
+
+    public void put(String key, V value) {
+        entries.put(key, new Entry<>(value, clock.now()));
+        pruneExpired();
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private void pruneExpired() {
+        long now = clock.now();
+        Iterator<Entry<V>> it = entries.values().iterator();
+        while (it.hasNext()) {
+            if (now - it.next().storedAt >= ttlMillis) {
+                it.remove();
+            }
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.playerlagbe;
+
+import android.util.Log;
+
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.FirebaseFirestoreSettings;
+import com.google.firebase.firestore.PersistentCacheSettings;
+import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.QuerySnapshot;
+import com.google.firebase.firestore.Source;
+
+/**
+ * Offline-first access to the shop catalog.
+ *
+ * Every fetch is answered from Firestore's local cache first, so screens can
+ * render immediately, and then reconciled with the server in the background.
+ * A default get() would instead wait on the network and only fall back to
+ * the cache once the request fails, which is slow on poor connections.
+ */
+public class ShopCatalogRepository {
+
+    private static final String TAG = "ShopCatalogRepository";
+
+    // Sized for the whole catalog plus the signed-in user's own documents
+    public static final long CACHE_SIZE_BYTES = 100L * 1024 * 1024;
+
+    private static ShopCatalogRepository instance;
+
+    private final FirebaseFirestore firestore;
+
+    public interface FetchListener {
+        /**
+         * Called with the cached result (fromCache = true) when the cache has
+         * matching documents, then again with the server result unless the
+         * cached one was enough.
+         */
+        void onResult(QuerySnapshot snapshot, boolean fromCache);
+
+        /**
+         * The server could not be reached; servedFromCache tells whether a
+         * cached result was already delivered.
+         */
+        void onError(Exception e, boolean servedFromCache);
+    }
+
+    public static synchronized ShopCatalogRepository getInstance() {
+        if (instance == null) {
+            instance = new ShopCatalogRepository(FirebaseFirestore.getInstance());
+        }
+        return instance;
+    }
+
+    public ShopCatalogRepository(FirebaseFirestore firestore) {
+        this.firestore = firestore;
+    }
+
+    /**
+     * Sets an explicit persistent cache size. Must run before the instance is
+     * first used, which is why the Application calls it in onCreate().
+     */
+    public static void configureCache(FirebaseFirestore firestore) {
+        firestore.setFirestoreSettings(new FirebaseFirestoreSettings.Builder()
+                .setLocalCacheSettings(PersistentCacheSettings.newBuilder()
+                        .setSizeBytes(CACHE_SIZE_BYTES)
+                        .build())
+                .build());
+    }
+
+    /**
+     * Shop products, newest first.
+     */
+    public Query catalogQuery() {
+        return catalogQuery(new CatalogFilter());
+    }
+
+    /**
+     * Shop products matching filter, filtered and ordered on the server.
+     */
+    public Query catalogQuery(CatalogFilter filter) {
+        return filter.apply(firestore.collection("shop"));
+    }
+
+    public void fetch(Query query, FetchListener listener) {
+        fetch(query, Integer.MAX_VALUE, listener);
+    }
+
+    /**
+     * Like fetch(), but stops at the cached result when it holds at least
+     * enoughCached documents. For callers about to listen to those documents:
+     * the listener's first snapshot reconciles them with the server, so a
+     * server get would read the same documents twice.
+     */
+    public void fetch(Query query, int enoughCached, FetchListener listener) {
+        query.get(Source.CACHE).addOnCompleteListener(cacheTask -> {
+            boolean servedFromCache = cacheTask.isSuccessful() && !cacheTask.getResult().isEmpty();
+            if (servedFromCache) {
+                listener.onResult(cacheTask.getResult(), true);
+                if (cacheTask.getResult().size() >= enoughCached) {
+                    return;
+                }
+            }
+
+            query.get(Source.SERVER)
+                    .addOnSuccessListener(snapshot -> listener.onResult(snapshot, false))
+                    .addOnFailureListener(e -> {
+                        Log.w(TAG, "Server fetch failed, cached result " + (servedFromCache ? "kept" : "unavailable"), e);
+                        listener.onError(e, servedFromCache);
+                    });
+        });
+    }
+}
@@ -0,0 +1,146 @@
+package com.playerlagbe;
+
+import android.util.Log;
+
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldValue;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.SetOptions;
+import com.google.firebase.firestore.WriteBatch;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Current price of every product, spread over NUM_SHARDS shop_meta/prices_{n}
+ * documents, each a productId to price map. A product's shard is its id's
+ * hash modulo NUM_SHARDS (shardOf), the same in firebase/scripts/priceShards.js.
+ *
+ * Checkout verifies a whole cart by reading just the shards its products fall
+ * in inside its transaction. Reading each product there would cost one round
+ * trip per line on Android, and one document for the whole catalog would make
+ * every admin price edit retry every checkout in flight. Every admin write
+ * that creates a product, changes its price or deletes it adds the matching
+ * shard changes to the same batch.
+ */
+public final class ShopPriceList {
+
+    private static final String TAG = "ShopPriceList";
+
+    public static final String FIELD_PRICES = "prices";
+    public static final int NUM_SHARDS = 16;
+
+    // Most writes one put() adds to a batch, one per shard
+    public static final int MAX_WRITES = NUM_SHARDS;
+
+    // Firestore's 1 MiB document limit, and the size past which checkout logs
+    // that a shard is filling up and NUM_SHARDS should grow
+    private static final int MAX_DOCUMENT_BYTES = 1_048_576;
+    private static final int WARN_DOCUMENT_BYTES = MAX_DOCUMENT_BYTES * 8 / 10;
+
+    private ShopPriceList() {
+    }
+
+    /**
+     * Shard holding productId's price: String.hashCode(), kept non-negative,
+     * modulo NUM_SHARDS.
+     */
+    public static int shardOf(String productId) {
+        return (productId.hashCode() & 0x7fffffff) % NUM_SHARDS;
+    }
+
+    public static DocumentReference document(FirebaseFirestore firestore, int shard) {
+        return firestore.collection("shop_meta").document("prices_" + shard);
+    }
+
+    /**
+     * The shards holding the given products' prices, each once, in shard order.
+     */
+    public static List<DocumentReference> documents(FirebaseFirestore firestore, Collection<String> productIds) {
+        TreeSet<Integer> shards = new TreeSet<>();
+        for (String productId : productIds) {
+            shards.add(shardOf(productId));
+        }
+        List<DocumentReference> documents = new ArrayList<>();
+        for (int shard : shards) {
+            documents.add(document(firestore, shard));
+        }
+        return documents;
+    }
+
+    /**
+     * Sets prices (product id to price) in batch, merged into the existing
+     * list, with one write per shard touched.
+     */
+    public static void put(WriteBatch batch, FirebaseFirestore firestore, Map<String, Double> prices) {
+        Map<Integer, Map<String, Object>> byShard = new HashMap<>();
+        for (Map.Entry<String, Double> price : prices.entrySet()) {
+            shardMap(byShard, price.getKey()).put(price.getKey(), price.getValue());
+        }
+        write(batch, firestore, byShard);
+    }
+
+    public static void put(WriteBatch batch, FirebaseFirestore firestore, String productId, double price) {
+        Map<String, Double> prices = new HashMap<>();
+        prices.put(productId, price);
+        put(batch, firestore, prices);
+    }
+
+    public static void remove(WriteBatch batch, FirebaseFirestore firestore, String productId) {
+        Map<Integer, Map<String, Object>> byShard = new HashMap<>();
+        shardMap(byShard, productId).put(productId, FieldValue.delete());
+        write(batch, firestore, byShard);
+    }
+
+    /**
+     * Logs a warning when a shard read at checkout is nearing Firestore's
+     * document size limit, before price writes to it start failing.
+     */
+    public static void checkSize(DocumentSnapshot shard) {
+        Object prices = shard.get(FIELD_PRICES);
+        if (!(prices instanceof Map)) {
+            return;
+        }
+        int bytes = estimatedBytes(shard.getId(), (Map<?, ?>) prices);
+        if (bytes > WARN_DOCUMENT_BYTES) {
+            Log.w(TAG, "Price list " + shard.getId() + " is about " + bytes + " of " + MAX_DOCUMENT_BYTES
+                    + " bytes; raise NUM_SHARDS");
+        }
+    }
+
+    /**
+     * Firestore's storage size for a shard: document name, the prices field,
+     * and per entry its id (plus one) and an 8-byte number.
+     */
+    static int estimatedBytes(String shardId, Map<?, ?> prices) {
+        int bytes = "shop_meta".length() + 1 + shardId.length() + 1 + 16 + FIELD_PRICES.length() + 1 + 32;
+        for (Object productId : prices.keySet()) {
+            bytes += String.valueOf(productId).length() + 1 + 8;
+        }
+        return bytes;
+    }
+
+    private static Map<String, Object> shardMap(Map<Integer, Map<String, Object>> byShard, String productId) {
+        int shard = shardOf(productId);
+        Map<String, Object> prices = byShard.get(shard);
+        if (prices == null) {
+            prices = new HashMap<>();
+            byShard.put(shard, prices);
+        }
+        return prices;
+    }
+
+    private static void write(WriteBatch batch, FirebaseFirestore firestore,
+                              Map<Integer, Map<String, Object>> byShard) {
+        for (Map.Entry<Integer, Map<String, Object>> shard : byShard.entrySet()) {
+            Map<String, Object> data = new HashMap<>();
+            data.put(FIELD_PRICES, shard.getValue());
+            batch.set(document(firestore, shard.getKey()), data, SetOptions.merge());
+        }
+    }
+}
@@ -33,7 +33,7 @@ public class SignupActivity extends AppCompatActivity {
         setContentView(R.layout.activity_signup);
 
         // Initialize Firebase Auth Manager
-        authManager = new FirebaseAuthManager(this);
+        authManager = FirebaseAuthManager.getInstance(this);
 
         // Initialize views
         initializeViews();
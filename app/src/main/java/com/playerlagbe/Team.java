@@ -0,0 +1,101 @@
+package com.playerlagbe;
+
+import com.google.firebase.Timestamp;
+import com.google.firebase.firestore.IgnoreExtraProperties;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A teams/{teamId} document. Besides the team's own fields it embeds a short
+ * summary of every player on it, so the teams list renders from one query
+ * without reading each player. Summaries are kept in a map keyed by player
+ * id, so TeamRepository can set or delete one player's entry by its field
+ * path, in the same batch as the player document it mirrors. lat and lng locate the
+ * team's home ground, if set; the stored geohash is not mapped.
+ */
+@IgnoreExtraProperties
+public class Team {
+
+    public static final String FIELD_PLAYERS = "players";
+
+    // Keys of an entry in players
+    public static final String SUMMARY_PLAYER_ID = "playerId";
+    public static final String SUMMARY_NAME = "name";
+    public static final String SUMMARY_POSITION = "position";
+    public static final String SUMMARY_SKILL = "skillRating";
+
+    private String teamId;
+    private String name;
+    private String area;
+    private Map<String, Map<String, Object>> players = new HashMap<>();
+    private int playerCount;
+    private Double lat;
+    private Double lng;
+    private Timestamp createdAt;
+
+    public Team() {
+        // Default constructor required for Firestore
+    }
+
+    /**
+     * The entry a player gets in its team's players map, under its id.
+     */
+    public static Map<String, Object> summaryOf(Player player) {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put(SUMMARY_PLAYER_ID, player.getPlayerId());
+        summary.put(SUMMARY_NAME, player.getName());
+        summary.put(SUMMARY_POSITION, player.getPosition());
+        summary.put(SUMMARY_SKILL, (long) player.getSkillRating());
+        return summary;
+    }
+
+    /**
+     * The stored summary for playerId, or null.
+     */
+    public Map<String, Object> findSummary(String playerId) {
+        return players.get(playerId);
+    }
+
+    /**
+     * Every player's summary, ordered by name for display.
+     */
+    public List<Map<String, Object>> roster() {
+        List<Map<String, Object>> roster = new ArrayList<>(players.values());
+        Collections.sort(roster, (a, b) -> String.valueOf(a.get(SUMMARY_NAME))
+                .compareToIgnoreCase(String.valueOf(b.get(SUMMARY_NAME))));
+        return roster;
+    }
+
+    public String getTeamId() { return teamId; }
+    public void setTeamId(String teamId) { this.teamId = teamId; }
+
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+
+    public String getArea() { return area; }
+    public void setArea(String area) { this.area = area; }
+
+    public Map<String, Map<String, Object>> getPlayers() { return players; }
+    public void setPlayers(Map<String, Map<String, Object>> players) {
+        this.players = players != null ? players : new HashMap<>();
+    }
+
+    public int getPlayerCount() { return playerCount; }
+    public void setPlayerCount(int playerCount) { this.playerCount = playerCount; }
+
+    public Double getLat() { return lat; }
+    public void setLat(Double lat) { this.lat = lat; }
+
+    public Double getLng() { return lng; }
+    public void setLng(Double lng) { this.lng = lng; }
+
+    public boolean hasLocation() { return lat != null && lng != null; }
+
+    public Timestamp getCreatedAt() { return createdAt; }
+    public void setCreatedAt(Timestamp createdAt) { this.createdAt = createdAt; }
+}
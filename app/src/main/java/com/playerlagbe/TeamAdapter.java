@@ -0,0 +1,94 @@
+package com.playerlagbe;
+
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.TextView;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
+import androidx.recyclerview.widget.RecyclerView;
+
+import java.util.Map;
+
+/**
+ * Team cards with their rosters, rendered entirely from the team documents'
+ * embedded player summaries. Shared by TeamsFragment and ManageTeamActivity.
+ */
+public class TeamAdapter extends ListAdapter<Team, TeamAdapter.ViewHolder> {
+
+    public interface OnTeamClickListener {
+        void onTeamClick(Team team);
+    }
+
+    // Every snapshot builds fresh Team instances, so compare what the card shows
+    private static final DiffUtil.ItemCallback<Team> DIFF_CALLBACK = new DiffUtil.ItemCallback<Team>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull Team oldItem, @NonNull Team newItem) {
+            return oldItem.getTeamId().equals(newItem.getTeamId());
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull Team oldItem, @NonNull Team newItem) {
+            return oldItem.getName().equals(newItem.getName())
+                    && String.valueOf(oldItem.getArea()).equals(String.valueOf(newItem.getArea()))
+                    && oldItem.getPlayers().equals(newItem.getPlayers());
+        }
+    };
+
+    private final OnTeamClickListener clickListener;
+
+    public TeamAdapter(OnTeamClickListener clickListener) {
+        super(DIFF_CALLBACK);
+        this.clickListener = clickListener;
+    }
+
+    @NonNull
+    @Override
+    public ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        View view = LayoutInflater.from(parent.getContext()).inflate(R.layout.item_team, parent, false);
+        return new ViewHolder(view);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
+        Team team = getItem(position);
+        int players = team.getPlayers().size();
+        holder.teamName.setText(team.getName());
+        holder.teamMeta.setText((team.getArea() != null ? team.getArea() + " · " : "")
+                + players + (players == 1 ? " player" : " players"));
+        holder.teamRoster.setText(rosterText(team));
+        holder.itemView.setOnClickListener(v -> clickListener.onTeamClick(team));
+    }
+
+    public static String rosterText(Team team) {
+        StringBuilder roster = new StringBuilder();
+        for (Map<String, Object> player : team.roster()) {
+            if (roster.length() > 0) {
+                roster.append(", ");
+            }
+            roster.append(playerLabel(player));
+        }
+        return roster.toString();
+    }
+
+    /**
+     * "Name (Position, skill)" for one roster entry.
+     */
+    public static String playerLabel(Map<String, Object> player) {
+        return player.get(Team.SUMMARY_NAME) + " (" + player.get(Team.SUMMARY_POSITION)
+                + ", " + player.get(Team.SUMMARY_SKILL) + ")";
+    }
+
+    static class ViewHolder extends RecyclerView.ViewHolder {
+        TextView teamName, teamMeta, teamRoster;
+
+        ViewHolder(View itemView) {
+            super(itemView);
+            teamName = itemView.findViewById(R.id.teamName);
+            teamMeta = itemView.findViewById(R.id.teamMeta);
+            teamRoster = itemView.findViewById(R.id.teamRoster);
+        }
+    }
+}
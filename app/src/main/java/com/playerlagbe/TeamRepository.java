@@ -0,0 +1,221 @@
+package com.playerlagbe;
+
+import android.util.Log;
+
+import com.google.android.gms.tasks.Task;
+import com.google.firebase.firestore.CollectionReference;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldPath;
+import com.google.firebase.firestore.FieldValue;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.ListenerRegistration;
+import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.QuerySnapshot;
+import com.google.firebase.firestore.WriteBatch;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Teams and their players.
+ *
+ * Team documents carry a summary of each player (see Team), so listing
+ * teams with their rosters is a single query. A full players/{playerId}
+ * document is only read when a player is opened. Every roster change writes
+ * the player document and its team's summary in one WriteBatch, so the two
+ * never disagree. A summary is written to its own players.{playerId} field,
+ * so changes don't depend on matching the stored entry exactly and two
+ * admins editing different players of a team don't overwrite each other.
+ */
+public class TeamRepository {
+
+    private static final String TAG = "TeamRepository";
+
+    private static TeamRepository instance;
+
+    public interface TeamsListener {
+        void onTeamsChanged(List<Team> teams);
+        void onTeamsError(String error);
+    }
+
+    public interface PlayerListener {
+        void onPlayerLoaded(Player player);
+        void onPlayerError(String error);
+    }
+
+    private final FirebaseFirestore firestore;
+    private final CollectionReference teams;
+    private final CollectionReference players;
+
+    public static synchronized TeamRepository getInstance() {
+        if (instance == null) {
+            instance = new TeamRepository(FirebaseFirestore.getInstance());
+        }
+        return instance;
+    }
+
+    public TeamRepository(FirebaseFirestore firestore) {
+        this.firestore = firestore;
+        this.teams = firestore.collection("teams");
+        this.players = firestore.collection("players");
+    }
+
+    /**
+     * Listens to every team, ordered by name. Rosters come embedded, so this
+     * is the only read the teams list needs.
+     */
+    public ListenerRegistration listenTeams(TeamsListener listener) {
+        return teams.orderBy("name", Query.Direction.ASCENDING).addSnapshotListener((snapshots, e) -> {
+            if (e != null) {
+                Log.e(TAG, "Error listening to teams", e);
+                listener.onTeamsError(e.getMessage());
+                return;
+            }
+            if (snapshots == null) {
+                return;
+            }
+            listener.onTeamsChanged(toTeams(snapshots));
+        });
+    }
+
+    /**
+     * Reads every team once, for screens that don't need to follow changes.
+     */
+    public void loadTeams(TeamsListener listener) {
+        teams.orderBy("name", Query.Direction.ASCENDING).get()
+                .addOnSuccessListener(snapshots -> listener.onTeamsChanged(toTeams(snapshots)))
+                .addOnFailureListener(e -> {
+                    Log.e(TAG, "Error loading teams", e);
+                    listener.onTeamsError(e.getMessage());
+                });
+    }
+
+    private static List<Team> toTeams(QuerySnapshot snapshots) {
+        List<Team> result = new ArrayList<>();
+        for (DocumentSnapshot doc : snapshots.getDocuments()) {
+            Team team = doc.toObject(Team.class);
+            if (team != null) {
+                team.setTeamId(doc.getId());
+                result.add(team);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Reads one full player profile, for drill-down from a roster.
+     */
+    public void loadPlayer(String playerId, PlayerListener listener) {
+        players.document(playerId).get().addOnSuccessListener(doc -> {
+            Player player = doc.toObject(Player.class);
+            if (player == null) {
+                listener.onPlayerError("Player not found");
+                return;
+            }
+            player.setPlayerId(doc.getId());
+            listener.onPlayerLoaded(player);
+        }).addOnFailureListener(e -> {
+            Log.e(TAG, "Error loading player " + playerId, e);
+            listener.onPlayerError(e.getMessage());
+        });
+    }
+
+    /**
+     * Creates a team. lat and lng place its home ground and may both be null.
+     */
+    public Task<Void> createTeam(String name, String area, Double lat, Double lng) {
+        Map<String, Object> data = new HashMap<>();
+        data.put("name", name);
+        data.put("area", area);
+        putLocation(data, lat, lng);
+        data.put(Team.FIELD_PLAYERS, new HashMap<>());
+        data.put("playerCount", 0);
+        data.put("createdAt", FieldValue.serverTimestamp());
+        return teams.document().set(data);
+    }
+
+    /**
+     * Creates a player on team and adds its summary to the roster. Assigns
+     * the new player's id and team id.
+     */
+    public Task<Void> addPlayer(Team team, Player player) {
+        DocumentReference playerRef = players.document();
+        player.setPlayerId(playerRef.getId());
+        player.setTeamId(team.getTeamId());
+
+        WriteBatch batch = firestore.batch();
+        batch.set(playerRef, playerData(player));
+        batch.update(teams.document(team.getTeamId()),
+                summaryPath(player.getPlayerId()), Team.summaryOf(player),
+                "playerCount", FieldValue.increment(1));
+        return commitRosterChange(batch);
+    }
+
+    /**
+     * Saves an edited player and replaces its summary in team's roster.
+     */
+    public Task<Void> updatePlayer(Team team, Player player) {
+        WriteBatch batch = firestore.batch();
+        batch.update(players.document(player.getPlayerId()), playerData(player));
+
+        Map<String, Object> summary = Team.summaryOf(player);
+        if (!summary.equals(team.findSummary(player.getPlayerId()))) {
+            batch.update(teams.document(team.getTeamId()), summaryPath(player.getPlayerId()), summary);
+        }
+        return commitRosterChange(batch);
+    }
+
+    public Task<Void> removePlayer(Team team, String playerId) {
+        WriteBatch batch = firestore.batch();
+        batch.delete(players.document(playerId));
+        Map<String, Object> summary = team.findSummary(playerId);
+        if (summary != null) {
+            batch.update(teams.document(team.getTeamId()),
+                    summaryPath(playerId), FieldValue.delete(),
+                    "playerCount", FieldValue.increment(-1));
+        }
+        return commitRosterChange(batch);
+    }
+
+    private static FieldPath summaryPath(String playerId) {
+        return FieldPath.of(Team.FIELD_PLAYERS, playerId);
+    }
+
+    private static Task<Void> commitRosterChange(WriteBatch batch) {
+        return batch.commit().addOnSuccessListener(aVoid -> PlayerSearchRepository.getInstance().invalidate());
+    }
+
+    private static Map<String, Object> playerData(Player player) {
+        Map<String, Object> data = new HashMap<>();
+        data.put("name", player.getName());
+        // Normalized copies the marketplace search matches on
+        data.put("nameLower", PlayerQuery.normalize(player.getName()));
+        data.put("areaLower", PlayerQuery.normalize(player.getArea()));
+        data.put("position", player.getPosition());
+        data.put("skillRating", player.getSkillRating());
+        data.put("area", player.getArea());
+        data.put("available", player.isAvailable());
+        data.put("contact", player.getContact());
+        data.put("teamId", player.getTeamId());
+        putLocation(data, player.getLat(), player.getLng());
+        if (player.getCreatedAt() == null) {
+            data.put("createdAt", FieldValue.serverTimestamp());
+        }
+        return data;
+    }
+
+    /**
+     * Coordinates plus the geohash NearbySearch queries on. All three are
+     * written as null without a location, which clears them on update and
+     * keeps the document out of every geohash range.
+     */
+    private static void putLocation(Map<String, Object> data, Double lat, Double lng) {
+        boolean located = lat != null && lng != null;
+        data.put("lat", located ? lat : null);
+        data.put("lng", located ? lng : null);
+        data.put(NearbySearch.FIELD_GEOHASH, located ? GeoHash.encode(lat, lng) : null);
+    }
+}
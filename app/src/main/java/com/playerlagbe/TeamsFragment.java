@@ -5,15 +5,45 @@ import android.os.Bundle;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
+import android.widget.ArrayAdapter;
+import android.widget.CheckBox;
+import android.widget.EditText;
 import android.widget.ImageView;
 import android.widget.PopupMenu;
+import android.widget.Spinner;
+import android.widget.TextView;
+import android.widget.Toast;
+
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.appcompat.app.AlertDialog;
 import androidx.fragment.app.Fragment;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.ListAdapter;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.google.firebase.firestore.ListenerRegistration;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 
-public class TeamsFragment extends Fragment {
+public class TeamsFragment extends Fragment
+        implements TeamRepository.TeamsListener, PlayerSearchRepository.SearchListener {
+
+    private static final String ANY_POSITION = "Any position";
 
     private View rootView;
+    private TeamAdapter teamAdapter;
+    private ListenerRegistration teamsRegistration;
+    private EditText playerNameSearch, playerMinSkillFilter, playerAreaFilter;
+    private Spinner playerPositionFilter;
+    private CheckBox playerAvailableFilter;
+    private TextView playerResultsText;
+    private PlayerResultAdapter playerResultAdapter;
+    // Key of the latest search, so slower earlier ones don't overwrite it
+    private String currentSearchKey;
 
     @Nullable
     @Override
@@ -26,6 +56,243 @@ public class TeamsFragment extends Fragment {
     public void onViewCreated(@NonNull View view, @Nullable Bundle savedInstanceState) {
         super.onViewCreated(view, savedInstanceState);
         setupHamburgerMenu();
+
+        RecyclerView recyclerView = rootView.findViewById(R.id.teamsRecyclerView);
+        recyclerView.setLayoutManager(new LinearLayoutManager(getContext()));
+        teamAdapter = new TeamAdapter(this::showRoster);
+        recyclerView.setAdapter(teamAdapter);
+
+        setupPlayerSearch();
+    }
+
+    private void setupPlayerSearch() {
+        playerNameSearch = rootView.findViewById(R.id.playerNameSearch);
+        playerPositionFilter = rootView.findViewById(R.id.playerPositionFilter);
+        playerMinSkillFilter = rootView.findViewById(R.id.playerMinSkillFilter);
+        playerAreaFilter = rootView.findViewById(R.id.playerAreaFilter);
+        playerAvailableFilter = rootView.findViewById(R.id.playerAvailableFilter);
+        playerResultsText = rootView.findViewById(R.id.playerResultsText);
+
+        List<String> positions = new ArrayList<>();
+        positions.add(ANY_POSITION);
+        positions.addAll(Player.POSITIONS);
+        ArrayAdapter<String> positionAdapter = new ArrayAdapter<>(requireContext(),
+                android.R.layout.simple_spinner_item, positions);
+        positionAdapter.setDropDownViewResource(android.R.layout.simple_spinner_dropdown_item);
+        playerPositionFilter.setAdapter(positionAdapter);
+
+        RecyclerView resultsRecyclerView = rootView.findViewById(R.id.playerResultsRecyclerView);
+        resultsRecyclerView.setLayoutManager(new LinearLayoutManager(getContext()));
+        playerResultAdapter = new PlayerResultAdapter(this::showPlayerDetails);
+        resultsRecyclerView.setAdapter(playerResultAdapter);
+
+        rootView.findViewById(R.id.searchPlayersButton).setOnClickListener(v -> searchPlayers());
+    }
+
+    private void searchPlayers() {
+        PlayerQuery query = new PlayerQuery();
+        query.setNamePrefix(playerNameSearch.getText().toString());
+        String position = (String) playerPositionFilter.getSelectedItem();
+        query.setPosition(ANY_POSITION.equals(position) ? null : position);
+        String minSkill = playerMinSkillFilter.getText().toString().trim();
+        if (!minSkill.isEmpty()) {
+            try {
+                query.setMinSkill(Integer.parseInt(minSkill));
+            } catch (NumberFormatException e) {
+                playerMinSkillFilter.setError("Enter a number");
+                return;
+            }
+        }
+        query.setArea(playerAreaFilter.getText().toString());
+        query.setAvailableOnly(playerAvailableFilter.isChecked());
+
+        currentSearchKey = query.cacheKey();
+        PlayerSearchRepository.getInstance().search(query, this);
+    }
+
+    @Override
+    public void onPlayersFound(PlayerQuery query, List<Player> players) {
+        if (!isAdded() || !query.cacheKey().equals(currentSearchKey)) {
+            return;
+        }
+        playerResultAdapter.submitList(players);
+        playerResultsText.setVisibility(View.VISIBLE);
+        playerResultsText.setText(players.isEmpty() ? "No players found" : players.size() + " players");
+    }
+
+    @Override
+    public void onSearchError(String error) {
+        if (isAdded()) {
+            Toast.makeText(getContext(), "Search failed: " + error, Toast.LENGTH_SHORT).show();
+        }
+    }
+
+    @Override
+    public void onStart() {
+        super.onStart();
+        // One query covers every team and its roster
+        teamsRegistration = TeamRepository.getInstance().listenTeams(this);
+    }
+
+    @Override
+    public void onStop() {
+        super.onStop();
+        if (teamsRegistration != null) {
+            teamsRegistration.remove();
+            teamsRegistration = null;
+        }
+    }
+
+    @Override
+    public void onTeamsChanged(List<Team> teams) {
+        teamAdapter.submitList(teams);
+        rootView.findViewById(R.id.teamsEmptyText).setVisibility(teams.isEmpty() ? View.VISIBLE : View.GONE);
+    }
+
+    @Override
+    public void onTeamsError(String error) {
+        Toast.makeText(getContext(), "Error loading teams: " + error, Toast.LENGTH_SHORT).show();
+    }
+
+    private void showRoster(Team team) {
+        List<Map<String, Object>> players = team.roster();
+        String[] labels = new String[players.size()];
+        for (int i = 0; i < labels.length; i++) {
+            labels[i] = TeamAdapter.playerLabel(players.get(i));
+        }
+        AlertDialog.Builder builder = new AlertDialog.Builder(requireContext())
+                .setTitle(team.getName())
+                .setItems(labels, (dialog, which) ->
+                        showPlayer((String) players.get(which).get(Team.SUMMARY_PLAYER_ID)))
+                .setNegativeButton("Close", null);
+        if (team.hasLocation()) {
+            builder.setNeutralButton("Nearby", (dialog, which) -> showNearbyChoices(team));
+        }
+        builder.show();
+    }
+
+    private void showNearbyChoices(Team team) {
+        new AlertDialog.Builder(requireContext())
+                .setTitle("Near " + team.getName())
+                .setItems(new String[]{"Players nearby", "Teams nearby"}, (dialog, which) -> {
+                    if (which == 0) {
+                        findPlayersNear(team);
+                    } else {
+                        findTeamsNear(team);
+                    }
+                })
+                .show();
+    }
+
+    private void findPlayersNear(Team team) {
+        NearbySearch.getInstance().findPlayersNear(team.getLat(), team.getLng(), NearbySearch.DEFAULT_RADIUS_METERS,
+                new NearbySearch.Listener<Player>() {
+                    @Override
+                    public void onNearbyFound(List<NearbySearch.Result<Player>> results) {
+                        if (!isAdded()) {
+                            return;
+                        }
+                        String[] labels = new String[results.size()];
+                        for (int i = 0; i < labels.length; i++) {
+                            Player player = results.get(i).item;
+                            labels[i] = player.getName() + " · " + player.getPosition() + " · "
+                                    + NearbySearch.formatDistance(results.get(i).distanceMeters);
+                        }
+                        showNearbyResults("Players near " + team.getName(), labels,
+                                which -> showPlayerDetails(results.get(which).item));
+                    }
+
+                    @Override
+                    public void onNearbyError(String error) {
+                        showNearbyError(error);
+                    }
+                });
+    }
+
+    private void findTeamsNear(Team team) {
+        NearbySearch.getInstance().findTeamsNear(team.getLat(), team.getLng(), NearbySearch.DEFAULT_RADIUS_METERS,
+                new NearbySearch.Listener<Team>() {
+                    @Override
+                    public void onNearbyFound(List<NearbySearch.Result<Team>> results) {
+                        if (!isAdded()) {
+                            return;
+                        }
+                        List<NearbySearch.Result<Team>> others = new ArrayList<>();
+                        for (NearbySearch.Result<Team> result : results) {
+                            if (!result.item.getTeamId().equals(team.getTeamId())) {
+                                others.add(result);
+                            }
+                        }
+                        String[] labels = new String[others.size()];
+                        for (int i = 0; i < labels.length; i++) {
+                            labels[i] = others.get(i).item.getName() + " · "
+                                    + NearbySearch.formatDistance(others.get(i).distanceMeters);
+                        }
+                        showNearbyResults("Teams near " + team.getName(), labels,
+                                which -> showRoster(others.get(which).item));
+                    }
+
+                    @Override
+                    public void onNearbyError(String error) {
+                        showNearbyError(error);
+                    }
+                });
+    }
+
+    private interface OnResultClickListener {
+        void onClick(int which);
+    }
+
+    private void showNearbyResults(String title, String[] labels, OnResultClickListener clickListener) {
+        AlertDialog.Builder builder = new AlertDialog.Builder(requireContext())
+                .setTitle(title)
+                .setNegativeButton("Close", null);
+        if (labels.length == 0) {
+            builder.setMessage("Nothing within " + NearbySearch.formatDistance(NearbySearch.DEFAULT_RADIUS_METERS));
+        } else {
+            builder.setItems(labels, (dialog, which) -> clickListener.onClick(which));
+        }
+        builder.show();
+    }
+
+    private void showNearbyError(String error) {
+        if (isAdded()) {
+            Toast.makeText(getContext(), "Nearby search failed: " + error, Toast.LENGTH_SHORT).show();
+        }
+    }
+
+    /**
+     * Reads the full player document; the roster only carries a summary.
+     */
+    private void showPlayer(String playerId) {
+        TeamRepository.getInstance().loadPlayer(playerId, new TeamRepository.PlayerListener() {
+            @Override
+            public void onPlayerLoaded(Player player) {
+                if (isAdded()) {
+                    showPlayerDetails(player);
+                }
+            }
+
+            @Override
+            public void onPlayerError(String error) {
+                if (isAdded()) {
+                    Toast.makeText(getContext(), "Error loading player: " + error, Toast.LENGTH_SHORT).show();
+                }
+            }
+        });
+    }
+
+    private void showPlayerDetails(Player player) {
+        new AlertDialog.Builder(requireContext())
+                .setTitle(player.getName())
+                .setMessage("Position: " + player.getPosition()
+                        + "\nSkill: " + player.getSkillRating() + "/" + Player.MAX_SKILL
+                        + "\nArea: " + (player.getArea() != null ? player.getArea() : "-")
+                        + "\nAvailable: " + (player.isAvailable() ? "Yes" : "No")
+                        + "\nContact: " + (player.getContact() != null ? player.getContact() : "-")
+                        + (player.hasLocation() ? "\nLocation: " + player.getLat() + ", " + player.getLng() : ""))
+                .setPositiveButton("OK", null)
+                .show();
     }
 
     private void setupHamburgerMenu() {
@@ -55,4 +322,58 @@ public class TeamsFragment extends Fragment {
             });
         }
     }
+
+    private static class PlayerResultAdapter extends ListAdapter<Player, PlayerResultAdapter.ViewHolder> {
+
+        interface OnPlayerClickListener {
+            void onClick(Player player);
+        }
+
+        // Cached results are reused as the same instances, fresh ones are new objects
+        private static final DiffUtil.ItemCallback<Player> DIFF_CALLBACK = new DiffUtil.ItemCallback<Player>() {
+            @Override
+            public boolean areItemsTheSame(@NonNull Player oldItem, @NonNull Player newItem) {
+                return oldItem.getPlayerId().equals(newItem.getPlayerId());
+            }
+
+            @Override
+            public boolean areContentsTheSame(@NonNull Player oldItem, @NonNull Player newItem) {
+                return oldItem == newItem;
+            }
+        };
+
+        private final OnPlayerClickListener clickListener;
+
+        PlayerResultAdapter(OnPlayerClickListener clickListener) {
+            super(DIFF_CALLBACK);
+            this.clickListener = clickListener;
+        }
+
+        @NonNull
+        @Override
+        public ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+            View view = LayoutInflater.from(parent.getContext()).inflate(R.layout.item_player_result, parent, false);
+            return new ViewHolder(view);
+        }
+
+        @Override
+        public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
+            Player player = getItem(position);
+            holder.name.setText(player.getName());
+            holder.details.setText(player.getPosition() + " · Skill " + player.getSkillRating()
+                    + (player.getArea() != null && !player.getArea().isEmpty() ? " · " + player.getArea() : "")
+                    + (player.isAvailable() ? "" : " · Unavailable"));
+            holder.itemView.setOnClickListener(v -> clickListener.onClick(player));
+        }
+
+        static class ViewHolder extends RecyclerView.ViewHolder {
+            TextView name, details;
+
+            ViewHolder(View itemView) {
+                super(itemView);
+                name = itemView.findViewById(R.id.playerResultName);
+                details = itemView.findViewById(R.id.playerResultDetails);
+            }
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,101 @@
+package com.playerlagbe;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.util.Log;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Small persisted LRU of username to email mappings used at login, so a
+ * repeat login on the same device skips the usernames/{name} lookup.
+ */
+public class UsernameEmailCache {
+
+    private static final String TAG = "UsernameEmailCache";
+    private static final String PREFS_NAME = "auth_cache";
+    private static final String KEY_ENTRIES = "username_emails";
+    private static final int MAX_ENTRIES = 8;
+
+    private static UsernameEmailCache instance;
+
+    private final SharedPreferences prefs;
+    private final LinkedHashMap<String, String> entries =
+            new LinkedHashMap<String, String>(MAX_ENTRIES, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                    return size() > MAX_ENTRIES;
+                }
+            };
+
+    public static synchronized UsernameEmailCache getInstance(Context context) {
+        if (instance == null) {
+            instance = new UsernameEmailCache(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    private UsernameEmailCache(Context context) {
+        prefs = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+        load();
+    }
+
+    /**
+     * Key used for both this cache and the usernames collection.
+     */
+    public static String normalize(String username) {
+        return username.trim().toLowerCase(Locale.ROOT);
+    }
+
+    public synchronized String get(String username) {
+        return entries.get(normalize(username));
+    }
+
+    public synchronized void put(String username, String email) {
+        entries.put(normalize(username), email);
+        save();
+    }
+
+    public synchronized void remove(String username) {
+        if (entries.remove(normalize(username)) != null) {
+            save();
+        }
+    }
+
+    private void load() {
+        String json = prefs.getString(KEY_ENTRIES, null);
+        if (json == null) {
+            return;
+        }
+        try {
+            // Stored eldest first so insertion restores the access order
+            JSONArray array = new JSONArray(json);
+            for (int i = 0; i < array.length(); i++) {
+                JSONObject entry = array.getJSONObject(i);
+                entries.put(entry.getString("u"), entry.getString("e"));
+            }
+        } catch (JSONException e) {
+            Log.w(TAG, "Dropping unreadable username cache", e);
+            prefs.edit().remove(KEY_ENTRIES).apply();
+        }
+    }
+
+    private void save() {
+        JSONArray array = new JSONArray();
+        try {
+            for (Map.Entry<String, String> entry : entries.entrySet()) {
+                array.put(new JSONObject().put("u", entry.getKey()).put("e", entry.getValue()));
+            }
+        } catch (JSONException e) {
+            Log.w(TAG, "Could not save username cache", e);
+            return;
+        }
+        prefs.edit().putString(KEY_ENTRIES, array.toString()).apply();
+    }
+}
@@ -0,0 +1,115 @@
+package com.playerlagbe;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Running totals of Cart, checked against a full re-sum of its lines.
+ */
+public class CartTest {
+
+    @Test
+    public void addsAndMergesLines() {
+        Cart cart = new Cart();
+        cart.add("ball", "Football", 25.50, 2);
+        cart.add("socks", "Socks", 3.99, 3);
+        cart.add("ball", "Football", 25.50, 1);
+
+        assertEquals(2, cart.getLines().size());
+        assertEquals(6, cart.getItemCount());
+        assertEquals(3 * 2550 + 3 * 399, cart.getSubtotalCents());
+    }
+
+    @Test
+    public void keepsFirstPriceSnapshot() {
+        Cart cart = new Cart();
+        cart.add("ball", "Football", 20.00, 1);
+        cart.add("ball", "Football", 30.00, 1);
+
+        assertEquals(2000, cart.getLine("ball").getUnitPriceCents());
+        assertEquals(4000, cart.getSubtotalCents());
+    }
+
+    @Test
+    public void updatePriceAdjustsSubtotalInPlace() {
+        Cart cart = new Cart();
+        cart.add("ball", "Football", 20.00, 3);
+        cart.add("socks", "Socks", 5.00, 1);
+        cart.updatePrice("ball", 18.50);
+
+        assertEquals("ball", cart.getLines().get(0).getProductId());
+        assertEquals(4, cart.getItemCount());
+        assertEquals(3 * 1850 + 500, cart.getSubtotalCents());
+    }
+
+    @Test
+    public void quantityZeroRemovesLine() {
+        Cart cart = new Cart();
+        cart.add("ball", "Football", 10.00, 4);
+        cart.setQuantity("ball", 1);
+        assertEquals(1000, cart.getSubtotalCents());
+
+        cart.setQuantity("ball", 0);
+        assertTrue(cart.isEmpty());
+        assertEquals(0, cart.getItemCount());
+        assertEquals(0, cart.getSubtotalCents());
+    }
+
+    @Test
+    public void ignoresUnknownAndNonPositive() {
+        Cart cart = new Cart();
+        cart.setQuantity("missing", 3);
+        cart.remove("missing");
+        cart.add("ball", "Football", 10.00, 0);
+        cart.add("ball", "Football", 10.00, -2);
+
+        assertTrue(cart.isEmpty());
+        assertEquals(0, cart.getSubtotalCents());
+    }
+
+    @Test
+    public void centsAvoidFloatingPointDrift() {
+        Cart cart = new Cart();
+        for (int i = 0; i < 10; i++) {
+            cart.add("p" + i, "Product", 0.10, 1);
+        }
+        // Summing 0.1 as doubles ten times gives 0.9999999999999999
+        assertEquals(100, cart.getSubtotalCents());
+        assertEquals(1.00, cart.getSubtotal(), 0);
+    }
+
+    @Test
+    public void incrementalTotalsMatchResumAfterRandomEdits() {
+        Random random = new Random(7);
+        Cart cart = new Cart();
+        for (int step = 0; step < 10_000; step++) {
+            String productId = "p" + random.nextInt(20);
+            switch (random.nextInt(4)) {
+                case 0:
+                    cart.add(productId, "Product", random.nextInt(100_000) / 100.0, 1 + random.nextInt(5));
+                    break;
+                case 1:
+                    cart.setQuantity(productId, random.nextInt(6));
+                    break;
+                case 2:
+                    cart.remove(productId);
+                    break;
+                default:
+                    if (random.nextInt(50) == 0) cart.clear();
+                    break;
+            }
+
+            long subtotal = 0;
+            int items = 0;
+            for (Cart.Line line : cart.getLines()) {
+                subtotal += line.getTotalCents();
+                items += line.getQuantity();
+            }
+            assertEquals(subtotal, cart.getSubtotalCents());
+            assertEquals(items, cart.getItemCount());
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.playerlagbe;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Geohash encoding and radius covering, plus a benchmark of the cover and
+ * distance-filter step over 100k synthetic points around Dhaka. Points are
+ * kept sorted by geohash, the way Firestore's index holds them, and each
+ * range is a binary search into that list. Timings are printed, not
+ * asserted, since they depend on the machine running the tests.
+ */
+public class GeoHashTest {
+
+    private static final int POINT_COUNT = 100_000;
+    private static final double CENTER_LAT = 23.78;
+    private static final double CENTER_LNG = 90.40;
+
+    @Test
+    public void encodesKnownPoints() {
+        assertEquals("ezs42", GeoHash.encode(42.605, -5.603, 5));
+        assertEquals("u4pruydqqvj", GeoHash.encode(57.64911, 10.40744, 11));
+        assertEquals(GeoHash.STORED_PRECISION, GeoHash.encode(CENTER_LAT, CENTER_LNG).length());
+    }
+
+    @Test
+    public void successorCarries() {
+        assertEquals("tuvx", GeoHash.successor("tuvw"));
+        assertEquals("tv", GeoHash.successor("tuz"));
+        assertEquals("~", GeoHash.successor("zz"));
+    }
+
+    @Test
+    public void coverUsesFewRanges() {
+        for (double radius : new double[]{100, 1_000, 5_000, 25_000}) {
+            List<GeoHash.Range> ranges = GeoHash.coverRadius(CENTER_LAT, CENTER_LNG, radius);
+            assertFalse(ranges.isEmpty());
+            assertTrue(radius + " m took " + ranges, ranges.size() <= 6);
+        }
+    }
+
+    @Test
+    public void coverFindsEveryPointInRadius() {
+        List<double[]> points = syntheticPoints(20_000, new Random(7));
+        Random random = new Random(11);
+        for (int i = 0; i < 50; i++) {
+            double lat = CENTER_LAT + (random.nextDouble() - 0.5) * 0.4;
+            double lng = CENTER_LNG + (random.nextDouble() - 0.5) * 0.4;
+            double radius = 200 + random.nextDouble() * 10_000;
+            List<GeoHash.Range> ranges = GeoHash.coverRadius(lat, lng, radius);
+            for (double[] point : points) {
+                if (GeoHash.distanceMeters(lat, lng, point[0], point[1]) <= radius) {
+                    assertTrue("point outside cover", inAnyRange(ranges, GeoHash.encode(point[0], point[1])));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void distanceMatchesKnownPair() {
+        // Dhaka to Chittagong is about 216 km as the crow flies
+        double distance = GeoHash.distanceMeters(23.8103, 90.4125, 22.3569, 91.7832);
+        assertEquals(216_000, distance, 3_000);
+        assertEquals(0, GeoHash.distanceMeters(CENTER_LAT, CENTER_LNG, CENTER_LAT, CENTER_LNG), 1e-6);
+    }
+
+    @Test
+    public void benchmarkCoverAndFilter() {
+        List<double[]> points = syntheticPoints(POINT_COUNT, new Random(42));
+        List<String> hashes = new ArrayList<>(POINT_COUNT);
+        List<double[]> byHash = new ArrayList<>(POINT_COUNT);
+        List<Integer> order = new ArrayList<>(POINT_COUNT);
+        String[] pointHashes = new String[POINT_COUNT];
+        for (int i = 0; i < POINT_COUNT; i++) {
+            pointHashes[i] = GeoHash.encode(points.get(i)[0], points.get(i)[1]);
+            order.add(i);
+        }
+        Collections.sort(order, (a, b) -> pointHashes[a].compareTo(pointHashes[b]));
+        for (int i : order) {
+            hashes.add(pointHashes[i]);
+            byHash.add(points.get(i));
+        }
+
+        Random random = new Random(3);
+        double[][] queries = new double[500][];
+        for (int i = 0; i < queries.length; i++) {
+            queries[i] = new double[]{CENTER_LAT + (random.nextDouble() - 0.5) * 0.3,
+                    CENTER_LNG + (random.nextDouble() - 0.5) * 0.3, 500 + random.nextDouble() * 4_500};
+        }
+
+        // Warm up
+        for (double[] query : queries) {
+            coverAndFilter(hashes, byHash, query);
+        }
+
+        long totalNanos = 0;
+        long worstNanos = 0;
+        long candidates = 0;
+        long matches = 0;
+        for (double[] query : queries) {
+            long start = System.nanoTime();
+            int[] counts = coverAndFilter(hashes, byHash, query);
+            long elapsed = System.nanoTime() - start;
+            totalNanos += elapsed;
+            worstNanos = Math.max(worstNanos, elapsed);
+            candidates += counts[0];
+            matches += counts[1];
+        }
+
+        double averageMs = totalNanos / 1e6 / queries.length;
+        System.out.printf("Geo search: %d points, query avg %.3f ms, worst %.3f ms, %.1f candidates per match%n",
+                POINT_COUNT, averageMs, worstNanos / 1e6, candidates / (double) Math.max(1, matches));
+        assertTrue("no query matched a point", matches > 0);
+    }
+
+    /**
+     * Runs one search the way NearbySearch does. Returns {candidates read, matches}.
+     */
+    private static int[] coverAndFilter(List<String> hashes, List<double[]> byHash, double[] query) {
+        int candidates = 0;
+        int matches = 0;
+        for (GeoHash.Range range : GeoHash.coverRadius(query[0], query[1], query[2])) {
+            int from = lowerBound(hashes, range.start);
+            int to = lowerBound(hashes, range.end);
+            candidates += to - from;
+            for (double[] point : byHash.subList(from, to)) {
+                if (GeoHash.distanceMeters(query[0], query[1], point[0], point[1]) <= query[2]) {
+                    matches++;
+                }
+            }
+        }
+        return new int[]{candidates, matches};
+    }
+
+    private static int lowerBound(List<String> sorted, String key) {
+        int index = Collections.binarySearch(sorted, key);
+        if (index < 0) {
+            return -index - 1;
+        }
+        while (index > 0 && sorted.get(index - 1).equals(key)) {
+            index--;
+        }
+        return index;
+    }
+
+    private static boolean inAnyRange(List<GeoHash.Range> ranges, String hash) {
+        for (GeoHash.Range range : ranges) {
+            if (range.contains(hash)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Points spread over roughly 60 km around the centre, denser towards it.
+     */
+    private static List<double[]> syntheticPoints(int count, Random random) {
+        List<double[]> points = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            double spread = random.nextBoolean() ? 0.1 : 0.3;
+            points.add(new double[]{CENTER_LAT + random.nextGaussian() * spread,
+                    CENTER_LNG + random.nextGaussian() * spread});
+        }
+        return points;
+    }
+}
@@ -0,0 +1,222 @@
+package com.playerlagbe;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+/**
+ * Fixture generation and double-booking detection, plus a benchmark that
+ * schedules and then re-checks a full season for a 500-team league. Timings
+ * are printed, not asserted, since they depend on the machine running the
+ * tests.
+ */
+public class MatchSchedulerTest {
+
+    private static final long HOUR = 60 * 60 * 1000;
+    private static final long SEASON_START = 1_767_225_600_000L; // 2026-01-01 00:00 UTC
+
+    @Test
+    public void intervalIndexFindsOnlyOverlaps() {
+        IntervalIndex<String> index = new IntervalIndex<>();
+        index.add(10, 20, "a");
+        index.add(15, 40, "b");
+        index.add(40, 50, "c");
+
+        assertEquals(Arrays.asList("a", "b"), index.overlapping(12, 16));
+        assertEquals(Collections.singletonList("b"), index.overlapping(20, 40));
+        assertTrue(index.isFree(50, 60));
+        assertTrue(index.isFree(0, 10));
+        assertFalse(index.isFree(49, 51));
+        assertEquals(3, index.size());
+    }
+
+    @Test
+    public void everyPairMeetsOnceWithoutDoubleBooking() {
+        List<MatchScheduler.Entrant> entrants = entrants(7, 5);
+        MatchScheduler scheduler = new MatchScheduler(Arrays.asList("North", "South"),
+                SEASON_START + 10 * HOUR, 2 * HOUR, 4, 0);
+        List<Match> matches = scheduler.scheduleRoundRobin(entrants);
+
+        assertEquals(7 * 6 / 2, matches.size());
+        Set<String> pairs = new HashSet<>();
+        for (Match match : matches) {
+            String a = match.getHomeTeamId();
+            String b = match.getAwayTeamId();
+            assertNotEquals(a, b);
+            assertTrue("repeated pairing", pairs.add(a.compareTo(b) < 0 ? a + b : b + a));
+        }
+        assertTrue(MatchScheduler.findConflicts(matches, rosters(entrants)).isEmpty());
+    }
+
+    @Test
+    public void sharedPlayerIsNeverDoubleBooked() {
+        List<MatchScheduler.Entrant> entrants = entrants(6, 3);
+        entrants.get(0).playerIds.add("guest");
+        entrants.get(3).playerIds.add("guest");
+        MatchScheduler scheduler = new MatchScheduler(Arrays.asList("1", "2", "3"), SEASON_START, HOUR, 4, 0);
+        List<Match> matches = scheduler.scheduleRoundRobin(entrants);
+
+        List<Match> withGuest = new ArrayList<>();
+        for (Match match : matches) {
+            if (match.sharesTeamWith(match("", "t0", "t3", "", 0, 1))) {
+                withGuest.add(match);
+            }
+        }
+        for (Match a : withGuest) {
+            for (Match b : withGuest) {
+                assertTrue(a == b || a.getStartTime() >= b.getEndTime() || b.getStartTime() >= a.getEndTime());
+            }
+        }
+        assertTrue(MatchScheduler.findConflicts(matches, rosters(entrants)).isEmpty());
+    }
+
+    @Test
+    public void restKeepsTeamsApart() {
+        List<MatchScheduler.Entrant> entrants = entrants(6, 0);
+        MatchScheduler scheduler = new MatchScheduler(Arrays.asList("1", "2", "3"),
+                SEASON_START, HOUR, 8, 24 * HOUR);
+        List<Match> matches = scheduler.scheduleRoundRobin(entrants);
+
+        Map<String, Long> lastEnd = new HashMap<>();
+        for (Match match : matches) {
+            for (String teamId : new String[]{match.getHomeTeamId(), match.getAwayTeamId()}) {
+                Long end = lastEnd.get(teamId);
+                assertTrue("too little rest", end == null || match.getStartTime() >= end + 24 * HOUR);
+                lastEnd.put(teamId, match.getEndTime());
+            }
+        }
+    }
+
+    @Test
+    public void reportsPitchTeamAndPlayerClashes() {
+        Match first = match("m1", "A", "B", "North", 0, 2 * HOUR);
+        Match samePitch = match("m2", "C", "D", "North", HOUR, 3 * HOUR);
+        Match sameTeam = match("m3", "A", "E", "South", HOUR, 2 * HOUR);
+        Match borrowedPlayer = match("m4", "F", "G", "East", 0, 3 * HOUR / 2);
+        Match later = match("m5", "A", "C", "North", 3 * HOUR, 4 * HOUR);
+
+        Map<String, List<String>> rosters = new HashMap<>();
+        rosters.put("A", Arrays.asList("p1", "p2"));
+        rosters.put("E", Collections.singletonList("p3"));
+        // p1 is also listed on F, so m4 clashes with m1 and m3 through a player only
+        rosters.put("F", Arrays.asList("p1", "p4"));
+
+        List<MatchScheduler.Conflict> conflicts = MatchScheduler.findConflicts(
+                Arrays.asList(later, sameTeam, first, samePitch, borrowedPlayer), rosters);
+
+        Set<String> found = new HashSet<>();
+        for (MatchScheduler.Conflict conflict : conflicts) {
+            found.add(conflict.kind + ":" + conflict.id + ":" + conflict.first.getMatchId() + "-"
+                    + conflict.second.getMatchId());
+        }
+        Set<String> expected = new HashSet<>(Arrays.asList(
+                "pitch:North:m1-m2",
+                "team:A:m1-m3",
+                "player:p1:m1-m4",
+                "player:p1:m4-m3"));
+        assertEquals(expected, found);
+    }
+
+    @Test
+    public void pagedCheckReportsEachClashOnce() {
+        Match first = match("m1", "A", "B", "North", 0, 2 * HOUR);
+        Match samePitch = match("m2", "C", "D", "North", HOUR, 3 * HOUR);
+        Match sameTeam = match("m3", "A", "E", "South", HOUR, 2 * HOUR);
+        Match borrowedPlayer = match("m4", "F", "G", "East", HOUR, 3 * HOUR / 2);
+        Match longRunning = match("m5", "H", "I", "West", 2 * HOUR, 10 * HOUR);
+        Match later = match("m6", "H", "C", "North", 3 * HOUR, 4 * HOUR);
+        List<Match> byStart = Arrays.asList(first, samePitch, sameTeam, borrowedPlayer, longRunning, later);
+
+        Map<String, List<String>> rosters = new HashMap<>();
+        rosters.put("A", Arrays.asList("p1", "p2"));
+        rosters.put("F", Arrays.asList("p1", "p4"));
+
+        Set<String> expected = conflictKeys(MatchScheduler.findConflicts(byStart, rosters));
+        for (int pageSize = 1; pageSize <= byStart.size(); pageSize++) {
+            MatchScheduler.PagedConflictCheck check = new MatchScheduler.PagedConflictCheck(rosters);
+            List<MatchScheduler.Conflict> conflicts = new ArrayList<>();
+            for (int start = 0; start < byStart.size(); start += pageSize) {
+                conflicts.addAll(check.add(byStart.subList(start, Math.min(start + pageSize, byStart.size()))));
+            }
+            assertEquals("page size " + pageSize, expected.size(), conflicts.size());
+            assertEquals("page size " + pageSize, expected, conflictKeys(conflicts));
+            assertEquals(byStart.size(), check.checked());
+        }
+    }
+
+    @Test
+    public void benchmarkFiveHundredTeamLeague() {
+        List<MatchScheduler.Entrant> entrants = entrants(500, 11);
+        List<String> pitches = new ArrayList<>();
+        for (int i = 1; i <= 50; i++) {
+            pitches.add("Pitch " + i);
+        }
+        MatchScheduler scheduler = new MatchScheduler(pitches, SEASON_START + 8 * HOUR, 2 * HOUR, 6, 0);
+
+        // Warm up
+        scheduler.scheduleRoundRobin(entrants(60, 11));
+
+        long start = System.nanoTime();
+        List<Match> matches = scheduler.scheduleRoundRobin(entrants);
+        long scheduleNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        List<MatchScheduler.Conflict> conflicts = MatchScheduler.findConflicts(matches, rosters(entrants));
+        long checkNanos = System.nanoTime() - start;
+
+        long days = (matches.get(matches.size() - 1).getStartTime() - SEASON_START) / MatchScheduler.DAY_MILLIS + 1;
+        System.out.printf("Scheduler: 500 teams, %d matches over %d days, schedule %.0f ms, conflict check %.0f ms%n",
+                matches.size(), days, scheduleNanos / 1e6, checkNanos / 1e6);
+        assertEquals(500 * 499 / 2, matches.size());
+        assertTrue(conflicts.isEmpty());
+    }
+
+    private static Set<String> conflictKeys(List<MatchScheduler.Conflict> conflicts) {
+        Set<String> keys = new HashSet<>();
+        for (MatchScheduler.Conflict conflict : conflicts) {
+            keys.add(conflict.kind + ":" + conflict.id + ":" + conflict.first.getMatchId() + "-"
+                    + conflict.second.getMatchId());
+        }
+        return keys;
+    }
+
+    private static List<MatchScheduler.Entrant> entrants(int teams, int playersPerTeam) {
+        List<MatchScheduler.Entrant> entrants = new ArrayList<>();
+        for (int t = 0; t < teams; t++) {
+            List<String> playerIds = new ArrayList<>();
+            for (int p = 0; p < playersPerTeam; p++) {
+                playerIds.add("t" + t + "p" + p);
+            }
+            entrants.add(new MatchScheduler.Entrant("t" + t, "Team " + t, playerIds));
+        }
+        return entrants;
+    }
+
+    private static Map<String, List<String>> rosters(List<MatchScheduler.Entrant> entrants) {
+        Map<String, List<String>> rosters = new HashMap<>();
+        for (MatchScheduler.Entrant entrant : entrants) {
+            rosters.put(entrant.teamId, entrant.playerIds);
+        }
+        return rosters;
+    }
+
+    private static Match match(String id, String home, String away, String pitch, long start, long end) {
+        Match match = new Match();
+        match.setMatchId(id);
+        match.setHomeTeamId(home);
+        match.setAwayTeamId(away);
+        match.setPitch(pitch);
+        match.setStartTime(SEASON_START + start);
+        match.setEndTime(SEASON_START + end);
+        return match;
+    }
+}
@@ -0,0 +1,145 @@
+package com.playerlagbe;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Behaviour of the product search index, plus a build/query microbenchmark
+ * over a synthetic 10k-product catalog. Timings are printed, not asserted,
+ * since they depend on the machine running the tests.
+ */
+public class ProductSearchIndexTest {
+
+    private static final int CATALOG_SIZE = 10_000;
+    private static final String[] WORDS = {
+            "football", "cricket", "jersey", "boots", "gloves", "ball", "bat", "helmet", "shin", "guard",
+            "training", "match", "pro", "junior", "senior", "home", "away", "keeper", "striker", "dhaka",
+            "leather", "synthetic", "grip", "socks", "shorts", "cap", "bag", "net", "cone", "whistle"};
+
+    @Test
+    public void matchesEveryTokenAsPrefix() {
+        ProductSearchIndex index = new ProductSearchIndex();
+        index.put("1", "Football Boots", "Leather, size 42");
+        index.put("2", "Cricket Bat", "English willow");
+        index.put("3", "Goalkeeper Gloves", "Football grip gloves");
+
+        assertEquals(Arrays.asList("1", "3"), index.search("foot", 10));
+        assertEquals(Collections.singletonList("1"), index.search("foot boo", 10));
+        assertEquals(Collections.singletonList("2"), index.search("WILL", 10));
+        assertTrue(index.search("tennis", 10).isEmpty());
+        assertTrue(index.search("  ", 10).isEmpty());
+    }
+
+    @Test
+    public void ranksNameMatchesFirst() {
+        ProductSearchIndex index = new ProductSearchIndex();
+        index.put("a", "Training Cones", "For football drills");
+        index.put("b", "Football", "Size 5");
+        index.put("c", "Ankle Guard", "football and cricket");
+
+        assertEquals(Arrays.asList("b", "c", "a"), index.search("football", 10));
+        assertEquals(Collections.singletonList("b"), index.search("football", 1));
+    }
+
+    @Test
+    public void updatesIncrementally() {
+        ProductSearchIndex index = new ProductSearchIndex();
+        assertTrue(index.put("1", "Red Jersey", ""));
+        assertFalse(index.put("1", "Red Jersey", ""));
+        // A price change is kept without touching the terms
+        assertTrue(index.put(new ProductSearchIndex.Entry("1", "Red Jersey", "", null, 12, false)));
+        assertEquals(12, index.get("1").price, 0);
+        assertEquals(Collections.singletonList("1"), index.search("red", 10));
+
+        index.put("1", "Blue Jersey", "");
+        assertTrue(index.search("red", 10).isEmpty());
+        assertEquals(Collections.singletonList("1"), index.search("blue", 10));
+
+        assertTrue(index.remove("1"));
+        assertTrue(index.search("jersey", 10).isEmpty());
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    public void survivesRoundTrip() throws Exception {
+        ProductSearchIndex index = new ProductSearchIndex();
+        index.put(new ProductSearchIndex.Entry("1", "Cricket Helmet", "Titanium grille, \"pro\" fit",
+                "https://example.com/helmet.jpg", 49.5, true));
+        index.put("2", "ফুটবল", "বাংলা");
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        index.writeTo(out);
+        ProductSearchIndex restored = new ProductSearchIndex();
+        restored.readFrom(new ByteArrayInputStream(out.toByteArray()));
+
+        assertEquals(2, restored.size());
+        assertEquals(Collections.singletonList("1"), restored.search("tit", 10));
+        assertEquals(Collections.singletonList("2"), restored.search("ফুট", 10));
+        ProductSearchIndex.Entry helmet = restored.get("1");
+        assertEquals("https://example.com/helmet.jpg", helmet.imageLink);
+        assertEquals(49.5, helmet.price, 0);
+        assertTrue(helmet.featured);
+    }
+
+    @Test
+    public void benchmarkBuildAndQuery() {
+        Random random = new Random(42);
+        String[][] catalog = new String[CATALOG_SIZE][];
+        for (int i = 0; i < CATALOG_SIZE; i++) {
+            catalog[i] = new String[]{"p" + i, phrase(random, 3) + " " + i, phrase(random, 12)};
+        }
+
+        ProductSearchIndex index = null;
+        long buildNanos = Long.MAX_VALUE;
+        for (int run = 0; run < 5; run++) {
+            long start = System.nanoTime();
+            index = new ProductSearchIndex();
+            for (String[] product : catalog) {
+                index.put(product[0], product[1], product[2]);
+            }
+            buildNanos = Math.min(buildNanos, System.nanoTime() - start);
+        }
+
+        // Keystrokes of typing two words, from one letter up
+        List<String> queries = Arrays.asList("f", "fo", "foo", "foot", "footb", "football",
+                "football j", "football je", "football jersey", "s", "st", "str", "striker 12");
+        for (int warmup = 0; warmup < 200; warmup++) {
+            for (String query : queries) {
+                index.search(query, 50);
+            }
+        }
+        int rounds = 200;
+        long worstNanos = 0;
+        long totalNanos = 0;
+        for (int round = 0; round < rounds; round++) {
+            for (String query : queries) {
+                long start = System.nanoTime();
+                index.search(query, 50);
+                long elapsed = System.nanoTime() - start;
+                totalNanos += elapsed;
+                worstNanos = Math.max(worstNanos, elapsed);
+            }
+        }
+        double averageMs = totalNanos / 1e6 / (rounds * queries.size());
+
+        System.out.printf("Search index: build %d products %.1f ms, query avg %.3f ms, worst %.3f ms%n",
+                CATALOG_SIZE, buildNanos / 1e6, averageMs, worstNanos / 1e6);
+    }
+
+    private static String phrase(Random random, int words) {
+        StringBuilder phrase = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            if (i > 0) phrase.append(' ');
+            phrase.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return phrase.toString();
+    }
+}
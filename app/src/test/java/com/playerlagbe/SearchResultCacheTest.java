@@ -0,0 +1,53 @@
+package com.playerlagbe;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Eviction and expiry of SearchResultCache, on a hand-driven clock.
+ */
+public class SearchResultCacheTest {
+
+    private long now = 0;
+
+    private SearchResultCache<String> newCache(int maxEntries, long ttlMillis) {
+        return new SearchResultCache<>(maxEntries, ttlMillis, () -> now);
+    }
+
+    @Test
+    public void servesEntriesUntilTheyExpire() {
+        SearchResultCache<String> cache = newCache(4, 1000);
+        cache.put("a", "first");
+
+        now = 999;
+        assertEquals("first", cache.get("a"));
+        now = 1000;
+        assertNull(cache.get("a"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsed() {
+        SearchResultCache<String> cache = newCache(2, 60_000);
+        cache.put("a", "A");
+        cache.put("b", "B");
+        // Touching a makes b the eldest
+        assertEquals("A", cache.get("a"));
+        cache.put("c", "C");
+
+        assertEquals("A", cache.get("a"));
+        assertNull(cache.get("b"));
+        assertEquals("C", cache.get("c"));
+    }
+
+    @Test
+    public void replacingAnEntryRestartsItsTtl() {
+        SearchResultCache<String> cache = newCache(4, 1000);
+        cache.put("a", "old");
+        now = 800;
+        cache.put("a", "new");
+        now = 1500;
+        assertEquals("new", cache.get("a"));
+    }
+}
@@ -0,0 +1,37 @@
+plugins {
+    alias(libs.plugins.androidTest)
+    alias(libs.plugins.baselineprofile)
+}
+
+android {
+    namespace = "com.playerlagbe.baselineprofile"
+    compileSdk = 34
+
+    defaultConfig {
+        minSdk = 28
+        targetSdk = 34
+
+        testInstrumentationRunner = "androidx.test.runner.AndroidJUnitRunner"
+    }
+
+    targetProjectPath = ":app"
+
+    compileOptions {
+        sourceCompatibility = JavaVersion.VERSION_1_8
+        targetCompatibility = JavaVersion.VERSION_1_8
+    }
+}
+
+// Generate on a connected device:
+//   ./gradlew :app:generateBaselineProfile \
+//       -Pandroid.testInstrumentationRunnerArguments.username=<user> \
+//       -Pandroid.testInstrumentationRunnerArguments.password=<password>
+baselineProfile {
+    useConnectedDevices = true
+}
+
+dependencies {
+    implementation(libs.ext.junit)
+    implementation(libs.uiautomator)
+    implementation(libs.benchmark.macro.junit4)
+}
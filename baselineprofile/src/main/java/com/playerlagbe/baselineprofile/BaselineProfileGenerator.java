@@ -0,0 +1,68 @@
+package com.playerlagbe.baselineprofile;
+
+import android.os.Bundle;
+
+import androidx.benchmark.macro.junit4.BaselineProfileRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+import androidx.test.uiautomator.By;
+import androidx.test.uiautomator.UiDevice;
+import androidx.test.uiautomator.UiObject2;
+import androidx.test.uiautomator.Until;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import kotlin.Unit;
+
+/**
+ * Records the baseline profile for the critical path: login, MainActivity and
+ * the shop tab. Login is skipped when the device already has a session; when
+ * it doesn't, credentials come from the username/password runner arguments.
+ */
+@RunWith(AndroidJUnit4.class)
+public class BaselineProfileGenerator {
+
+    private static final String PACKAGE_NAME = "com.playerlagbe";
+    private static final long TIMEOUT_MS = 10_000;
+
+    @Rule
+    public BaselineProfileRule baselineProfileRule = new BaselineProfileRule();
+
+    @Test
+    public void generate() {
+        Bundle args = InstrumentationRegistry.getArguments();
+        String username = args.getString("username");
+        String password = args.getString("password");
+
+        baselineProfileRule.collect(
+                PACKAGE_NAME,
+                15,
+                3,
+                null,
+                true,
+                false,
+                className -> true,
+                scope -> {
+                    scope.pressHome();
+                    scope.startActivityAndWait();
+                    UiDevice device = scope.getDevice();
+
+                    UiObject2 emailInput = device.findObject(By.res(PACKAGE_NAME, "email"));
+                    if (emailInput != null && username != null && password != null) {
+                        emailInput.setText(username);
+                        device.findObject(By.res(PACKAGE_NAME, "password")).setText(password);
+                        device.findObject(By.res(PACKAGE_NAME, "loginButton")).click();
+                    }
+
+                    device.wait(Until.hasObject(By.res(PACKAGE_NAME, "bottomNavigationView")), TIMEOUT_MS);
+                    UiObject2 shopTab = device.findObject(By.res(PACKAGE_NAME, "nav_shop"));
+                    if (shopTab != null) {
+                        shopTab.click();
+                        device.waitForIdle();
+                    }
+                    return Unit.INSTANCE;
+                });
+    }
+}
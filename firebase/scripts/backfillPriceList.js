@@ -0,0 +1,77 @@
+#!/usr/bin/env node
+/**
+ * Adds every product's current price to the shop_meta/prices_{shard} price
+ * list shards, and removes the single shop_meta/prices document used before
+ * the list was sharded.
+ *
+ * Checkout trusts the price list alone and treats a product missing from it
+ * as removed, so run this once for products created before the list existed,
+ * and once when moving to the sharded list. Products are read a page at a
+ * time with only their price field. Safe to re-run: prices are merged, and
+ * entries already in the list are overwritten with the product's own price.
+ * Shards nearing Firestore's 1 MiB document limit are reported; raise
+ * NUM_SHARDS in priceShards.js and ShopPriceList together when one is.
+ *
+ * Usage (with GOOGLE_APPLICATION_CREDENTIALS pointing at a service account):
+ *   npm run backfill-prices
+ */
+const admin = require('firebase-admin');
+const {
+  NUM_SHARDS, MAX_DOCUMENT_BYTES, WARN_DOCUMENT_BYTES, shardOf, shardId, estimatedBytes,
+} = require('./priceShards');
+
+const PAGE_SIZE = 1000;
+
+async function main() {
+  admin.initializeApp();
+  const db = admin.firestore();
+
+  const shards = Array.from({ length: NUM_SHARDS }, () => ({}));
+  let last = null;
+  for (;;) {
+    let query = db.collection('shop')
+        .orderBy(admin.firestore.FieldPath.documentId())
+        .select('price')
+        .limit(PAGE_SIZE);
+    if (last) {
+      query = query.startAfter(last);
+    }
+    const page = await query.get();
+    for (const product of page.docs) {
+      const price = product.get('price');
+      if (typeof price === 'number') {
+        shards[shardOf(product.id)][product.id] = price;
+      }
+    }
+    if (page.size < PAGE_SIZE) {
+      break;
+    }
+    last = page.docs[page.size - 1];
+  }
+
+  // Checked before writing, so an oversized shard writes nothing
+  shards.forEach((prices, shard) => {
+    const bytes = estimatedBytes(shardId(shard), prices);
+    if (bytes > MAX_DOCUMENT_BYTES) {
+      throw new Error(`${shardId(shard)} would be about ${bytes} bytes, over the 1 MiB limit; raise NUM_SHARDS`);
+    }
+    if (bytes > WARN_DOCUMENT_BYTES) {
+      console.warn(`${shardId(shard)} is about ${bytes} of ${MAX_DOCUMENT_BYTES} bytes; raise NUM_SHARDS soon`);
+    }
+  });
+
+  // One write per shard, as a batch of them could pass the request size limit
+  const meta = db.collection('shop_meta');
+  let total = 0;
+  for (const [shard, prices] of shards.entries()) {
+    await meta.doc(shardId(shard)).set({ prices }, { merge: true });
+    total += Object.keys(prices).length;
+  }
+  await meta.doc('prices').delete();
+  console.log(`Wrote ${total} prices to ${NUM_SHARDS} shop_meta/prices_* shards.`);
+}
+
+main().catch((e) => {
+  console.error(e.message);
+  process.exit(1);
+});
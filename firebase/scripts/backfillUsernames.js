@@ -0,0 +1,85 @@
+#!/usr/bin/env node
+/**
+ * Adds a usernames/{name} entry for every user created before the usernames
+ * collection existed.
+ *
+ * Login by username only reads usernames/{name}, so a legacy account without
+ * an entry can sign in by email alone until this has run. Users are read a
+ * page at a time with only their username and email; the matching entries
+ * are read in one call per page and missing ones written in one batch. Names
+ * are lowercased and trimmed, as UsernameEmailCache.normalize() does. Safe to
+ * re-run: existing entries are never overwritten. When two legacy users
+ * share a name, the first by document id gets it and the others are listed
+ * so they can be told to log in by email.
+ *
+ * Usage (with GOOGLE_APPLICATION_CREDENTIALS pointing at a service account):
+ *   npm run backfill-usernames
+ */
+const admin = require('firebase-admin');
+
+const PAGE_SIZE = 500;
+
+function normalize(username) {
+  return username.trim().toLowerCase();
+}
+
+async function main() {
+  admin.initializeApp();
+  const db = admin.firestore();
+
+  let added = 0;
+  const clashes = [];
+  let last = null;
+  for (;;) {
+    let query = db.collection('users')
+        .orderBy(admin.firestore.FieldPath.documentId())
+        .select('username', 'email')
+        .limit(PAGE_SIZE);
+    if (last) {
+      query = query.startAfter(last);
+    }
+    const page = await query.get();
+
+    const candidates = page.docs.filter((user) =>
+      typeof user.get('username') === 'string' && normalize(user.get('username')) !== ''
+          && typeof user.get('email') === 'string' && user.get('email') !== '');
+    const refs = candidates.map((user) => db.collection('usernames').doc(normalize(user.get('username'))));
+    const entries = refs.length > 0 ? await db.getAll(...refs) : [];
+
+    const batch = db.batch();
+    const claimed = new Set();
+    let writes = 0;
+    candidates.forEach((user, i) => {
+      const name = refs[i].id;
+      if (entries[i].exists || claimed.has(name)) {
+        const owner = entries[i].exists ? entries[i].get('uid') : null;
+        if (owner !== user.id) {
+          clashes.push(`${user.id} (${name})`);
+        }
+        return;
+      }
+      claimed.add(name);
+      batch.set(refs[i], { uid: user.id, email: user.get('email'), username: user.get('username') });
+      writes++;
+    });
+    if (writes > 0) {
+      await batch.commit();
+      added += writes;
+    }
+    if (page.size < PAGE_SIZE) {
+      break;
+    }
+    last = page.docs[page.size - 1];
+  }
+
+  console.log(`Added ${added} usernames entries.`);
+  if (clashes.length > 0) {
+    console.log(`${clashes.length} users share a name already taken and can only log in by email:`);
+    clashes.forEach((clash) => console.log(`  ${clash}`));
+  }
+}
+
+main().catch((e) => {
+  console.error(e.message);
+  process.exit(1);
+});
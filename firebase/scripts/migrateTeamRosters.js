@@ -0,0 +1,68 @@
+#!/usr/bin/env node
+/**
+ * Converts each team's players array into a map keyed by player id.
+ *
+ * The app sets and deletes one player's summary at players.{playerId}, and
+ * can't read a team whose players field is still the old array, so run this
+ * once before releasing that version. Teams are read a page at a time and
+ * rewritten in batches. Safe to re-run: teams already holding a map are
+ * skipped.
+ *
+ * Usage (with GOOGLE_APPLICATION_CREDENTIALS pointing at a service account):
+ *   npm run migrate-rosters
+ */
+const admin = require('firebase-admin');
+
+const PAGE_SIZE = 500;
+
+async function main() {
+  admin.initializeApp();
+  const db = admin.firestore();
+
+  let migrated = 0;
+  let last = null;
+  for (;;) {
+    let query = db.collection('teams')
+        .orderBy(admin.firestore.FieldPath.documentId())
+        .select('players')
+        .limit(PAGE_SIZE);
+    if (last) {
+      query = query.startAfter(last);
+    }
+    const page = await query.get();
+    const batch = db.batch();
+    let writes = 0;
+    for (const team of page.docs) {
+      const players = team.get('players');
+      if (!Array.isArray(players)) {
+        continue;
+      }
+      const byId = {};
+      for (const summary of players) {
+        if (summary && typeof summary.playerId === 'string') {
+          byId[summary.playerId] = summary;
+        }
+      }
+      batch.update(team.ref, {
+        players: byId,
+        playerCount: Object.keys(byId).length,
+      });
+      writes++;
+    }
+    if (writes > 0) {
+      await batch.commit();
+      migrated += writes;
+    }
+    if (page.size < PAGE_SIZE) {
+      break;
+    }
+    last = page.docs[page.size - 1];
+  }
+
+  console.log(`Migrated ${migrated} team rosters.`);
+}
+
+main().catch((e) => {
+  console.error(e.message);
+  process.exit(1);
+});
@@ -0,0 +1,35 @@
+/**
+ * Price list sharding shared by the scripts and emulator tests, matching
+ * ShopPriceList in the app: a product's price lives in
+ * shop_meta/prices_{shard}, where shard is the product id's Java
+ * String.hashCode(), kept non-negative, modulo NUM_SHARDS.
+ */
+const NUM_SHARDS = 16;
+
+// Firestore's 1 MiB document limit, and the size past which a shard is
+// reported as filling up
+const MAX_DOCUMENT_BYTES = 1048576;
+const WARN_DOCUMENT_BYTES = Math.floor(MAX_DOCUMENT_BYTES * 8 / 10);
+
+function shardOf(productId) {
+  let hash = 0;
+  for (let i = 0; i < productId.length; i++) {
+    hash = (Math.imul(31, hash) + productId.charCodeAt(i)) | 0;
+  }
+  return (hash & 0x7fffffff) % NUM_SHARDS;
+}
+
+function shardId(shard) {
+  return `prices_${shard}`;
+}
+
+// Same estimate as ShopPriceList.estimatedBytes()
+function estimatedBytes(id, prices) {
+  let bytes = 'shop_meta'.length + 1 + id.length + 1 + 16 + 'prices'.length + 1 + 32;
+  for (const productId of Object.keys(prices)) {
+    bytes += productId.length + 1 + 8;
+  }
+  return bytes;
+}
+
+module.exports = { NUM_SHARDS, MAX_DOCUMENT_BYTES, WARN_DOCUMENT_BYTES, shardOf, shardId, estimatedBytes };
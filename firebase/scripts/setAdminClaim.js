@@ -0,0 +1,43 @@
+#!/usr/bin/env node
+/**
+ * Grants or revokes the `admin` custom claim checked by firestore.rules.
+ *
+ * The users/{uid}.admin field is mirrored so the app's admin screens, which
+ * gate on that document, stay in step with what the rules enforce.
+ *
+ * Usage (with GOOGLE_APPLICATION_CREDENTIALS pointing at a service account):
+ *   npm run set-admin -- someone@example.com
+ *   npm run set-admin -- someone@example.com --revoke
+ */
+const admin = require('firebase-admin');
+
+async function main() {
+  const args = process.argv.slice(2);
+  const email = args.find((arg) => !arg.startsWith('--'));
+  const revoke = args.includes('--revoke');
+  if (!email) {
+    console.error('Usage: setAdminClaim.js <email> [--revoke]');
+    process.exit(1);
+  }
+
+  admin.initializeApp();
+  const user = await admin.auth().getUserByEmail(email);
+
+  const claims = Object.assign({}, user.customClaims);
+  if (revoke) {
+    delete claims.admin;
+  } else {
+    claims.admin = true;
+  }
+  await admin.auth().setCustomUserClaims(user.uid, claims);
+  await admin.firestore().collection('users').doc(user.uid)
+      .set({ admin: !revoke }, { merge: true });
+
+  console.log(`${revoke ? 'Revoked' : 'Granted'} admin for ${email} (${user.uid}).`);
+  console.log('The change reaches the rules once the client refreshes its ID token.');
+}
+
+main().catch((e) => {
+  console.error(e.message);
+  process.exit(1);
+});
@@ -0,0 +1,112 @@
+/**
+ * Bulk product import throughput, run against the emulator.
+ *
+ * Compares the add-one-product-at-a-time path ManageShopActivity.addProduct()
+ * takes with the 500-document WriteBatch commits ProductBulkImporter uses.
+ * Both run as an admin through the real rules. The test checks how many
+ * commits and writes each path makes; timings are only printed, and on the
+ * emulator show the relative cost of round trips, not production latency.
+ */
+const fs = require('fs');
+const path = require('path');
+const assert = require('assert');
+const { initializeTestEnvironment } = require('@firebase/rules-unit-testing');
+const {
+  addDoc, collection, doc, getCountFromServer, getDocs, writeBatch, serverTimestamp, setLogLevel,
+} = require('firebase/firestore');
+
+const { NUM_SHARDS, shardOf, shardId } = require('../scripts/priceShards');
+
+const RULES = path.join(__dirname, '..', '..', 'firestore.rules');
+const PRODUCTS = 2000;
+const BATCH_LIMIT = 500;
+
+function product(i) {
+  return {
+    name: `Product ${i}`,
+    details: `Bulk imported product ${i}`,
+    price: 100 + i,
+    featured: i % 10 === 0,
+    createdAt: serverTimestamp(),
+  };
+}
+
+describe('bulk product import', () => {
+  let env;
+  let db;
+
+  before(async () => {
+    setLogLevel('error');
+    env = await initializeTestEnvironment({
+      projectId: 'demo-bulk-import',
+      firestore: { rules: fs.readFileSync(RULES, 'utf8') },
+    });
+    db = env.authenticatedContext('admin', { admin: true }).firestore();
+  });
+
+  beforeEach(() => env.clearFirestore());
+
+  after(() => env.cleanup());
+
+  // Runs write, which resolves to the commits it made, each the number of
+  // writes it held. Timings are printed, not asserted, since they depend on
+  // the machine and emulator.
+  async function timed(label, write) {
+    const start = process.hrtime.bigint();
+    const commits = await write();
+    const ms = Number(process.hrtime.bigint() - start) / 1e6;
+    console.log(`  ${label}: ${PRODUCTS} products in ${commits.length} commits, ${ms.toFixed(0)} ms`
+        + ` (${(PRODUCTS / (ms / 1000)).toFixed(0)} docs/s)`);
+    const count = await getCountFromServer(collection(db, 'shop'));
+    assert.strictEqual(count.data().count, PRODUCTS);
+    return { commits, ms };
+  }
+
+  it('commits products in a few full batches instead of one commit each', async () => {
+    const perDoc = await timed('per-document add', async () => {
+      const commits = [];
+      for (let i = 0; i < PRODUCTS; i++) {
+        await addDoc(collection(db, 'shop'), product(i));
+        commits.push(1);
+      }
+      return commits;
+    });
+
+    await env.clearFirestore();
+
+    // Like ProductBulkImporter, each batch leaves room for one write per
+    // price list shard and sets the prices of its products
+    const perBatch = BATCH_LIMIT - NUM_SHARDS;
+    const batched = await timed(`batches of ${BATCH_LIMIT}`, async () => {
+      const commits = [];
+      for (let start = 0; start < PRODUCTS; start += perBatch) {
+        const batch = writeBatch(db);
+        const prices = {};
+        for (let i = start; i < Math.min(start + perBatch, PRODUCTS); i++) {
+          const ref = doc(collection(db, 'shop'));
+          batch.set(ref, product(i));
+          const shard = shardId(shardOf(ref.id));
+          prices[shard] = { ...prices[shard], [ref.id]: 100 + i };
+        }
+        for (const [shard, shardPrices] of Object.entries(prices)) {
+          batch.set(doc(db, 'shop_meta', shard), { prices: shardPrices }, { merge: true });
+        }
+        await batch.commit();
+        commits.push(Math.min(perBatch, PRODUCTS - start) + Object.keys(prices).length);
+      }
+      return commits;
+    });
+
+    assert.strictEqual(perDoc.commits.length, PRODUCTS);
+    assert.strictEqual(batched.commits.length, Math.ceil(PRODUCTS / perBatch));
+    assert.ok(batched.commits.every((writes) => writes <= BATCH_LIMIT));
+    const writes = batched.commits.reduce((sum, n) => sum + n, 0);
+    assert.ok(writes >= PRODUCTS && writes <= PRODUCTS + batched.commits.length * NUM_SHARDS);
+    let priced = 0;
+    for (const shard of (await getDocs(collection(db, 'shop_meta'))).docs) {
+      priced += Object.keys(shard.get('prices') || {}).length;
+    }
+    assert.strictEqual(priced, PRODUCTS);
+    console.log(`  speedup: ${(perDoc.ms / batched.ms).toFixed(1)}x`);
+  });
+});
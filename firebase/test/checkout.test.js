@@ -0,0 +1,149 @@
+/**
+ * Checkout transaction under load, run against the emulator.
+ *
+ * Many shoppers place orders at once, each the way CheckoutManager does it:
+ * one transaction that reads the price list shards its cart falls in, checks
+ * the cart against them and writes orders/{id}. An admin reprices products
+ * meanwhile, which only contends with carts sharing a shard with them. Reports commit latency percentiles and
+ * how many attempts the transactions needed. Emulator timings only show
+ * relative cost, not production latency.
+ */
+const fs = require('fs');
+const path = require('path');
+const assert = require('assert');
+const { initializeTestEnvironment } = require('@firebase/rules-unit-testing');
+const {
+  collection, doc, getCountFromServer, runTransaction, serverTimestamp, setDoc, setLogLevel, writeBatch,
+} = require('firebase/firestore');
+
+const { shardOf, shardId } = require('../scripts/priceShards');
+
+const RULES = path.join(__dirname, '..', '..', 'firestore.rules');
+const STATS_DAY = '2026-10-17';
+const PRODUCTS = 50;
+const SHOPPERS = 200;
+const LINES_PER_CART = 5;
+const PRICE_UPDATES = 20;
+
+function percentile(sorted, p) {
+  return sorted[Math.min(sorted.length - 1, Math.floor(sorted.length * p))];
+}
+
+function toCents(price) {
+  return Math.round(price * 100);
+}
+
+describe('checkout transaction', () => {
+  let env;
+  let admin;
+
+  before(async () => {
+    setLogLevel('error');
+    env = await initializeTestEnvironment({
+      projectId: 'demo-checkout',
+      firestore: { rules: fs.readFileSync(RULES, 'utf8') },
+    });
+    admin = env.authenticatedContext('admin', { admin: true }).firestore();
+  });
+
+  beforeEach(async () => {
+    await env.clearFirestore();
+    const batch = writeBatch(admin);
+    for (let i = 0; i < PRODUCTS; i++) {
+      batch.set(doc(admin, 'shop', `p${i}`), { name: `Product ${i}`, price: 100 + i, createdAt: serverTimestamp() });
+      batch.set(priceShard(admin, `p${i}`), { prices: { [`p${i}`]: 100 + i } }, { merge: true });
+    }
+    await batch.commit();
+  });
+
+  after(() => env.cleanup());
+
+  function priceShard(db, productId) {
+    return doc(db, 'shop_meta', shardId(shardOf(productId)));
+  }
+
+  async function placeOrder(db, uid, cart) {
+    const orderRef = doc(collection(db, 'orders'));
+    let attempts = 0;
+    const start = process.hrtime.bigint();
+    const placed = await runTransaction(db, async (transaction) => {
+      attempts++;
+      const prices = {};
+      const shards = [...new Set(cart.map((line) => shardOf(line.productId)))].sort((a, b) => a - b);
+      for (const shard of shards) {
+        const priceList = await transaction.get(doc(db, 'shop_meta', shardId(shard)));
+        Object.assign(prices, priceList.get('prices') || {});
+      }
+      const changed = cart.filter((line) => toCents(prices[line.productId]) !== toCents(line.price));
+      if (changed.length > 0) {
+        return false;
+      }
+      transaction.set(orderRef, {
+        uid,
+        items: cart,
+        itemCount: cart.reduce((sum, line) => sum + line.quantity, 0),
+        total: cart.reduce((sum, line) => sum + line.price * line.quantity, 0),
+        status: 'pending',
+        createdAt: serverTimestamp(),
+        statsDay: STATS_DAY,
+        statsShard: 0,
+      });
+      return true;
+    });
+    return { placed, attempts, ms: Number(process.hrtime.bigint() - start) / 1e6 };
+  }
+
+  function cartFor(shopper) {
+    const cart = [];
+    for (let j = 0; j < LINES_PER_CART; j++) {
+      const i = (shopper * 7 + j * 11) % PRODUCTS;
+      cart.push({ productId: `p${i}`, name: `Product ${i}`, price: 100 + i, quantity: 1 + (j % 3) });
+    }
+    return cart;
+  }
+
+  it('places concurrent orders while prices change', async () => {
+    const orders = [];
+    for (let s = 0; s < SHOPPERS; s++) {
+      const db = env.authenticatedContext(`shopper${s}`).firestore();
+      orders.push(placeOrder(db, `shopper${s}`, cartFor(s)));
+    }
+
+    // Reprice the upper half of the catalog, the way ProductEditQueue batches it
+    const repricing = [];
+    for (let u = 0; u < PRICE_UPDATES; u++) {
+      const i = PRODUCTS / 2 + (u % (PRODUCTS / 2));
+      const batch = writeBatch(admin);
+      batch.update(doc(admin, 'shop', `p${i}`), { price: 200 + u });
+      batch.set(priceShard(admin, `p${i}`), { prices: { [`p${i}`]: 200 + u } }, { merge: true });
+      repricing.push(batch.commit());
+    }
+
+    const results = await Promise.all(orders);
+    await Promise.all(repricing);
+
+    const latencies = results.map((r) => r.ms).sort((a, b) => a - b);
+    const retried = results.filter((r) => r.attempts > 1).length;
+    const attempts = results.reduce((sum, r) => sum + r.attempts, 0);
+    const placed = results.filter((r) => r.placed).length;
+    console.log(`  ${SHOPPERS} checkouts of ${LINES_PER_CART} lines with ${PRICE_UPDATES} concurrent reprices`);
+    console.log(`  p50 ${percentile(latencies, 0.5).toFixed(0)} ms, p99 ${percentile(latencies, 0.99).toFixed(0)} ms`);
+    console.log(`  ${attempts} attempts, ${retried} transactions retried, ${placed} placed,`
+        + ` ${SHOPPERS - placed} rejected for changed prices`);
+
+    const count = await getCountFromServer(collection(admin, 'orders'));
+    assert.strictEqual(count.data().count, placed);
+    // Carts that only touch the lower half of the catalog never see a price change
+    const untouched = results.filter((r, s) => cartFor(s).every((line) => Number(line.productId.slice(1)) < PRODUCTS / 2));
+    assert.ok(untouched.every((r) => r.placed));
+  });
+
+  it('rejects a cart whose prices went stale', async () => {
+    const db = env.authenticatedContext('shopper').firestore();
+    await setDoc(priceShard(admin, 'p0'), { prices: { p0: 150 } }, { merge: true });
+    const result = await placeOrder(db, 'shopper', [{ productId: 'p0', name: 'Product 0', price: 100, quantity: 1 }]);
+    assert.strictEqual(result.placed, false);
+    const count = await getCountFromServer(collection(admin, 'orders'));
+    assert.strictEqual(count.data().count, 0);
+  });
+});
@@ -0,0 +1,271 @@
+/**
+ * Firestore rules tests, run against the local emulator with `npm test`.
+ *
+ * The same allow/deny matrix is checked against the previous document-based
+ * admin rules (test/fixtures/firestore.doc-admin.rules, the original
+ * firestore.rules unchanged) and the current claims-based firestore.rules,
+ * and per-write latency is reported for both. The fixture keeps its
+ * match /{document=**} catch-all, which let any signed-in user read and
+ * write anything; the cases it opens up are listed in CATCH_ALL_ALLOWS and
+ * expected to pass there only. Collections added since the fixture was taken
+ * are checked against firestore.rules only.
+ */
+const fs = require('fs');
+const path = require('path');
+const assert = require('assert');
+const {
+  initializeTestEnvironment,
+  assertSucceeds,
+} = require('@firebase/rules-unit-testing');
+const {
+  collection, doc, getDoc, setDoc, updateDoc, deleteDoc, increment, serverTimestamp, setLogLevel, writeBatch,
+} = require('firebase/firestore');
+
+const VARIANTS = {
+  docAdmin: path.join(__dirname, 'fixtures', 'firestore.doc-admin.rules'),
+  claimsAdmin: path.join(__dirname, '..', '..', 'firestore.rules'),
+};
+const LATENCY_WRITES = 50;
+
+const ADMIN_UID = 'admin-user';
+const PLAIN_UID = 'plain-user';
+
+// Each case returns the promise to check and whether it should be allowed
+const CASES = {
+  'anonymous reads shop': (ctx) => [getDoc(doc(ctx.anon, 'shop/p1')), true],
+  'anonymous creates product': (ctx) => [setDoc(doc(ctx.anon, 'shop/new'), product()), false],
+  'user creates product': (ctx) => [setDoc(doc(ctx.user, 'shop/new'), product()), false],
+  'user updates product': (ctx) => [updateDoc(doc(ctx.user, 'shop/p1'), { price: 1 }), false],
+  'user deletes product': (ctx) => [deleteDoc(doc(ctx.user, 'shop/p1')), false],
+  'admin creates product': (ctx) => [setDoc(doc(ctx.admin, 'shop/new'), product()), true],
+  'admin updates product': (ctx) => [updateDoc(doc(ctx.admin, 'shop/p1'), { price: 1 }), true],
+  'admin deletes product': (ctx) => [deleteDoc(doc(ctx.admin, 'shop/p1')), true],
+  'user reads own profile': (ctx) => [getDoc(doc(ctx.user, `users/${PLAIN_UID}`)), true],
+  'user reads other profile': (ctx) => [getDoc(doc(ctx.user, `users/${ADMIN_UID}`)), false],
+  'admin reads other profile': (ctx) => [getDoc(doc(ctx.admin, `users/${PLAIN_UID}`)), true],
+};
+
+// Shared cases the fixture's catch-all allows for any signed-in user, which
+// firestore.rules denies
+const CATCH_ALL_ALLOWS = new Set([
+  'user creates product',
+  'user updates product',
+  'user deletes product',
+  'user reads other profile',
+]);
+
+// Collections only firestore.rules knows about
+const COLLECTION_CASES = {
+  'user writes price list': (ctx) =>
+    [setDoc(doc(ctx.user, 'shop_meta/prices_0'), { prices: { p1: 0.01 } }), false],
+  'user takes over other username': (ctx) =>
+    [updateDoc(doc(ctx.user, 'usernames/boss'), { uid: PLAIN_UID }), false],
+  'user writes own cart': (ctx) => [setDoc(doc(ctx.user, `carts/${PLAIN_UID}`), { items: [] }), true],
+  'user reads other cart': (ctx) => [getDoc(doc(ctx.user, `carts/${ADMIN_UID}`)), false],
+  'user places own order': (ctx) => [setDoc(doc(ctx.user, 'orders/new'), order(PLAIN_UID)), true],
+  'user places order for other': (ctx) => [setDoc(doc(ctx.user, 'orders/new'), order(ADMIN_UID)), false],
+  'user places paid order': (ctx) =>
+    [setDoc(doc(ctx.user, 'orders/new'), { ...order(PLAIN_UID), status: 'paid' }), false],
+  'user places order with text total': (ctx) =>
+    [setDoc(doc(ctx.user, 'orders/new'), { ...order(PLAIN_UID), total: '10' }), false],
+  'user places order with text item count': (ctx) =>
+    [setDoc(doc(ctx.user, 'orders/new'), { ...order(PLAIN_UID), itemCount: '1' }), false],
+  'user places order with extra field': (ctx) =>
+    [setDoc(doc(ctx.user, 'orders/new'), { ...order(PLAIN_UID), discount: 5 }), false],
+  'user places order without statsDay': (ctx) => {
+    const { statsDay, ...rest } = order(PLAIN_UID);
+    return [setDoc(doc(ctx.user, 'orders/new'), rest), false];
+  },
+  'user places empty order': (ctx) =>
+    [setDoc(doc(ctx.user, 'orders/new'), { ...order(PLAIN_UID), items: [], itemCount: 0 }), false],
+  'user updates own order': (ctx) =>
+    [updateDoc(doc(ctx.user, 'orders/o1'), { status: 'paid', prevStatus: 'pending' }), false],
+  'admin updates order': (ctx) =>
+    [updateDoc(doc(ctx.admin, 'orders/o1'), { status: 'paid', prevStatus: 'pending' }), true],
+  'admin updates order from stale status': (ctx) =>
+    [updateDoc(doc(ctx.admin, 'orders/o1'), { status: 'shipped', prevStatus: 'paid' }), false],
+  'admin updates order without prevStatus': (ctx) =>
+    [updateDoc(doc(ctx.admin, 'orders/o1'), { status: 'paid' }), false],
+  'user reads order stats': (ctx) => [getDoc(doc(ctx.user, 'order_stats/0')), false],
+  'user bumps order stats alone': (ctx) =>
+    [setDoc(doc(ctx.user, STATUS_SHARD), stats('o1')[STATUS_SHARD], { merge: true }), false],
+  'user bumps order stats with new order': (ctx) => placeWithStats(ctx, stats, true),
+  'user places order with out of range stats shard': (ctx) =>
+    placeWithStats(ctx, (id) => ({}), false, { statsShard: 10 }),
+  'user places order with malformed statsDay': (ctx) =>
+    placeWithStats(ctx, (id) => ({}), false, { statsDay: '17/10/2026' }),
+  'user bumps a shard the order does not name': (ctx) =>
+    placeWithStats(ctx, (id) => ({ ...stats(id), 'order_stats/1': stats(id)[STATUS_SHARD] }), false),
+  'user counts revenue in another month': (ctx) =>
+    placeWithStats(ctx, (id) => ({
+      [STATUS_SHARD]: stats(id)[STATUS_SHARD],
+      'order_stats/2026-09_0': stats(id)[PERIOD_SHARD],
+    }), false),
+  'user bumps pending by two': (ctx) =>
+    placeWithStats(ctx, (id) => withShard(id, STATUS_SHARD, { statusCounts: { pending: increment(2) } }), false),
+  'user counts revenue in status shard': (ctx) =>
+    placeWithStats(ctx, (id) => withShard(id, STATUS_SHARD, { revenueByDay: { [STATS_DAY]: increment(1000) } }),
+        false),
+  'user inflates revenue': (ctx) =>
+    placeWithStats(ctx, (id) => withShard(id, PERIOD_SHARD, { revenueByDay: { [STATS_DAY]: increment(100000) } }),
+        false),
+  'user counts revenue on another day': (ctx) =>
+    placeWithStats(ctx, (id) => withShard(id, PERIOD_SHARD, { revenueByDay: { '2026-10-01': increment(1000) } }),
+        false),
+  'user bumps paid count': (ctx) =>
+    placeWithStats(ctx,
+        (id) => withShard(id, STATUS_SHARD, { statusCounts: { pending: increment(1), paid: increment(1) } }), false),
+  'user sets other shard fields': (ctx) => placeWithStats(ctx, (id) => withShard(id, PERIOD_SHARD, { note: 'x' }),
+      false),
+  'admin bumps order stats': (ctx) =>
+    [setDoc(doc(ctx.admin, 'order_stats/0'), { statusCounts: { paid: increment(1) } }, { merge: true }), true],
+};
+
+function product(price = 10) {
+  return { name: 'Jersey', details: 'Home kit', price, featured: false };
+}
+
+const STATS_DAY = '2026-10-17';
+const STATUS_SHARD = 'order_stats/0';
+const PERIOD_SHARD = 'order_stats/2026-10_0';
+
+function order(uid) {
+  return {
+    uid,
+    items: [{ productId: 'p1', name: 'Jersey', price: 10, quantity: 1 }],
+    itemCount: 1,
+    total: 10,
+    status: 'pending',
+    createdAt: serverTimestamp(),
+    statsDay: STATS_DAY,
+    statsShard: 0,
+  };
+}
+
+// What CheckoutManager adds to the status and period shards for order(),
+// by document path
+function stats(orderId) {
+  return {
+    [STATUS_SHARD]: { statusCounts: { pending: increment(1) }, lastOrderId: orderId },
+    [PERIOD_SHARD]: {
+      revenueByDay: { [STATS_DAY]: increment(1000) },
+      unitsByProduct: { p1: increment(1) },
+      lastOrderId: orderId,
+    },
+  };
+}
+
+// stats() with the shard at path changed by fields
+function withShard(orderId, path, fields) {
+  const writes = stats(orderId);
+  writes[path] = { ...writes[path], ...fields };
+  return writes;
+}
+
+// Places a new order, with orderFields over order(), and the shard writes
+// built by shardWrites
+function placeWithStats(ctx, shardWrites, allowed, orderFields = {}) {
+  const batch = writeBatch(ctx.user);
+  const orderRef = doc(collection(ctx.user, 'orders'));
+  batch.set(orderRef, { ...order(PLAIN_UID), ...orderFields });
+  for (const [shardPath, data] of Object.entries(shardWrites(orderRef.id))) {
+    batch.set(doc(ctx.user, shardPath), data, { merge: true });
+  }
+  return [batch.commit(), allowed];
+}
+
+// Resolves to whether the request was allowed; other errors propagate
+async function outcome(promise) {
+  try {
+    await promise;
+    return true;
+  } catch (e) {
+    if (e.code !== 'permission-denied') {
+      throw e;
+    }
+    return false;
+  }
+}
+
+async function setUp(projectId, rulesFile) {
+  const env = await initializeTestEnvironment({
+    projectId,
+    firestore: { rules: fs.readFileSync(rulesFile, 'utf8') },
+  });
+  await env.clearFirestore();
+  await env.withSecurityRulesDisabled(async (context) => {
+    const db = context.firestore();
+    await setDoc(doc(db, `users/${ADMIN_UID}`), { username: 'boss', admin: true });
+    await setDoc(doc(db, `users/${PLAIN_UID}`), { username: 'fan', admin: false });
+    await setDoc(doc(db, 'shop/p1'), product());
+    await setDoc(doc(db, 'usernames/boss'), { uid: ADMIN_UID, email: 'boss@example.com' });
+    await setDoc(doc(db, `carts/${ADMIN_UID}`), { items: [] });
+    await setDoc(doc(db, 'orders/o1'), order(PLAIN_UID));
+  });
+  const ctx = {
+    anon: env.unauthenticatedContext().firestore(),
+    user: env.authenticatedContext(PLAIN_UID).firestore(),
+    admin: env.authenticatedContext(ADMIN_UID, { admin: true }).firestore(),
+  };
+  return { env, ctx };
+}
+
+describe('firestore.rules', () => {
+  const outcomes = {};
+  const latencies = {};
+
+  before(() => setLogLevel('error'));
+
+  Object.keys(VARIANTS).forEach((variant) => {
+    describe(variant, () => {
+      let env;
+      let ctx;
+
+      beforeEach(async () => {
+        ({ env, ctx } = await setUp(`demo-${variant.toLowerCase()}`, VARIANTS[variant]));
+      });
+
+      afterEach(() => env.cleanup());
+
+      const cases = variant === 'claimsAdmin' ? { ...CASES, ...COLLECTION_CASES } : CASES;
+      Object.keys(cases).forEach((name) => {
+        it(name, async () => {
+          const [promise, allowedByRules] = cases[name](ctx);
+          const allowed = allowedByRules || (variant === 'docAdmin' && CATCH_ALL_ALLOWS.has(name));
+          const allowedNow = await outcome(promise);
+          outcomes[variant] = outcomes[variant] || {};
+          outcomes[variant][name] = allowedNow;
+          assert.strictEqual(allowedNow, allowed, `${name} ${allowedNow ? 'allowed' : 'denied'}`);
+        });
+      });
+
+      // Under the fixture the catch-all can also allow these writes, so its
+      // figures are a lower bound on the cost of the users document read
+      it(`measures ${LATENCY_WRITES} admin writes`, async () => {
+        const samples = [];
+        for (let i = 0; i < LATENCY_WRITES; i++) {
+          const start = process.hrtime.bigint();
+          await assertSucceeds(updateDoc(doc(ctx.admin, 'shop/p1'), { price: i }));
+          samples.push(Number(process.hrtime.bigint() - start) / 1e6);
+        }
+        samples.sort((a, b) => a - b);
+        latencies[variant] = {
+          p50: samples[Math.floor(samples.length * 0.5)],
+          p95: samples[Math.floor(samples.length * 0.95)],
+        };
+      });
+    });
+  });
+
+  after(() => {
+    // Both rule sets must have behaved the same on every shared case the
+    // catch-all doesn't decide
+    Object.keys(CASES).filter((name) => !CATCH_ALL_ALLOWS.has(name)).forEach((name) => {
+      assert.strictEqual((outcomes.docAdmin || {})[name], (outcomes.claimsAdmin || {})[name], name);
+    });
+    Object.keys(latencies).forEach((variant) => {
+      const { p50, p95 } = latencies[variant];
+      console.log(`  ${variant}: admin write p50 ${p50.toFixed(1)} ms, p95 ${p95.toFixed(1)} ms`);
+    });
+  });
+});
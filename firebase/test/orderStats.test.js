@@ -0,0 +1,242 @@
+/**
+ * Sharded order counters under concurrent writes, run against the emulator.
+ *
+ * Shoppers place orders in transactions and admins move orders along in
+ * blind write batches at the same time, each adding FieldValue.increment()s
+ * to a random order_stats/{n} status shard, and for revenue and units to an
+ * order_stats/{yyyy-MM}_{n} period shard, in the same commit, the way
+ * CheckoutManager and OrderStatusUpdater do. Summing the shards must then match a full scan
+ * of the orders, including when several admins move the same orders at once
+ * from lists that have gone stale.
+ */
+const fs = require('fs');
+const path = require('path');
+const assert = require('assert');
+const { initializeTestEnvironment } = require('@firebase/rules-unit-testing');
+const {
+  collection, doc, getDocs, increment, runTransaction, serverTimestamp, setLogLevel, writeBatch,
+} = require('firebase/firestore');
+
+const { shardOf, shardId } = require('../scripts/priceShards');
+
+const RULES = path.join(__dirname, '..', '..', 'firestore.rules');
+const NUM_SHARDS = 10;
+const SHOPPERS = 150;
+const PRODUCTS = 12;
+const DAYS = ['2026-09-30', '2026-10-16', '2026-10-17'];
+const FULFILMENT = ['pending', 'paid', 'shipped', 'delivered'];
+
+// Same as Order.canTransition
+function canTransition(from, to) {
+  if (to === 'cancelled') {
+    return from === 'pending' || from === 'paid';
+  }
+  const fromIndex = FULFILMENT.indexOf(from);
+  return fromIndex >= 0 && FULFILMENT.indexOf(to) > fromIndex;
+}
+
+function randomShard() {
+  return Math.floor(Math.random() * NUM_SHARDS);
+}
+
+function statusShard(db, shard) {
+  return doc(db, 'order_stats', String(shard));
+}
+
+// Same as OrderStats.periodOf
+function periodShard(db, day, shard) {
+  return doc(db, 'order_stats', `${day.substring(0, 7)}_${shard}`);
+}
+
+function unitDeltas(items, sign) {
+  const units = {};
+  for (const item of items) {
+    units[item.productId] = increment(sign * item.quantity);
+  }
+  return units;
+}
+
+describe('order stats counters', () => {
+  let env;
+  let admin;
+
+  before(async () => {
+    setLogLevel('error');
+    env = await initializeTestEnvironment({
+      projectId: 'demo-order-stats',
+      firestore: { rules: fs.readFileSync(RULES, 'utf8') },
+    });
+    admin = env.authenticatedContext('admin', { admin: true }).firestore();
+  });
+
+  beforeEach(() => env.clearFirestore());
+
+  after(() => env.cleanup());
+
+  async function placeOrder(db, shopper) {
+    const items = [];
+    for (let j = 0; j < 1 + (shopper % 3); j++) {
+      const p = (shopper + j * 5) % PRODUCTS;
+      items.push({ productId: `p${p}`, name: `Product ${p}`, price: 10 + p, quantity: 1 + (j % 2) });
+    }
+    const totalCents = items.reduce((sum, item) => sum + Math.round(item.price * 100) * item.quantity, 0);
+    const statsDay = DAYS[shopper % DAYS.length];
+    const statsShard = randomShard();
+    const orderRef = doc(collection(db, 'orders'));
+    await runTransaction(db, async (transaction) => {
+      // The price check reads, so the transaction has the same shape as checkout
+      for (const shard of new Set(items.map((item) => shardOf(item.productId)))) {
+        await transaction.get(doc(db, 'shop_meta', shardId(shard)));
+      }
+      transaction.set(orderRef, {
+        uid: `shopper${shopper}`, items, itemCount: items.reduce((sum, item) => sum + item.quantity, 0),
+        total: totalCents / 100, status: 'pending', statsDay, statsShard, createdAt: serverTimestamp(),
+      });
+      transaction.set(statusShard(db, statsShard), {
+        statusCounts: { pending: increment(1) },
+        lastOrderId: orderRef.id,
+      }, { merge: true });
+      transaction.set(periodShard(db, statsDay, statsShard), {
+        revenueByDay: { [statsDay]: increment(totalCents) },
+        unitsByProduct: unitDeltas(items, 1),
+        lastOrderId: orderRef.id,
+      }, { merge: true });
+    });
+    return { id: orderRef.id, items, totalCents, statsDay, status: 'pending' };
+  }
+
+  // Moves the orders that may go to `to` by the status this admin last saw,
+  // naming it as prevStatus and counting from it, as OrderStatusUpdater does.
+  // Resolves to the number moved: all of them, or none if the rules refused
+  // the batch because one had moved on.
+  async function transition(db, orders, to) {
+    const batch = writeBatch(db);
+    const statuses = {};
+    // Revenue and unit deltas for cancellations, by month
+    const totals = {};
+    const moving = orders.filter((order) => canTransition(order.status, to));
+    for (const order of moving) {
+      batch.update(doc(db, 'orders', order.id), { status: to, prevStatus: order.status, updatedAt: serverTimestamp() });
+      statuses[order.status] = (statuses[order.status] || 0) - 1;
+      statuses[to] = (statuses[to] || 0) + 1;
+      if (to === 'cancelled') {
+        const period = order.statsDay.substring(0, 7);
+        totals[period] = totals[period] || { ref: periodShard(db, order.statsDay, randomShard()), revenue: {}, units: {} };
+        const { revenue, units } = totals[period];
+        revenue[order.statsDay] = (revenue[order.statsDay] || 0) - order.totalCents;
+        for (const item of order.items) {
+          units[item.productId] = (units[item.productId] || 0) - item.quantity;
+        }
+      }
+    }
+    if (moving.length === 0) {
+      return 0;
+    }
+    const increments = (deltas) => Object.fromEntries(Object.entries(deltas).map(([k, v]) => [k, increment(v)]));
+    batch.set(statusShard(db, randomShard()), { statusCounts: increments(statuses) }, { merge: true });
+    for (const { ref, revenue, units } of Object.values(totals)) {
+      batch.set(ref, { revenueByDay: increments(revenue), unitsByProduct: increments(units) }, { merge: true });
+    }
+    try {
+      await batch.commit();
+    } catch (e) {
+      if (e.code !== 'permission-denied') {
+        throw e;
+      }
+      return 0;
+    }
+    return moving.length;
+  }
+
+  // The list an admin sees after their own batch committed
+  function moved(orders, to) {
+    return orders.map((order) => (canTransition(order.status, to) ? { ...order, status: to } : order));
+  }
+
+  // Sums the shards and compares them with a full scan of the orders
+  async function assertCountersMatchOrders() {
+    const expected = { statusCounts: {}, revenueByDay: {}, unitsByProduct: {} };
+    for (const order of (await getDocs(collection(admin, 'orders'))).docs) {
+      const data = order.data();
+      expected.statusCounts[data.status] = (expected.statusCounts[data.status] || 0) + 1;
+      if (data.status === 'cancelled') {
+        continue;
+      }
+      expected.revenueByDay[data.statsDay] = (expected.revenueByDay[data.statsDay] || 0)
+          + Math.round(data.total * 100);
+      for (const item of data.items) {
+        expected.unitsByProduct[item.productId] = (expected.unitsByProduct[item.productId] || 0) + item.quantity;
+      }
+    }
+
+    const shards = await getDocs(collection(admin, 'order_stats'));
+    const actual = { statusCounts: {}, revenueByDay: {}, unitsByProduct: {} };
+    for (const shard of shards.docs) {
+      for (const field of Object.keys(actual)) {
+        for (const [key, value] of Object.entries(shard.get(field) || {})) {
+          actual[field][key] = (actual[field][key] || 0) + value;
+        }
+      }
+    }
+    for (const field of Object.keys(actual)) {
+      for (const key of Object.keys(actual[field])) {
+        if (actual[field][key] === 0) {
+          delete actual[field][key];
+        }
+      }
+    }
+    assert.deepStrictEqual(actual, expected);
+    // One status shard and one period shard per month an order falls in
+    const months = new Set(DAYS.map((day) => day.substring(0, 7)));
+    assert.ok(shards.size <= NUM_SHARDS * (1 + months.size));
+    return shards.size;
+  }
+
+  it('match a full scan after concurrent checkouts and transitions', async () => {
+    // A first wave of orders for the admins to work on
+    const firstWave = await Promise.all(Array.from({ length: 60 }, (_, s) =>
+      placeOrder(env.authenticatedContext(`shopper${s}`).firestore(), s)));
+
+    // More checkouts race with paid/cancel transitions over the first wave
+    const start = process.hrtime.bigint();
+    await Promise.all([
+      ...Array.from({ length: SHOPPERS - 60 }, (_, i) =>
+        placeOrder(env.authenticatedContext(`shopper${60 + i}`).firestore(), 60 + i)),
+      transition(admin, firstWave.slice(0, 20), 'paid'),
+      transition(admin, firstWave.slice(20, 30), 'paid'),
+      transition(admin, firstWave.slice(30, 45), 'cancelled'),
+    ]);
+    assert.strictEqual(await transition(admin, moved(firstWave.slice(0, 10), 'paid'), 'shipped'), 10);
+    const ms = Number(process.hrtime.bigint() - start) / 1e6;
+    const shards = await assertCountersMatchOrders();
+
+    console.log(`  ${SHOPPERS} orders and 4 bulk transitions in ${ms.toFixed(0)} ms,`
+        + ` spread over ${shards} shards; totals read with ${shards} documents`);
+  });
+
+  it('count each order once when admins move the same orders at once', async () => {
+    const orders = await Promise.all(Array.from({ length: 30 }, (_, s) =>
+      placeOrder(env.authenticatedContext(`shopper${s}`).firestore(), s)));
+
+    // Every admin's list shows the orders pending. Two of them mark
+    // everything paid, a third cancels half of it and a fourth ships it, all
+    // at once; the first batch to land makes the others stale
+    const admins = ['admin1', 'admin2', 'admin3', 'admin4'].map((uid) =>
+      env.authenticatedContext(uid, { admin: true }).firestore());
+    const counts = await Promise.all([
+      transition(admins[0], orders, 'paid'),
+      transition(admins[1], orders, 'paid'),
+      transition(admins[2], orders.slice(0, 15), 'cancelled'),
+      transition(admins[3], orders, 'shipped'),
+    ]);
+
+    // Each batch landed whole or not at all, and the same order can't have
+    // left pending twice
+    for (const [i, count] of counts.entries()) {
+      assert.ok(count === 0 || count === (i === 2 ? 15 : orders.length), `batch ${i} moved ${count}`);
+    }
+    assert.ok(counts.some((count) => count > 0));
+    assert.ok(counts[0] === 0 || counts[1] === 0);
+    await assertCountersMatchOrders();
+  });
+});
@@ -0,0 +1,65 @@
+/**
+ * Username reservation under concurrent signups, run against the emulator.
+ *
+ * Mirrors FirebaseAuthManager.saveUser(): each signup commits users/{uid} and
+ * usernames/{name} in one batch, and the rules only allow creating the
+ * usernames entry, so exactly one of N racing signups may win.
+ */
+const fs = require('fs');
+const path = require('path');
+const assert = require('assert');
+const { initializeTestEnvironment } = require('@firebase/rules-unit-testing');
+const { doc, getDoc, writeBatch, setLogLevel } = require('firebase/firestore');
+
+const RULES = path.join(__dirname, '..', '..', 'firestore.rules');
+const SIGNUPS = 20;
+
+describe('username reservation', () => {
+  let env;
+
+  before(async () => {
+    setLogLevel('error');
+    env = await initializeTestEnvironment({
+      projectId: 'demo-usernames',
+      firestore: { rules: fs.readFileSync(RULES, 'utf8') },
+    });
+  });
+
+  beforeEach(() => env.clearFirestore());
+
+  after(() => env.cleanup());
+
+  function signup(uid, username) {
+    const db = env.authenticatedContext(uid).firestore();
+    const batch = writeBatch(db);
+    batch.set(doc(db, `users/${uid}`), { email: `${uid}@example.com`, username });
+    batch.set(doc(db, `usernames/${username.toLowerCase()}`),
+        { uid, email: `${uid}@example.com`, username });
+    return batch.commit();
+  }
+
+  it(`lets one of ${SIGNUPS} parallel signups take the same username`, async () => {
+    const uids = Array.from({ length: SIGNUPS }, (_, i) => `racer-${i}`);
+    const results = await Promise.allSettled(uids.map((uid) => signup(uid, 'Striker')));
+
+    const winners = uids.filter((uid, i) => results[i].status === 'fulfilled');
+    assert.strictEqual(winners.length, 1);
+
+    await env.withSecurityRulesDisabled(async (context) => {
+      const db = context.firestore();
+      const entry = await getDoc(doc(db, 'usernames/striker'));
+      assert.strictEqual(entry.data().uid, winners[0]);
+
+      // Losing batches must not leave a profile behind
+      for (const uid of uids) {
+        const profile = await getDoc(doc(db, `users/${uid}`));
+        assert.strictEqual(profile.exists(), uid === winners[0], uid);
+      }
+    });
+  });
+
+  it('treats usernames case-insensitively', async () => {
+    await signup('first', 'Keeper');
+    await assert.rejects(signup('second', 'KEEPER'));
+  });
+});
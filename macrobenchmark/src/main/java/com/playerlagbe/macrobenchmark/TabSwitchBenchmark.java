@@ -0,0 +1,63 @@
+package com.playerlagbe.macrobenchmark;
+
+import androidx.benchmark.macro.CompilationMode;
+import androidx.benchmark.macro.FrameTimingMetric;
+import androidx.benchmark.macro.StartupMode;
+import androidx.benchmark.macro.junit4.MacrobenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.uiautomator.By;
+import androidx.test.uiautomator.UiDevice;
+import androidx.test.uiautomator.UiObject2;
+import androidx.test.uiautomator.Until;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Collections;
+
+import kotlin.Unit;
+
+/**
+ * Frame timings while cycling through the bottom navigation tabs.
+ *
+ * Run with ./gradlew :macrobenchmark:connectedBenchmarkAndroidTest on a device
+ * where the app is already signed in, otherwise MainActivity redirects to login.
+ */
+@RunWith(AndroidJUnit4.class)
+public class TabSwitchBenchmark {
+
+    static final String PACKAGE_NAME = "com.playerlagbe";
+    private static final String[] TABS = {"nav_teams", "nav_shop", "nav_manager", "nav_home"};
+    private static final long TIMEOUT_MS = 5_000;
+
+    @Rule
+    public MacrobenchmarkRule benchmarkRule = new MacrobenchmarkRule();
+
+    @Test
+    public void switchTabs() {
+        benchmarkRule.measureRepeated(
+                PACKAGE_NAME,
+                Collections.singletonList(new FrameTimingMetric()),
+                CompilationMode.DEFAULT,
+                StartupMode.WARM,
+                10,
+                scope -> {
+                    scope.pressHome();
+                    scope.startActivityAndWait();
+                    return Unit.INSTANCE;
+                },
+                scope -> {
+                    UiDevice device = scope.getDevice();
+                    // Two rounds so the second one hits tabs that already exist
+                    for (int round = 0; round < 2; round++) {
+                        for (String tab : TABS) {
+                            UiObject2 item = device.wait(Until.findObject(By.res(PACKAGE_NAME, tab)), TIMEOUT_MS);
+                            item.click();
+                            device.waitForIdle();
+                        }
+                    }
+                    return Unit.INSTANCE;
+                });
+    }
+}
@@ -21,4 +21,6 @@ dependencyResolutionManagement {
 
 rootProject.name = "My Application"
 include(":app")
+include(":macrobenchmark")
+include(":baselineprofile")
  
\ No newline at end of file